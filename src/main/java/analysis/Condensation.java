@@ -0,0 +1,295 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import model.CallGraph;
+import model.DataFlowEdge;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+
+/**
+ * The strongly connected components of a directed graph, together with the condensed graph in which each component is a single node. The condensed graph has
+ * no cycles, so that traversals and summaries on it handle each cyclic region only once. The components are computed with an iterative version of Tarjan's
+ * algorithm, so that deep graphs do not overflow the stack.
+ * <p>
+ * Components are numbered in reverse topological order: a component only has edges to components with a lower number. The graph elements are compared on
+ * identity.
+ *
+ * @author Daan
+ * @param <T> The type of the nodes in the graph.
+ */
+public class Condensation<T> {
+
+  private final List<T> nodes;
+  private final Map<T, Integer> nodeIndex = new IdentityHashMap<>();
+  private final int[] componentOf;
+  private final List<List<T>> components = new ArrayList<>();
+  private final List<int[]> successors = new ArrayList<>();
+  private final BitSet cyclic = new BitSet();
+
+  private Condensation(Collection<T> nodes, Function<T, ? extends Collection<T>> next) {
+    this.nodes = new ArrayList<>(nodes.size());
+    for (T node : nodes) {
+      if (nodeIndex.putIfAbsent(node, this.nodes.size()) == null) {
+        this.nodes.add(node);
+      }
+    }
+    int[][] adjacency = new int[this.nodes.size()][];
+    for (int i = 0; i < adjacency.length; i++) {
+      adjacency[i] = next.apply(this.nodes.get(i)).stream().map(nodeIndex::get).filter(j -> j != null).mapToInt(Integer::intValue).toArray();
+    }
+    this.componentOf = new int[adjacency.length];
+    tarjan(adjacency);
+    condense(adjacency);
+  }
+
+  /**
+   * @param nodes The {@link DataFlowNode}s of the graph, edges to nodes outside this collection are ignored.
+   * @return The {@link Condensation} of the graph following {@link DataFlowNode#getOut()}.
+   */
+  public static Condensation<DataFlowNode> ofNodes(Collection<DataFlowNode> nodes) {
+    return new Condensation<>(nodes, n -> {
+      List<DataFlowNode> out = new ArrayList<>(n.getOut().size());
+      n.getOut().stream().map(DataFlowEdge::getTo).forEach(out::add);
+      return out;
+    });
+  }
+
+  /**
+   * @param callGraph The {@link CallGraph} giving the calls between the methods.
+   * @param methods The {@link DataFlowMethod}s to include, calls to methods outside this collection are ignored.
+   * @return The {@link Condensation} of the call graph, where each component is a group of mutually recursive methods.
+   */
+  public static Condensation<DataFlowMethod> ofCallGraph(CallGraph callGraph, Collection<DataFlowMethod> methods) {
+    return new Condensation<>(methods, callGraph::getCallees);
+  }
+
+  /**
+   * @param nodes The nodes of the graph.
+   * @param next Function returning the nodes to which a node has an edge, edges to nodes outside the given collection are ignored.
+   * @return The {@link Condensation} of the graph.
+   */
+  public static <T> Condensation<T> of(Collection<T> nodes, Function<T, ? extends Collection<T>> next) {
+    return new Condensation<>(nodes, next);
+  }
+
+  /**
+   * @return The number of strongly connected components.
+   */
+  public int size() {
+    return components.size();
+  }
+
+  /**
+   * @param node A node of the graph.
+   * @return The number of the component containing the node, -1 if the node is not part of the graph.
+   */
+  public int getComponent(T node) {
+    Integer index = nodeIndex.get(node);
+    return index == null ? -1 : componentOf[index];
+  }
+
+  /**
+   * @param component The number of the component.
+   * @return The nodes within the component.
+   */
+  public List<T> getMembers(int component) {
+    return Collections.unmodifiableList(components.get(component));
+  }
+
+  /**
+   * @param component The number of the component.
+   * @return The numbers of the components to which the given component has an edge in the condensed graph, each number once.
+   */
+  public int[] getSuccessors(int component) {
+    return successors.get(component).clone();
+  }
+
+  /**
+   * @param component The number of the component.
+   * @return True if the component contains a cycle, meaning it has more than one node or a node with an edge to itself.
+   */
+  public boolean isCyclic(int component) {
+    return cyclic.get(component);
+  }
+
+  /**
+   * Walks the condensed graph from the given node, handling each component once.
+   *
+   * @param start The node to start from.
+   * @return All nodes that can be reached from the given node, including the node itself.
+   */
+  public List<T> getReachable(T start) {
+    List<T> reachable = new ArrayList<>();
+    int first = getComponent(start);
+    if (first < 0) {
+      return reachable;
+    }
+    BitSet visited = new BitSet();
+    Deque<Integer> toVisit = new ArrayDeque<>();
+    toVisit.push(first);
+    visited.set(first);
+    while (!toVisit.isEmpty()) {
+      int component = toVisit.pop();
+      reachable.addAll(components.get(component));
+      for (int next : successors.get(component)) {
+        if (!visited.get(next)) {
+          visited.set(next);
+          toVisit.push(next);
+        }
+      }
+    }
+    return reachable;
+  }
+
+  /**
+   * Computes a summary for each component, bottom up over the condensed graph. The summary of a component is the combination of the local summary of its
+   * members with the summaries of all its successors. Each component is summarized once, even if it contains cycles.
+   *
+   * @param local Function computing the summary of the members of a single component.
+   * @param combine Function combining two summaries.
+   * @return The summaries, indexed on the number of the component.
+   */
+  public <S> List<S> summarize(Function<List<T>, S> local, BinaryOperator<S> combine) {
+    List<S> summaries = new ArrayList<>(components.size());
+    // Components are numbered in reverse topological order, so the successors of a component are always summarized before the component itself.
+    for (int component = 0; component < components.size(); component++) {
+      S summary = local.apply(getMembers(component));
+      for (int next : successors.get(component)) {
+        summary = combine.apply(summary, summaries.get(next));
+      }
+      summaries.add(summary);
+    }
+    return summaries;
+  }
+
+  private void tarjan(int[][] adjacency) {
+    int n = adjacency.length;
+    int[] index = new int[n];
+    int[] lowLink = new int[n];
+    Arrays.fill(index, -1);
+    BitSet onStack = new BitSet(n);
+    int[] stack = new int[n];
+    int stackSize = 0;
+    // The explicit call stack, holding the node and the index of its next edge to handle.
+    int[] callNode = new int[n];
+    int[] callEdge = new int[n];
+    int counter = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      callNode[0] = root;
+      callEdge[0] = 0;
+      index[root] = lowLink[root] = counter++;
+      stack[stackSize++] = root;
+      onStack.set(root);
+      while (depth >= 0) {
+        int v = callNode[depth];
+        if (callEdge[depth] < adjacency[v].length) {
+          int w = adjacency[v][callEdge[depth]++];
+          if (index[w] < 0) {
+            index[w] = lowLink[w] = counter++;
+            stack[stackSize++] = w;
+            onStack.set(w);
+            depth++;
+            callNode[depth] = w;
+            callEdge[depth] = 0;
+          } else if (onStack.get(w)) {
+            lowLink[v] = Math.min(lowLink[v], index[w]);
+          }
+        } else {
+          if (lowLink[v] == index[v]) {
+            int component = components.size();
+            List<T> members = new ArrayList<>();
+            int w;
+            do {
+              w = stack[--stackSize];
+              onStack.clear(w);
+              componentOf[w] = component;
+              members.add(nodes.get(w));
+            } while (w != v);
+            components.add(members);
+          }
+          depth--;
+          if (depth >= 0) {
+            int parent = callNode[depth];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+          }
+        }
+      }
+    }
+  }
+
+  private void condense(int[][] adjacency) {
+    int nofComponents = components.size();
+    // The vertices ordered by component, via a counting sort on the component numbers.
+    int[] start = new int[nofComponents + 1];
+    for (int c : componentOf) {
+      start[c + 1]++;
+    }
+    for (int c = 0; c < nofComponents; c++) {
+      start[c + 1] += start[c];
+    }
+    int[] vertices = new int[adjacency.length];
+    int[] next = Arrays.copyOf(start, nofComponents);
+    for (int v = 0; v < adjacency.length; v++) {
+      vertices[next[componentOf[v]]++] = v;
+    }
+    // The last component from which an edge to each component was added, so that each successor is added once without a set per component.
+    int[] lastSeenFrom = new int[nofComponents];
+    Arrays.fill(lastSeenFrom, -1);
+    int[] targets = new int[nofComponents];
+    for (int from = 0; from < nofComponents; from++) {
+      int nofTargets = 0;
+      for (int i = start[from]; i < start[from + 1]; i++) {
+        for (int w : adjacency[vertices[i]]) {
+          int to = componentOf[w];
+          if (from == to) {
+            cyclic.set(from);
+          } else if (lastSeenFrom[to] != from) {
+            lastSeenFrom[to] = from;
+            targets[nofTargets++] = to;
+          }
+        }
+      }
+      if (components.get(from).size() > 1) {
+        cyclic.set(from);
+      }
+      int[] componentSuccessors = Arrays.copyOf(targets, nofTargets);
+      Arrays.sort(componentSuccessors);
+      successors.add(componentSuccessors);
+    }
+  }
+
+}
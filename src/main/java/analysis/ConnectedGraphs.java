@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+
+/**
+ * Collects the {@link DataFlowGraph}s connected to a set of graphs via inner graphs and depended graphs, together with their methods and nodes. All
+ * collections are based on identity, so that the deep {@link Object#hashCode()} of the model is never called.
+ *
+ * @author Daan
+ */
+final class ConnectedGraphs {
+
+  private final List<DataFlowGraph> graphs = new ArrayList<>();
+  private final List<DataFlowMethod> methods = new ArrayList<>();
+  private final List<DataFlowNode> nodes = new ArrayList<>();
+
+  private ConnectedGraphs(Collection<DataFlowGraph> roots) {
+    Set<DataFlowGraph> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<DataFlowGraph> toVisit = new ArrayDeque<>(roots);
+    while (!toVisit.isEmpty()) {
+      DataFlowGraph graph = toVisit.poll();
+      if (visited.add(graph)) {
+        graphs.add(graph);
+        toVisit.addAll(graph.getInnerGraphs());
+        toVisit.addAll(graph.getDependedGraphs().values());
+      }
+    }
+    Set<DataFlowNode> added = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (DataFlowGraph graph : graphs) {
+      graph.getFields().stream().filter(added::add).forEach(nodes::add);
+      List<DataFlowMethod> all = new ArrayList<>(graph.getConstructors());
+      all.addAll(graph.getInitializers());
+      all.addAll(graph.getMethods());
+      for (DataFlowMethod method : all) {
+        methods.add(method);
+        if (method.getParameters() != null) {
+          method.getParameters().getNodes().stream().filter(added::add).forEach(nodes::add);
+        }
+        method.getNodes().stream().filter(added::add).forEach(nodes::add);
+        method.getReturnNode().filter(added::add).ifPresent(nodes::add);
+      }
+    }
+  }
+
+  /**
+   * @param roots The {@link DataFlowGraph}s to start from.
+   * @return The {@link ConnectedGraphs} containing the given graphs and all graphs that can be reached from them.
+   */
+  static ConnectedGraphs of(Collection<DataFlowGraph> roots) {
+    return new ConnectedGraphs(roots);
+  }
+
+  List<DataFlowGraph> getGraphs() {
+    return graphs;
+  }
+
+  /**
+   * @return All methods, constructors and initializers of the graphs.
+   */
+  List<DataFlowMethod> getMethods() {
+    return methods;
+  }
+
+  /**
+   * @return All fields of the graphs and all nodes of their methods, each node once.
+   */
+  List<DataFlowNode> getNodes() {
+    return nodes;
+  }
+
+}
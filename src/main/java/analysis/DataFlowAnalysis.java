@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.github.javaparser.ast.Node;
+
+import model.DataFlowMethod;
+import model.DataFlowNode;
+import util.Direction;
+
+/**
+ * Generic solver for monotone data flow analyses over the nodes of a {@link DataFlowMethod}, for instance constant propagation or nullness. The value of a
+ * node is computed by applying the {@link TransferFunction} for the kind of its represented node to the join of the values of the nodes flowing into it.
+ * Nodes are handled from a worklist ordered on the reverse post order of the graph, so that most nodes are only handled once when the graph has no cycles.
+ * A node is only handled again if the value of one of its inputs changed, the analysis is done when the worklist is empty.
+ * <p>
+ * Only nodes and edges within the method are considered. Nodes without input from within the method, like parameters and reads of fields, get their input
+ * from the entry function.
+ *
+ * @author Daan
+ * @param <V> The type of the computed values.
+ */
+public class DataFlowAnalysis<V> {
+
+  private final Lattice<V> lattice;
+  private final Direction direction;
+  private final Function<DataFlowNode, V> entry;
+  private final TransferFunction<V> defaultTransfer;
+  private final Map<Class<?>, TransferFunction<V>> transfers;
+
+  private DataFlowAnalysis(Builder<V> builder) {
+    this.lattice = builder.lattice;
+    this.direction = builder.direction;
+    this.entry = builder.entry == null ? n -> lattice.bottom() : builder.entry;
+    this.defaultTransfer = builder.defaultTransfer;
+    this.transfers = new ConcurrentHashMap<>(builder.transfers);
+  }
+
+  /**
+   * Runs the analysis until it converges.
+   *
+   * @param method The {@link DataFlowMethod} to analyse.
+   * @return The {@link DataFlowResult} containing the value for each node of the method.
+   */
+  public DataFlowResult<V> solve(DataFlowMethod method) {
+    List<DataFlowNode> order = reversePostOrder(collectNodes(method));
+    Map<DataFlowNode, Integer> index = new IdentityHashMap<>();
+    for (int i = 0; i < order.size(); i++) {
+      index.put(order.get(i), i);
+    }
+    List<V> values = new ArrayList<>(Collections.nCopies(order.size(), lattice.bottom()));
+
+    PriorityQueue<Integer> worklist = new PriorityQueue<>();
+    BitSet queued = new BitSet();
+    for (int i = 0; i < order.size(); i++) {
+      worklist.add(i);
+      queued.set(i);
+    }
+    int iterations = 0;
+    while (!worklist.isEmpty()) {
+      int i = worklist.poll();
+      queued.clear(i);
+      DataFlowNode node = order.get(i);
+      V input = null;
+      for (DataFlowNode previous : neighbours(node, direction.reverse(), index)) {
+        V value = values.get(index.get(previous));
+        input = input == null ? value : lattice.join(input, value);
+      }
+      V output = getTransfer(node).apply(node, input == null ? entry.apply(node) : input);
+      iterations++;
+      // Joining with the current value keeps values increasing, so that the analysis terminates on a lattice with finite height.
+      V joined = lattice.join(values.get(i), output);
+      if (!lattice.isEqual(joined, values.get(i))) {
+        values.set(i, joined);
+        for (DataFlowNode next : neighbours(node, direction, index)) {
+          int j = index.get(next);
+          if (!queued.get(j)) {
+            queued.set(j);
+            worklist.add(j);
+          }
+        }
+      }
+    }
+
+    Map<DataFlowNode, V> result = new IdentityHashMap<>();
+    for (int i = 0; i < order.size(); i++) {
+      result.put(order.get(i), values.get(i));
+    }
+    return new DataFlowResult<>(result, lattice.bottom(), iterations);
+  }
+
+  public static <V> Builder<V> builder() {
+    return new Builder<>();
+  }
+
+  private List<DataFlowNode> collectNodes(DataFlowMethod method) {
+    List<DataFlowNode> nodes = new ArrayList<>();
+    Map<DataFlowNode, Boolean> added = new IdentityHashMap<>();
+    if (method.getParameters() != null) {
+      method.getParameters().getNodes().stream().filter(n -> added.put(n, true) == null).forEach(nodes::add);
+    }
+    method.getNodes().stream().filter(n -> added.put(n, true) == null).forEach(nodes::add);
+    method.getReturnNode().filter(n -> added.put(n, true) == null).ifPresent(nodes::add);
+    return nodes;
+  }
+
+  /**
+   * Orders the nodes on the reverse post order of a depth first search in the direction of the analysis, starting from the nodes without input. This order
+   * makes sure that a node comes after all its inputs, except for inputs via a cycle.
+   */
+  private List<DataFlowNode> reversePostOrder(List<DataFlowNode> nodes) {
+    Map<DataFlowNode, Integer> inScope = new IdentityHashMap<>();
+    nodes.forEach(n -> inScope.put(n, 0));
+    List<DataFlowNode> roots = new ArrayList<>();
+    nodes.stream().filter(n -> neighbours(n, direction.reverse(), inScope).isEmpty()).forEach(roots::add);
+    roots.addAll(nodes);
+
+    Map<DataFlowNode, Boolean> visited = new IdentityHashMap<>();
+    List<DataFlowNode> postOrder = new ArrayList<>();
+    List<DataFlowNode> stack = new ArrayList<>();
+    List<Integer> edgeIndex = new ArrayList<>();
+    for (DataFlowNode root : roots) {
+      if (visited.put(root, true) != null) {
+        continue;
+      }
+      stack.add(root);
+      edgeIndex.add(0);
+      while (!stack.isEmpty()) {
+        int top = stack.size() - 1;
+        List<DataFlowNode> next = neighbours(stack.get(top), direction, inScope);
+        int i = edgeIndex.get(top);
+        if (i < next.size()) {
+          edgeIndex.set(top, i + 1);
+          if (visited.put(next.get(i), true) == null) {
+            stack.add(next.get(i));
+            edgeIndex.add(0);
+          }
+        } else {
+          postOrder.add(stack.remove(top));
+          edgeIndex.remove(top);
+        }
+      }
+    }
+    Collections.reverse(postOrder);
+    return postOrder;
+  }
+
+  private List<DataFlowNode> neighbours(DataFlowNode node, Direction dir, Map<DataFlowNode, Integer> inScope) {
+    List<DataFlowNode> result = new ArrayList<>();
+    dir.getEdges(node).stream().map(dir::getNext).filter(inScope::containsKey).forEach(result::add);
+    return result;
+  }
+
+  private TransferFunction<V> getTransfer(DataFlowNode node) {
+    Node represented = node.getRepresentedNode();
+    if (represented == null) {
+      return defaultTransfer;
+    }
+    return transfers.computeIfAbsent(represented.getClass(), this::findTransfer);
+  }
+
+  private TransferFunction<V> findTransfer(Class<?> kind) {
+    // Only exact classes are registered, for sub classes the transfer function of the closest registered super class is used.
+    for (Class<?> c = kind.getSuperclass(); c != null; c = c.getSuperclass()) {
+      TransferFunction<V> transfer = transfers.get(c);
+      if (transfer != null) {
+        return transfer;
+      }
+    }
+    return defaultTransfer;
+  }
+
+  /**
+   * Builder to build {@link DataFlowAnalysis}.
+   *
+   * @param <V> The type of the computed values.
+   */
+  public static final class Builder<V> {
+    private Lattice<V> lattice;
+    private Direction direction = Direction.FORWARD;
+    private Function<DataFlowNode, V> entry;
+    private TransferFunction<V> defaultTransfer = (node, input) -> input;
+    private Map<Class<?>, TransferFunction<V>> transfers = new HashMap<>();
+
+    private Builder() {
+      // Builder should only be constructed via the parent class
+    }
+
+    public Builder<V> lattice(Lattice<V> lattice) {
+      this.lattice = lattice;
+      return this;
+    }
+
+    /**
+     * @param direction {@link Direction#FORWARD} to compute values from the input of a node, {@link Direction#BACKWARD} to compute them from its output.
+     * @return this builder
+     */
+    public Builder<V> direction(Direction direction) {
+      this.direction = direction;
+      return this;
+    }
+
+    /**
+     * @param entry Function giving the input for nodes without input from within the method, by default {@link Lattice#bottom()}.
+     * @return this builder
+     */
+    public Builder<V> entry(Function<DataFlowNode, V> entry) {
+      this.entry = entry;
+      return this;
+    }
+
+    /**
+     * @param defaultTransfer The {@link TransferFunction} for nodes of a kind without registered transfer function, by default returning the input.
+     * @return this builder
+     */
+    public Builder<V> defaultTransfer(TransferFunction<V> defaultTransfer) {
+      this.defaultTransfer = defaultTransfer;
+      return this;
+    }
+
+    /**
+     * @param kind The class of the represented {@link Node}, the transfer function is also used for sub classes.
+     * @param transfer The {@link TransferFunction} for nodes representing the given kind.
+     * @return this builder
+     */
+    public Builder<V> transfer(Class<? extends Node> kind, TransferFunction<V> transfer) {
+      this.transfers.put(kind, transfer);
+      return this;
+    }
+
+    public DataFlowAnalysis<V> build() {
+      return new DataFlowAnalysis<>(this);
+    }
+  }
+
+}
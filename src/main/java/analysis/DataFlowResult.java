@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Map;
+
+import model.DataFlowNode;
+
+/**
+ * The values computed by a {@link DataFlowAnalysis} for the nodes of a single method.
+ *
+ * @author Daan
+ * @param <V> The type of the values.
+ */
+public class DataFlowResult<V> {
+
+  private final Map<DataFlowNode, V> values;
+  private final V bottom;
+  private final int iterations;
+
+  DataFlowResult(Map<DataFlowNode, V> values, V bottom, int iterations) {
+    this.values = values;
+    this.bottom = bottom;
+    this.iterations = iterations;
+  }
+
+  /**
+   * @param node The {@link DataFlowNode} to get the value for.
+   * @return The computed value, {@link Lattice#bottom()} if the node was not part of the analysed method.
+   */
+  public V getValue(DataFlowNode node) {
+    return values.getOrDefault(node, bottom);
+  }
+
+  /**
+   * @return The number of times a transfer function was applied until the analysis converged.
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Objects;
+
+/**
+ * The lattice of the values computed by a {@link DataFlowAnalysis}. To guarantee that the analysis terminates, the lattice should have a finite height: each
+ * value can only be increased via {@link #join(Object, Object)} a limited number of times.
+ *
+ * @author Daan
+ * @param <V> The type of the values.
+ */
+public interface Lattice<V> {
+
+  /**
+   * @return The smallest value, used as initial value for all nodes.
+   */
+  V bottom();
+
+  /**
+   * @param a The first value.
+   * @param b The second value.
+   * @return The least upper bound of both values. Implementations should not modify the input values.
+   */
+  V join(V a, V b);
+
+  /**
+   * @param a The first value.
+   * @param b The second value.
+   * @return True if both values are equal, used to detect that the analysis converged.
+   */
+  default boolean isEqual(V a, V b) {
+    return Objects.equals(a, b);
+  }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.DataFlowEdge;
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+import model.NodeCall;
+import model.ParameterList;
+
+/**
+ * Finds flows of tainted data from sources to sinks. All sources are propagated together in a single worklist pass, each node keeping the set of sources
+ * reaching it, so that a node is only handled again if a new source reaches it. Next to the edges within the graph, taint is propagated over
+ * {@link NodeCall}s:
+ * <ul>
+ * <li>From an argument to the corresponding parameter of the called method, if the called method is known.</li>
+ * <li>From the return node of a method to the return node of each call to that method.</li>
+ * <li>From the arguments and the instance of a call to its return node, if the called method is not known, for instance for library methods.</li>
+ * </ul>
+ * A node matching a sanitizer is never tainted and a call matching a sanitizer never returns a tainted value.
+ *
+ * @author Daan
+ */
+public class TaintAnalysis {
+
+  private final List<TaintMatcher> sources;
+  private final List<TaintMatcher> sinks;
+  private final List<TaintMatcher> sanitizers;
+
+  private TaintAnalysis(Builder builder) {
+    this.sources = new ArrayList<>(builder.sources);
+    this.sinks = new ArrayList<>(builder.sinks);
+    this.sanitizers = new ArrayList<>(builder.sanitizers);
+  }
+
+  /**
+   * Analyses the given graphs, together with their inner graphs and depended graphs.
+   *
+   * @param graphs The {@link DataFlowGraph}s to analyse.
+   * @return The found {@link TaintFinding}s, each combination of source, sink and sink call is reported once.
+   */
+  public List<TaintFinding> analyze(DataFlowGraph... graphs) {
+    return analyze(Arrays.asList(graphs));
+  }
+
+  /**
+   * @see #analyze(DataFlowGraph...)
+   */
+  public List<TaintFinding> analyze(Collection<DataFlowGraph> graphs) {
+    return new Run(ConnectedGraphs.of(graphs)).execute();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** The state of a single analysis. */
+  private final class Run {
+    private final ConnectedGraphs connected;
+    /** The calls to which a node is an argument. */
+    private final Map<DataFlowNode, List<NodeCall>> argumentOf = new IdentityHashMap<>();
+    /** The calls to each method, keyed on the return node of the method. */
+    private final Map<DataFlowNode, List<NodeCall>> callsReturning = new IdentityHashMap<>();
+    /** The source nodes in the order of their taint bit, the set is only used for checking if a node is already a source. */
+    private final List<DataFlowNode> sourceNodes = new ArrayList<>();
+    private final Set<DataFlowNode> sourceNodeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<DataFlowNode, BitSet> taints = new IdentityHashMap<>();
+    private final Deque<DataFlowNode> worklist = new ArrayDeque<>();
+    private final Set<DataFlowNode> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private Run(ConnectedGraphs connected) {
+      this.connected = connected;
+    }
+
+    private List<TaintFinding> execute() {
+      index();
+      for (DataFlowNode node : connected.getNodes()) {
+        if (sources.stream().anyMatch(s -> s.matches(node))) {
+          addSource(node);
+        }
+      }
+      while (!worklist.isEmpty()) {
+        DataFlowNode node = worklist.poll();
+        queued.remove(node);
+        propagate(node);
+      }
+      return collectFindings();
+    }
+
+    private void index() {
+      for (DataFlowMethod method : connected.getMethods()) {
+        for (NodeCall call : method.getNodeCalls()) {
+          call.getIn().map(ParameterList::getNodes).ifPresent(args -> args.forEach(a -> argumentOf.computeIfAbsent(a, k -> new ArrayList<>()).add(call)));
+          call.getCalledMethod().flatMap(DataFlowMethod::getReturnNode).ifPresent(r -> callsReturning.computeIfAbsent(r, k -> new ArrayList<>()).add(call));
+          if (sources.stream().anyMatch(s -> s.matches(call))) {
+            call.getReturnNode().ifPresent(this::addSource);
+          }
+        }
+      }
+    }
+
+    private void addSource(DataFlowNode node) {
+      if (!isSanitizer(node) && sourceNodeSet.add(node)) {
+        BitSet bits = new BitSet();
+        bits.set(sourceNodes.size());
+        sourceNodes.add(node);
+        taint(node, bits);
+      }
+    }
+
+    private void propagate(DataFlowNode node) {
+      BitSet bits = taints.get(node);
+      for (DataFlowEdge edge : node.getOut()) {
+        taint(edge.getTo(), bits);
+      }
+      for (NodeCall call : argumentOf.getOrDefault(node, Collections.emptyList())) {
+        if (call.getCalledMethod().isPresent()) {
+          int index = indexOf(call.getIn().get().getNodes(), node);
+          ParameterList params = call.getCalledMethod().get().getParameters();
+          if (params != null && index >= 0 && index < params.nofNodes()) {
+            taint(params.getNodes().get(index), bits);
+          }
+        } else {
+          taintReturn(call, bits);
+        }
+      }
+      node.getNodeCall().filter(call -> !call.getCalledMethod().isPresent()).ifPresent(call -> taintReturn(call, bits));
+      for (NodeCall call : callsReturning.getOrDefault(node, Collections.emptyList())) {
+        taintReturn(call, bits);
+      }
+    }
+
+    private int indexOf(List<DataFlowNode> nodes, DataFlowNode node) {
+      for (int i = 0; i < nodes.size(); i++) {
+        if (nodes.get(i) == node) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private void taintReturn(NodeCall call, BitSet bits) {
+      if (sanitizers.stream().noneMatch(s -> s.matches(call))) {
+        call.getReturnNode().ifPresent(r -> taint(r, bits));
+      }
+    }
+
+    private void taint(DataFlowNode node, BitSet bits) {
+      BitSet current = taints.get(node);
+      if (current == null) {
+        if (isSanitizer(node)) {
+          return;
+        }
+        current = new BitSet();
+        taints.put(node, current);
+      }
+      int before = current.cardinality();
+      current.or(bits);
+      if (current.cardinality() > before && queued.add(node)) {
+        worklist.add(node);
+      }
+    }
+
+    private boolean isSanitizer(DataFlowNode node) {
+      return sanitizers.stream().anyMatch(s -> s.matches(node));
+    }
+
+    private List<TaintFinding> collectFindings() {
+      List<TaintFinding> findings = new ArrayList<>();
+      for (Map.Entry<DataFlowNode, BitSet> entry : taints.entrySet()) {
+        DataFlowNode node = entry.getKey();
+        if (sinks.stream().anyMatch(s -> s.matches(node))) {
+          addFindings(findings, node, null, entry.getValue());
+        }
+        for (NodeCall call : argumentOf.getOrDefault(node, Collections.emptyList())) {
+          if (sinks.stream().anyMatch(s -> s.matches(call))) {
+            addFindings(findings, node, call, entry.getValue());
+          }
+        }
+        node.getNodeCall().filter(call -> sinks.stream().anyMatch(s -> s.matches(call))).ifPresent(call -> addFindings(findings, node, call, entry.getValue()));
+      }
+      return findings;
+    }
+
+    private void addFindings(List<TaintFinding> findings, DataFlowNode sink, NodeCall call, BitSet bits) {
+      for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+        findings.add(new TaintFinding(sourceNodes.get(i), sink, call));
+      }
+    }
+  }
+
+  /**
+   * Builder to build {@link TaintAnalysis}.
+   */
+  public static final class Builder {
+    private List<TaintMatcher> sources = new ArrayList<>();
+    private List<TaintMatcher> sinks = new ArrayList<>();
+    private List<TaintMatcher> sanitizers = new ArrayList<>();
+
+    private Builder() {
+      // Builder should only be constructed via the parent class
+    }
+
+    public Builder source(TaintMatcher... sources) {
+      this.sources.addAll(Arrays.asList(sources));
+      return this;
+    }
+
+    public Builder sink(TaintMatcher... sinks) {
+      this.sinks.addAll(Arrays.asList(sinks));
+      return this;
+    }
+
+    public Builder sanitizer(TaintMatcher... sanitizers) {
+      this.sanitizers.addAll(Arrays.asList(sanitizers));
+      return this;
+    }
+
+    public TaintAnalysis build() {
+      return new TaintAnalysis(this);
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import model.DataFlowNode;
+import model.NodeCall;
+
+/**
+ * A flow of tainted data from a source to a sink, found by a {@link TaintAnalysis}.
+ *
+ * @author Daan
+ */
+public class TaintFinding {
+
+  private final DataFlowNode source;
+  private final DataFlowNode sink;
+  /** The call to which the tainted sink node is input, null if the sink node itself was matched. */
+  private final NodeCall sinkCall;
+
+  public TaintFinding(DataFlowNode source, DataFlowNode sink, NodeCall sinkCall) {
+    this.source = source;
+    this.sink = sink;
+    this.sinkCall = sinkCall;
+  }
+
+  public DataFlowNode getSource() {
+    return source;
+  }
+
+  public DataFlowNode getSink() {
+    return sink;
+  }
+
+  public Optional<NodeCall> getSinkCall() {
+    return Optional.ofNullable(sinkCall);
+  }
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("source", source.getName()).append("sink", sink.getName())
+        .append("sinkCall", sinkCall == null ? null : sinkCall.getName()).build();
+  }
+
+}
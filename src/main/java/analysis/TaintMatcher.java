@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import model.DataFlowNode;
+import model.NodeCall;
+
+/**
+ * Matches {@link DataFlowNode}s or {@link NodeCall}s, used to declare the sources, sinks and sanitizers of a {@link TaintAnalysis}. A matcher on a
+ * {@link NodeCall} means the following depending on how it is used:
+ * <ul>
+ * <li>Source: the return value of the call is tainted.</li>
+ * <li>Sink: tainted input to the call, either as argument or as the instance on which it is called, is a finding.</li>
+ * <li>Sanitizer: the return value of the call is not tainted, even if its input is.</li>
+ * </ul>
+ *
+ * @author Daan
+ */
+public class TaintMatcher {
+
+  private final Predicate<DataFlowNode> nodePredicate;
+  private final Predicate<NodeCall> callPredicate;
+
+  private TaintMatcher(Predicate<DataFlowNode> nodePredicate, Predicate<NodeCall> callPredicate) {
+    this.nodePredicate = nodePredicate;
+    this.callPredicate = callPredicate;
+  }
+
+  /**
+   * @param predicate The {@link Predicate} to match {@link DataFlowNode}s with.
+   * @return A {@link TaintMatcher} matching nodes, it never matches a {@link NodeCall}.
+   */
+  public static TaintMatcher node(Predicate<DataFlowNode> predicate) {
+    return new TaintMatcher(predicate, c -> false);
+  }
+
+  /**
+   * @param name The name of the {@link DataFlowNode}.
+   * @return A {@link TaintMatcher} matching nodes with the given name.
+   */
+  public static TaintMatcher nodeNamed(String name) {
+    return node(n -> name.equals(n.getName()));
+  }
+
+  /**
+   * @param predicate The {@link Predicate} to match {@link NodeCall}s with.
+   * @return A {@link TaintMatcher} matching calls, it never matches a {@link DataFlowNode}.
+   */
+  public static TaintMatcher call(Predicate<NodeCall> predicate) {
+    return new TaintMatcher(n -> false, predicate);
+  }
+
+  /**
+   * @param peckage The package of the called class, null to match any package.
+   * @param claz The name of the called class, null to match any class.
+   * @param name The name of the called method, null to match any method.
+   * @return A {@link TaintMatcher} matching calls to the given method.
+   */
+  public static TaintMatcher call(String peckage, String claz, String name) {
+    return call(c -> (peckage == null || peckage.equals(c.getPeckage())) && (claz == null || claz.equals(c.getClaz()))
+        && (name == null || Objects.equals(name, c.getName())));
+  }
+
+  public boolean matches(DataFlowNode node) {
+    return nodePredicate.test(node);
+  }
+
+  public boolean matches(NodeCall call) {
+    return callPredicate.test(call);
+  }
+
+}
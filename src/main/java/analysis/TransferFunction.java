@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import model.DataFlowNode;
+
+/**
+ * Computes the value of a {@link DataFlowNode} within a {@link DataFlowAnalysis}. Transfer functions should be monotone: a larger input should never result
+ * in a smaller output.
+ *
+ * @author Daan
+ * @param <V> The type of the values.
+ */
+@FunctionalInterface
+public interface TransferFunction<V> {
+
+  /**
+   * @param node The {@link DataFlowNode} to compute the value for.
+   * @param input The join of the values of all nodes flowing into the given node.
+   * @return The value of the given node.
+   */
+  V apply(DataFlowNode node, V input);
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import model.DataFlowEdge;
+import model.DataFlowGraph;
+import model.DataFlowNode;
+
+/**
+ * Exports a {@link DataFlowGraph} in the DOT format of Graphviz. Nodes are labeled with their name, owner and type.
+ *
+ * @author Daan
+ */
+public class DotExporter extends GraphExporter {
+
+  @Override
+  protected void writeStart(Writer writer, DataFlowGraph graph) throws IOException {
+    writer.write("digraph \"");
+    writer.write(escape(graph.getQualifiedName()));
+    writer.write("\" {\n");
+  }
+
+  @Override
+  protected void writeNode(Writer writer, DataFlowNode node, String owner) throws IOException {
+    writer.write("  ");
+    writer.write(id(node));
+    writer.write(" [label=\"");
+    writer.write(escape(node.getName()));
+    writer.write("\"");
+    if (owner != null) {
+      writer.write(", owner=\"");
+      writer.write(escape(owner));
+      writer.write("\"");
+    }
+    if (node.getType() != null) {
+      writer.write(", type=\"");
+      writer.write(escape(node.getType()));
+      writer.write("\"");
+    }
+    writer.write("];\n");
+  }
+
+  @Override
+  protected void writeEdge(Writer writer, DataFlowEdge edge) throws IOException {
+    writer.write("  ");
+    writer.write(id(edge.getFrom()));
+    writer.write(" -> ");
+    writer.write(id(edge.getTo()));
+    writer.write(";\n");
+  }
+
+  @Override
+  protected void writeEnd(Writer writer) throws IOException {
+    writer.write("}\n");
+  }
+
+  private String escape(String value) {
+    return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "");
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import model.DataFlowEdge;
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+
+/**
+ * Writes a {@link DataFlowGraph} to a {@link Writer} in a single linear pass, without building the whole output in memory. First all nodes of the graph and
+ * its inner graphs are written, then all outgoing edges of those nodes. Nodes outside the graph that are the target of an edge are written just before that
+ * edge. Each node is identified by {@link DataFlowNode#getId()}.
+ *
+ * @author Daan
+ */
+public abstract class GraphExporter {
+
+  /**
+   * Writes the graph to the given {@link OutputStream} encoded in UTF-8. The stream is flushed, but not closed.
+   *
+   * @param graph The {@link DataFlowGraph} to export.
+   * @param out The {@link OutputStream} to write to.
+   * @throws IOException If writing fails.
+   */
+  public void export(DataFlowGraph graph, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    export(graph, writer);
+    writer.flush();
+  }
+
+  /**
+   * Writes the graph to the given {@link Writer}. The writer is not flushed or closed.
+   *
+   * @param graph The {@link DataFlowGraph} to export.
+   * @param writer The {@link Writer} to write to.
+   * @throws IOException If writing fails.
+   */
+  public void export(DataFlowGraph graph, Writer writer) throws IOException {
+    Set<DataFlowNode> written = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<DataFlowNode> nodes = new ArrayList<>();
+    writeStart(writer, graph);
+    writeNodes(writer, graph, written, nodes);
+    for (DataFlowNode node : nodes) {
+      for (DataFlowEdge edge : node.getOut()) {
+        if (written.add(edge.getTo())) {
+          writeNode(writer, edge.getTo(), null);
+        }
+        writeEdge(writer, edge);
+      }
+    }
+    writeEnd(writer);
+  }
+
+  private void writeNodes(Writer writer, DataFlowGraph graph, Set<DataFlowNode> written, List<DataFlowNode> nodes) throws IOException {
+    String graphName = graph.getQualifiedName();
+    for (DataFlowNode field : graph.getFields()) {
+      write(writer, field, graphName, written, nodes);
+    }
+    List<DataFlowMethod> methods = new ArrayList<>(graph.getConstructors());
+    methods.addAll(graph.getInitializers());
+    methods.addAll(graph.getMethods());
+    for (DataFlowMethod method : methods) {
+      String owner = graphName + "." + method.getName();
+      if (method.getParameters() != null) {
+        for (DataFlowNode parameter : method.getParameters().getNodes()) {
+          write(writer, parameter, owner, written, nodes);
+        }
+      }
+      for (DataFlowNode node : method.getNodes()) {
+        write(writer, node, owner, written, nodes);
+      }
+      if (method.getReturnNode().isPresent()) {
+        write(writer, method.getReturnNode().get(), owner, written, nodes);
+      }
+    }
+    for (DataFlowGraph inner : graph.getInnerGraphs()) {
+      writeNodes(writer, inner, written, nodes);
+    }
+  }
+
+  private void write(Writer writer, DataFlowNode node, String owner, Set<DataFlowNode> written, List<DataFlowNode> nodes) throws IOException {
+    if (written.add(node)) {
+      nodes.add(node);
+      writeNode(writer, node, owner);
+    }
+  }
+
+  /**
+   * @param node The {@link DataFlowNode}.
+   * @return The identifier of the node within the exported file.
+   */
+  protected String id(DataFlowNode node) {
+    return "n" + node.getId();
+  }
+
+  /**
+   * Writes everything before the first node.
+   */
+  protected abstract void writeStart(Writer writer, DataFlowGraph graph) throws IOException;
+
+  /**
+   * Writes a single node.
+   *
+   * @param writer The {@link Writer} to write to.
+   * @param node The {@link DataFlowNode} to write.
+   * @param owner The qualified name of the graph or method containing the node, null if the node is not part of the exported graph.
+   * @throws IOException If writing fails.
+   */
+  protected abstract void writeNode(Writer writer, DataFlowNode node, String owner) throws IOException;
+
+  /**
+   * Writes a single edge, both nodes of the edge are written before.
+   */
+  protected abstract void writeEdge(Writer writer, DataFlowEdge edge) throws IOException;
+
+  /**
+   * Writes everything after the last edge.
+   */
+  protected abstract void writeEnd(Writer writer) throws IOException;
+
+}
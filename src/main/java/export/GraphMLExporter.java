@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import model.DataFlowEdge;
+import model.DataFlowGraph;
+import model.DataFlowNode;
+
+/**
+ * Exports a {@link DataFlowGraph} in the GraphML format, with the name, owner and type of each node as data.
+ *
+ * @author Daan
+ */
+public class GraphMLExporter extends GraphExporter {
+
+  @Override
+  protected void writeStart(Writer writer, DataFlowGraph graph) throws IOException {
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+    writer.write("  <key id=\"name\" for=\"node\" attr.name=\"name\" attr.type=\"string\"/>\n");
+    writer.write("  <key id=\"owner\" for=\"node\" attr.name=\"owner\" attr.type=\"string\"/>\n");
+    writer.write("  <key id=\"type\" for=\"node\" attr.name=\"type\" attr.type=\"string\"/>\n");
+    writer.write("  <graph id=\"");
+    writer.write(escape(graph.getQualifiedName()));
+    writer.write("\" edgedefault=\"directed\">\n");
+  }
+
+  @Override
+  protected void writeNode(Writer writer, DataFlowNode node, String owner) throws IOException {
+    writer.write("    <node id=\"");
+    writer.write(id(node));
+    writer.write("\">");
+    writeData(writer, "name", node.getName());
+    writeData(writer, "owner", owner);
+    writeData(writer, "type", node.getType());
+    writer.write("</node>\n");
+  }
+
+  @Override
+  protected void writeEdge(Writer writer, DataFlowEdge edge) throws IOException {
+    writer.write("    <edge source=\"");
+    writer.write(id(edge.getFrom()));
+    writer.write("\" target=\"");
+    writer.write(id(edge.getTo()));
+    writer.write("\"/>\n");
+  }
+
+  @Override
+  protected void writeEnd(Writer writer) throws IOException {
+    writer.write("  </graph>\n");
+    writer.write("</graphml>\n");
+  }
+
+  private void writeData(Writer writer, String key, String value) throws IOException {
+    if (value != null) {
+      writer.write("<data key=\"");
+      writer.write(key);
+      writer.write("\">");
+      writer.write(escape(value));
+      writer.write("</data>");
+    }
+  }
+
+  private String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+      case '&':
+        sb.append("&amp;");
+        break;
+      case '<':
+        sb.append("&lt;");
+        break;
+      case '>':
+        sb.append("&gt;");
+        break;
+      case '"':
+        sb.append("&quot;");
+        break;
+      default:
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import model.DataFlowEdge;
+import model.DataFlowGraph;
+import model.DataFlowNode;
+
+/**
+ * Exports a {@link DataFlowGraph} as JSON Lines: one JSON object per line, first one for each node and then one for each edge. For example:
+ *
+ * <pre>
+ * {"node":"n1","name":"a","owner":"Claz.setA","type":"int"}
+ * {"edge":["n1","n2"]}
+ * </pre>
+ *
+ * @author Daan
+ */
+public class JsonLinesExporter extends GraphExporter {
+
+  @Override
+  protected void writeStart(Writer writer, DataFlowGraph graph) throws IOException {
+    // JSON lines has no header
+  }
+
+  @Override
+  protected void writeNode(Writer writer, DataFlowNode node, String owner) throws IOException {
+    writer.write("{\"node\":\"");
+    writer.write(id(node));
+    writer.write("\"");
+    writeField(writer, "name", node.getName());
+    writeField(writer, "owner", owner);
+    writeField(writer, "type", node.getType());
+    writer.write("}\n");
+  }
+
+  @Override
+  protected void writeEdge(Writer writer, DataFlowEdge edge) throws IOException {
+    writer.write("{\"edge\":[\"");
+    writer.write(id(edge.getFrom()));
+    writer.write("\",\"");
+    writer.write(id(edge.getTo()));
+    writer.write("\"]}\n");
+  }
+
+  @Override
+  protected void writeEnd(Writer writer) throws IOException {
+    // JSON lines has no footer
+  }
+
+  private void writeField(Writer writer, String key, String value) throws IOException {
+    if (value != null) {
+      writer.write(",\"");
+      writer.write(key);
+      writer.write("\":\"");
+      writer.write(escape(value));
+      writer.write("\"");
+    }
+  }
+
+  private String escape(String value) {
+    StringBuilder sb = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c == '\n') {
+        sb.append("\\n");
+      } else if (c == '\r') {
+        sb.append("\\r");
+      } else if (c == '\t') {
+        sb.append("\\t");
+      } else if (c < 0x20) {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -21,6 +21,7 @@ import com.github.javaparser.ast.CompilationUnit;
 
 import factory.DataFlowGraphFactory;
 import model.DataFlowGraph;
+import model.DataFlowProject;
 import util.ParserUtil;
 
 /**
@@ -50,4 +51,25 @@ public class JavaDataFlow {
     return new DataFlowGraphFactory().create(cu);
   }
 
+  /**
+   * Creates a {@link DataFlowProject} containing a {@link DataFlowGraph} for each class within the given source roots, see {@link SourceRootScanner}.
+   *
+   * @param sourceRoots The full paths to the source folders, typically ending with ".../src/main/java" for maven projects.
+   * @return A {@link DataFlowProject} representing all classes within the source roots.
+   */
+  public static DataFlowProject createProject(String... sourceRoots) {
+    return SourceRootScanner.builder().sourceRoots(sourceRoots).build().scan();
+  }
+
+  /**
+   * Creates a started {@link WatchSession} keeping a {@link DataFlowProject} up to date with the classes within the given source roots. The session should be
+   * closed when it is no longer needed.
+   *
+   * @param sourceRoots The full paths to the source folders, typically ending with ".../src/main/java" for maven projects.
+   * @return The started {@link WatchSession}.
+   */
+  public static WatchSession watch(String... sourceRoots) {
+    return WatchSession.builder().sourceRoots(sourceRoots).build().start();
+  }
+
 }
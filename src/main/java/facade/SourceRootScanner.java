@@ -0,0 +1,387 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package facade;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import common.DataFlowException;
+import factory.DataFlowGraphFactory;
+import model.DataFlowGraph;
+import model.DataFlowProject;
+
+/**
+ * Creates a {@link DataFlowProject} from all java files within a set of source roots. The scan is a pipeline of three stages:
+ * <ol>
+ * <li>The directories are walked in parallel on a {@link ForkJoinPool}, collecting all files ending with ".java".</li>
+ * <li>Each file is read with a single bulk read and parsed on a pool of parse workers, each having its own {@link JavaParser}.</li>
+ * <li>The parsed {@link CompilationUnit}s are handed over to the calling thread via a bounded queue, where {@link DataFlowGraphFactory} creates the graphs.
+ * When creating graphs is slower than parsing, the parse workers block on the full queue, so that no more than {@link Builder#queueCapacity(int)} parsed files
+ * are kept in memory at once.</li>
+ * </ol>
+ * By default the parse workers use the {@link ParserConfiguration} of the calling thread, so that the symbol solver set via {@link StaticJavaDataFlow} is used
+ * for resolving the parsed files. Graphs are only created on the calling thread, since neither the factory nor the symbol solver is thread safe.
+ *
+ * @author Daan
+ */
+public class SourceRootScanner {
+  private static final Logger LOG = LoggerFactory.getLogger(SourceRootScanner.class);
+
+  private final List<Path> sourceRoots;
+  private final int parseThreads;
+  private final int queueCapacity;
+  private final Consumer<Progress> progressListener;
+  private final ParserConfiguration parserConfiguration;
+
+  private SourceRootScanner(Builder builder) {
+    this.sourceRoots = new ArrayList<>(builder.sourceRoots);
+    this.parseThreads = builder.parseThreads;
+    this.queueCapacity = builder.queueCapacity;
+    this.progressListener = builder.progressListener;
+    this.parserConfiguration = builder.parserConfiguration;
+  }
+
+  /**
+   * Scans all source roots and creates a {@link DataFlowGraph} for each top level type. Files that could not be read or parsed are logged and counted as failed
+   * within the {@link Progress}, they do not stop the scan.
+   *
+   * @return A {@link DataFlowProject} containing all created graphs.
+   */
+  public DataFlowProject scan() {
+    List<Path> files = discover();
+    DataFlowProject project = new DataFlowProject();
+    if (files.isEmpty()) {
+      return project;
+    }
+    ParserConfiguration configuration = parserConfiguration == null ? StaticJavaParser.getConfiguration() : parserConfiguration;
+    ThreadLocal<JavaParser> parsers = ThreadLocal.withInitial(() -> new JavaParser(configuration));
+    BlockingQueue<Parsed> queue = new ArrayBlockingQueue<>(queueCapacity);
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parseThreads, files.size()));
+    try {
+      files.forEach(file -> executor.execute(() -> parseInto(queue, parsers, file)));
+      createGraphs(files.size(), queue, project);
+    } finally {
+      executor.shutdownNow();
+    }
+    return project;
+  }
+
+  /**
+   * Walks all source roots in parallel.
+   *
+   * @return The java files within the source roots, sorted on their path so that the order is independent of the scheduling of the walk.
+   */
+  List<Path> discover() {
+    ConcurrentLinkedQueue<Path> files = new ConcurrentLinkedQueue<>();
+    List<DirectoryWalk> walks = sourceRoots.stream().filter(root -> {
+      boolean exists = Files.isDirectory(root);
+      if (!exists) {
+        LOG.error("Could not find the folder located at: " + root);
+      }
+      return exists;
+    }).map(root -> new DirectoryWalk(root, files)).collect(Collectors.toList());
+    walks.forEach(ForkJoinPool.commonPool()::execute);
+    walks.forEach(ForkJoinTask::join);
+    List<Path> sorted = new ArrayList<>(files);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  private void createGraphs(int total, BlockingQueue<Parsed> queue, DataFlowProject project) {
+    DataFlowGraphFactory factory = new DataFlowGraphFactory();
+    int parsed = 0;
+    int failed = 0;
+    int graphs = 0;
+    for (int i = 0; i < total; i++) {
+      Parsed result = take(queue);
+      if (result.cu == null) {
+        failed++;
+      } else {
+        parsed++;
+        try {
+          for (DataFlowGraph graph : factory.createAll(result.cu)) {
+            project.addGraph(graph);
+            graphs++;
+          }
+        } catch (RuntimeException e) {
+          LOG.warn("Could not create a DataFlowGraph for {}: {}", result.file, e.getMessage());
+          failed++;
+        }
+      }
+      if (progressListener != null) {
+        progressListener.accept(new Progress(result.file, total, parsed, failed, graphs));
+      }
+    }
+  }
+
+  /**
+   * Parses the file and puts the result on the queue. Every file yields exactly one result, even if parsing fails with an {@link Error}, since
+   * {@link #createGraphs(int, BlockingQueue, DataFlowProject)} waits for a result per file.
+   */
+  private void parseInto(BlockingQueue<Parsed> queue, ThreadLocal<JavaParser> parsers, Path file) {
+    Parsed parsed = null;
+    try {
+      parsed = parse(parsers.get(), file);
+    } finally {
+      if (parsed == null) {
+        LOG.warn("Could not parse {}, parsing failed with an error", file);
+        parsed = new Parsed(file, null);
+      }
+      put(queue, parsed);
+    }
+  }
+
+  private Parsed parse(JavaParser parser, Path file) {
+    try {
+      String code = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      ParseResult<CompilationUnit> result = parser.parse(code);
+      if (result.isSuccessful() && result.getResult().isPresent()) {
+        CompilationUnit cu = result.getResult().get();
+        cu.setStorage(file, StandardCharsets.UTF_8);
+        return new Parsed(file, cu);
+      }
+      LOG.warn("Could not parse {}: {}", file, result.getProblems());
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not read {}: {}", file, e.getMessage());
+    }
+    return new Parsed(file, null);
+  }
+
+  private void put(BlockingQueue<Parsed> queue, Parsed parsed) {
+    try {
+      queue.put(parsed);
+    } catch (InterruptedException e) {
+      // The scan was stopped, the result is no longer needed.
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Parsed take(BlockingQueue<Parsed> queue) {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DataFlowException("Interrupted while scanning the source roots %s", sourceRoots);
+    }
+  }
+
+  /**
+   * Creates builder to build {@link SourceRootScanner}.
+   *
+   * @return created builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * The state of a scan after handling a single file, as reported to the {@link Builder#progressListener(Consumer)}.
+   */
+  public static final class Progress {
+    private final Path file;
+    private final int total;
+    private final int parsed;
+    private final int failed;
+    private final int graphs;
+
+    private Progress(Path file, int total, int parsed, int failed, int graphs) {
+      this.file = file;
+      this.total = total;
+      this.parsed = parsed;
+      this.failed = failed;
+      this.graphs = graphs;
+    }
+
+    /** @return The file that was handled last. */
+    public Path getFile() {
+      return file;
+    }
+
+    /** @return The number of java files found within the source roots. */
+    public int getTotal() {
+      return total;
+    }
+
+    /** @return The number of files that where parsed successfully so far. */
+    public int getParsed() {
+      return parsed;
+    }
+
+    /** @return The number of files for which reading, parsing or creating the graphs failed so far. */
+    public int getFailed() {
+      return failed;
+    }
+
+    /** @return The number of {@link DataFlowGraph}s created so far. */
+    public int getGraphs() {
+      return graphs;
+    }
+
+    /** @return The number of files that have been handled so far. */
+    public int getHandled() {
+      return parsed + failed;
+    }
+
+    @Override
+    public String toString() {
+      return "Progress[" + getHandled() + "/" + total + ", failed=" + failed + ", graphs=" + graphs + ", file=" + file + "]";
+    }
+  }
+
+  /**
+   * Builder to build {@link SourceRootScanner}.
+   */
+  public static final class Builder {
+    private List<Path> sourceRoots = new ArrayList<>();
+    private int parseThreads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 64;
+    private Consumer<Progress> progressListener;
+    private ParserConfiguration parserConfiguration;
+
+    private Builder() {
+      // Builder should only be constructed via the parent class
+    }
+
+    public Builder sourceRoots(Path... sourceRoots) {
+      this.sourceRoots.clear();
+      this.sourceRoots.addAll(Arrays.asList(sourceRoots));
+      return this;
+    }
+
+    public Builder sourceRoots(String... sourceRoots) {
+      this.sourceRoots.clear();
+      Arrays.stream(sourceRoots).map(Paths::get).forEach(this.sourceRoots::add);
+      return this;
+    }
+
+    /**
+     * @param parseThreads The number of threads used for parsing files, defaults to the number of available processors.
+     * @return this builder
+     */
+    public Builder parseThreads(int parseThreads) {
+      if (parseThreads < 1) {
+        throw new IllegalArgumentException("The number of parse threads should be at least 1, but was " + parseThreads);
+      }
+      this.parseThreads = parseThreads;
+      return this;
+    }
+
+    /**
+     * @param queueCapacity The maximum number of parsed files waiting for their graphs to be created, defaults to 64.
+     * @return this builder
+     */
+    public Builder queueCapacity(int queueCapacity) {
+      if (queueCapacity < 1) {
+        throw new IllegalArgumentException("The queue capacity should be at least 1, but was " + queueCapacity);
+      }
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * @param progressListener Called on the scanning thread each time a file has been handled.
+     * @return this builder
+     */
+    public Builder progressListener(Consumer<Progress> progressListener) {
+      this.progressListener = progressListener;
+      return this;
+    }
+
+    /**
+     * @param parserConfiguration The configuration used for parsing the files, defaults to {@link StaticJavaParser#getConfiguration()} of the scanning thread.
+     * @return this builder
+     */
+    public Builder parserConfiguration(ParserConfiguration parserConfiguration) {
+      this.parserConfiguration = parserConfiguration;
+      return this;
+    }
+
+    public SourceRootScanner build() {
+      return new SourceRootScanner(this);
+    }
+  }
+
+  /** Result of parsing a single file, the {@link CompilationUnit} is null if reading or parsing failed. */
+  private static final class Parsed {
+    private final Path file;
+    private final CompilationUnit cu;
+
+    private Parsed(Path file, CompilationUnit cu) {
+      this.file = file;
+      this.cu = cu;
+    }
+  }
+
+  /** Walks a single directory, forking a new walk for each sub directory. */
+  private static final class DirectoryWalk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Path directory;
+    private final ConcurrentLinkedQueue<Path> files;
+
+    private DirectoryWalk(Path directory, ConcurrentLinkedQueue<Path> files) {
+      this.directory = directory;
+      this.files = files;
+    }
+
+    @Override
+    protected void compute() {
+      List<DirectoryWalk> subDirectories = new ArrayList<>();
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+        for (Path entry : entries) {
+          if (Files.isDirectory(entry)) {
+            subDirectories.add(new DirectoryWalk(entry, files));
+          } else if (entry.getFileName().toString().endsWith(".java")) {
+            files.add(entry);
+          }
+        }
+      } catch (IOException e) {
+        LOG.warn("Could not list the files in {}: {}", directory, e.getMessage());
+      }
+      invokeAll(subDirectories);
+    }
+  }
+
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package facade;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.model.resolution.TypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import common.DataFlowException;
+import factory.DataFlowGraphFactory;
+import factory.ProjectLinker;
+import model.DataFlowGraph;
+import model.DataFlowProject;
+import model.NodeCall;
+
+/**
+ * Long running session keeping a {@link DataFlowProject} up to date with the java files within a set of source roots. After {@link #start()} the source roots
+ * are scanned once with the {@link SourceRootScanner}, after which they are watched via a {@link WatchService}. Only the files that changed are parsed again,
+ * the graphs created from their previous version are replaced and all {@link NodeCall}s between graphs are connected again with the {@link ProjectLinker}.
+ * Files that where resolved against a changed declaration are parsed again as well, see {@link DataFlowProject#getInvalidatedGraphs(Collection, Collection)}.
+ * Subscribers are notified with a {@link ChangeEvent} after each update.
+ * <p>
+ * Files are resolved against the source roots and the JDK, independent of the settings of {@link StaticJavaDataFlow}. Updates are done on the watch thread,
+ * the {@link DataFlowProject} should not be read while an update is in progress. Subscribers are called on the watch thread after the update is done.
+ *
+ * @author Daan
+ */
+public class WatchSession implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(WatchSession.class);
+
+  private final List<Path> sourceRoots;
+  private final long debounceMillis;
+  private final LanguageLevel languageLevel;
+  private final List<Consumer<ChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+  private final DataFlowGraphFactory factory = new DataFlowGraphFactory();
+  private final ProjectLinker linker = new ProjectLinker();
+
+  /** The graphs created from each file, the keys are absolute and normalized paths. */
+  private final Map<Path, List<DataFlowGraph>> graphsByFile = new HashMap<>();
+  private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+  private DataFlowProject project;
+  private WatchService watchService;
+  private Thread watchThread;
+
+  private WatchSession(Builder builder) {
+    this.sourceRoots = builder.sourceRoots.stream().map(p -> p.toAbsolutePath().normalize()).collect(Collectors.toList());
+    this.debounceMillis = builder.debounceMillis;
+    this.languageLevel = StaticJavaParser.getConfiguration().getLanguageLevel();
+  }
+
+  /**
+   * Scans the source roots and starts watching them for changes.
+   *
+   * @return this session
+   */
+  public synchronized WatchSession start() {
+    if (watchThread != null) {
+      throw new DataFlowException("The session watching %s was already started", sourceRoots);
+    }
+    project = SourceRootScanner.builder().sourceRoots(sourceRoots.toArray(new Path[0])).parserConfiguration(createParserConfiguration()).build().scan();
+    for (DataFlowGraph graph : project.getGraphs()) {
+      getFile(graph).ifPresent(file -> graphsByFile.computeIfAbsent(file, f -> new ArrayList<>()).add(graph));
+    }
+    linker.link(project);
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+      for (Path root : sourceRoots) {
+        if (Files.isDirectory(root)) {
+          register(root);
+        }
+      }
+    } catch (IOException e) {
+      throw new DataFlowException("Could not watch the source roots %s: %s", sourceRoots, e.getMessage());
+    }
+    watchThread = new Thread(this::watch, "JavaDataFlow-watch");
+    watchThread.setDaemon(true);
+    watchThread.start();
+    return this;
+  }
+
+  /**
+   * @return The {@link DataFlowProject} containing the graphs of all files within the source roots, null if this session was not started yet.
+   */
+  public synchronized DataFlowProject getProject() {
+    return project;
+  }
+
+  /**
+   * @param subscriber Called on the watch thread after each update.
+   */
+  public void subscribe(Consumer<ChangeEvent> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  public void unsubscribe(Consumer<ChangeEvent> subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  /**
+   * Updates the project for the given changed files. This is called from the watch thread, but can also be called directly, for instance when the caller
+   * knows that a file has changed before the {@link WatchService} reports it.
+   *
+   * @param changedFiles The created, modified or deleted files, files not ending with ".java" are ignored.
+   * @return The {@link ChangeEvent} that was also sent to all subscribers.
+   */
+  public synchronized ChangeEvent update(Collection<Path> changedFiles) {
+    Set<Path> files = changedFiles.stream().map(p -> p.toAbsolutePath().normalize()).filter(p -> p.getFileName().toString().endsWith(".java"))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    JavaParser parser = new JavaParser(createParserConfiguration());
+    Map<Path, List<DataFlowGraph>> parsed = new LinkedHashMap<>();
+    files.forEach(file -> parsed.put(file, Files.isRegularFile(file) ? parse(parser, file) : Collections.emptyList()));
+
+    // Files depending on a changed declaration need to be created again, so that their calls are resolved against the new declarations.
+    List<DataFlowGraph> changedGraphs = files.stream().map(graphsByFile::get).filter(Objects::nonNull).flatMap(List::stream).collect(Collectors.toList());
+    List<DataFlowGraph> invalidated = project.getInvalidatedGraphs(changedGraphs, parsed.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+    for (DataFlowGraph graph : invalidated) {
+      getFile(graph).filter(file -> !parsed.containsKey(file)).ifPresent(file -> parsed.put(file, parse(parser, file)));
+    }
+
+    List<DataFlowGraph> removed = new ArrayList<>();
+    for (Path file : parsed.keySet()) {
+      List<DataFlowGraph> old = graphsByFile.remove(file);
+      if (old != null) {
+        old.forEach(graph -> project.removeGraph(graph.getQualifiedName()));
+        removed.addAll(old);
+      }
+    }
+    Set<DataFlowGraph> relinked = Collections.newSetFromMap(new IdentityHashMap<>());
+    relinked.addAll(linker.unlink(project, removed));
+
+    List<DataFlowGraph> added = new ArrayList<>();
+    parsed.forEach((file, graphs) -> {
+      if (Files.isRegularFile(file)) {
+        graphs.forEach(project::addGraph);
+        graphsByFile.put(file, graphs);
+        added.addAll(graphs);
+      }
+    });
+    relinked.addAll(linker.link(project));
+    // Only report the graphs that where not replaced, but only connected to the new graphs.
+    Set<DataFlowGraph> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    Stream.concat(removed.stream(), added.stream()).forEach(g -> collectInnerGraphs(g, changed));
+    relinked.removeIf(changed::contains);
+
+    ChangeEvent event = new ChangeEvent(new ArrayList<>(files), removed, added, new ArrayList<>(relinked), invalidated);
+    for (Consumer<ChangeEvent> subscriber : subscribers) {
+      try {
+        subscriber.accept(event);
+      } catch (RuntimeException e) {
+        LOG.warn("Subscriber {} failed to handle {}: {}", subscriber, event, e.getMessage());
+      }
+    }
+    return event;
+  }
+
+  /**
+   * Stops watching the source roots. The {@link DataFlowProject} remains available but will no longer be updated.
+   */
+  @Override
+  public void close() {
+    Thread thread;
+    synchronized (this) {
+      thread = watchThread;
+    }
+    if (thread != null) {
+      thread.interrupt();
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        LOG.warn("Could not close the watch service: {}", e.getMessage());
+      }
+    }
+  }
+
+  private void watch() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Set<Path> changed = new LinkedHashSet<>();
+        collect(watchService.take(), changed);
+        // Editors often write a file in multiple steps, wait for the events to settle before updating.
+        WatchKey key;
+        while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+          collect(key, changed);
+        }
+        if (!changed.isEmpty()) {
+          try {
+            update(changed);
+          } catch (RuntimeException e) {
+            // Keep watching, the next change to the files might be handled again.
+            LOG.error("Could not update the project for the changed files {}", changed, e);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // The session was closed.
+    }
+  }
+
+  private synchronized void collect(WatchKey key, Set<Path> changed) {
+    Path directory = watchedDirectories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+        LOG.warn("Missed events for {}, updating all files", directory);
+        changed.addAll(graphsByFile.keySet());
+        sourceRoots.forEach(root -> changed.addAll(javaFiles(root)));
+        continue;
+      }
+      Path path = directory.resolve((Path) event.context());
+      if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+        // Files can be created before the directory is registered.
+        register(path);
+        changed.addAll(javaFiles(path));
+      } else if (path.getFileName().toString().endsWith(".java")) {
+        changed.add(path);
+      } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+        // Possibly a deleted directory, all files within it are deleted.
+        graphsByFile.keySet().stream().filter(f -> f.startsWith(path)).forEach(changed::add);
+      }
+    }
+    if (!key.reset()) {
+      watchedDirectories.remove(key);
+    }
+  }
+
+  private void register(Path directory) {
+    try (Stream<Path> directories = Files.walk(directory)) {
+      for (Path dir : directories.filter(Files::isDirectory).collect(Collectors.toList())) {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirectories.put(key, dir);
+      }
+    } catch (IOException e) {
+      LOG.warn("Could not watch {}: {}", directory, e.getMessage());
+    }
+  }
+
+  private List<Path> javaFiles(Path directory) {
+    return SourceRootScanner.builder().sourceRoots(directory).build().discover();
+  }
+
+  private List<DataFlowGraph> parse(JavaParser parser, Path file) {
+    try {
+      ParseResult<CompilationUnit> result = parser.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+      if (result.isSuccessful() && result.getResult().isPresent()) {
+        CompilationUnit cu = result.getResult().get();
+        cu.setStorage(file, StandardCharsets.UTF_8);
+        return factory.createAll(cu);
+      }
+      LOG.warn("Could not parse {}: {}", file, result.getProblems());
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not create a DataFlowGraph for {}: {}", file, e.getMessage());
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Creates a new configuration for each update, since the {@link JavaParserTypeSolver} caches parsed files and would otherwise resolve against the previous
+   * version of changed files.
+   */
+  private ParserConfiguration createParserConfiguration() {
+    List<TypeSolver> solvers = new ArrayList<>();
+    solvers.add(new ReflectionTypeSolver());
+    sourceRoots.stream().filter(Files::isDirectory).map(JavaParserTypeSolver::new).forEach(solvers::add);
+    JavaSymbolSolver symbolSolver = new JavaSymbolSolver(new CombinedTypeSolver(solvers));
+    return new ParserConfiguration().setLanguageLevel(languageLevel).setSymbolResolver(symbolSolver);
+  }
+
+  private Optional<Path> getFile(DataFlowGraph graph) {
+    return Optional.ofNullable(graph.getRepresentedNode()).flatMap(n -> n.findCompilationUnit()).flatMap(CompilationUnit::getStorage)
+        .map(storage -> storage.getPath().toAbsolutePath().normalize());
+  }
+
+  private void collectInnerGraphs(DataFlowGraph graph, Set<DataFlowGraph> graphs) {
+    graphs.add(graph);
+    graph.getInnerGraphs().forEach(inner -> collectInnerGraphs(inner, graphs));
+  }
+
+  /**
+   * Creates builder to build {@link WatchSession}.
+   *
+   * @return created builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * The result of a single update of a {@link WatchSession}.
+   */
+  public static final class ChangeEvent {
+    private final List<Path> files;
+    private final List<DataFlowGraph> removedGraphs;
+    private final List<DataFlowGraph> addedGraphs;
+    private final List<DataFlowGraph> relinkedGraphs;
+    private final List<DataFlowGraph> invalidatedGraphs;
+
+    private ChangeEvent(List<Path> files, List<DataFlowGraph> removedGraphs, List<DataFlowGraph> addedGraphs, List<DataFlowGraph> relinkedGraphs,
+        List<DataFlowGraph> invalidatedGraphs) {
+      this.files = Collections.unmodifiableList(files);
+      this.removedGraphs = Collections.unmodifiableList(removedGraphs);
+      this.addedGraphs = Collections.unmodifiableList(addedGraphs);
+      this.relinkedGraphs = Collections.unmodifiableList(relinkedGraphs);
+      this.invalidatedGraphs = Collections.unmodifiableList(invalidatedGraphs);
+    }
+
+    /** @return The changed files. */
+    public List<Path> getFiles() {
+      return files;
+    }
+
+    /**
+     * @return The graphs created from the previous version of the changed files and of the files depending on them, they are no longer part of the project.
+     */
+    public List<DataFlowGraph> getRemovedGraphs() {
+      return removedGraphs;
+    }
+
+    /** @return The graphs created from the current version of the changed files and of the files depending on them. */
+    public List<DataFlowGraph> getAddedGraphs() {
+      return addedGraphs;
+    }
+
+    /** @return The graphs of unchanged files for which calls to the changed files where connected or disconnected. */
+    public List<DataFlowGraph> getRelinkedGraphs() {
+      return relinkedGraphs;
+    }
+
+    /**
+     * @return The graphs of unchanged files that where created again because they depend on a changed declaration, see
+     *         {@link DataFlowProject#getInvalidatedGraphs(Collection, Collection)}. The new versions are part of the {@link #getAddedGraphs()}.
+     */
+    public List<DataFlowGraph> getInvalidatedGraphs() {
+      return invalidatedGraphs;
+    }
+
+    @Override
+    public String toString() {
+      return "ChangeEvent[files=" + files + ", removed=" + names(removedGraphs) + ", added=" + names(addedGraphs) + ", relinked=" + names(relinkedGraphs)
+          + ", invalidated=" + names(invalidatedGraphs) + "]";
+    }
+
+    private static List<String> names(List<DataFlowGraph> graphs) {
+      return graphs.stream().map(DataFlowGraph::getQualifiedName).collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Builder to build {@link WatchSession}.
+   */
+  public static final class Builder {
+    private List<Path> sourceRoots = new ArrayList<>();
+    private long debounceMillis = 100;
+
+    private Builder() {
+      // Builder should only be constructed via the parent class
+    }
+
+    public Builder sourceRoots(Path... sourceRoots) {
+      this.sourceRoots.clear();
+      this.sourceRoots.addAll(Arrays.asList(sourceRoots));
+      return this;
+    }
+
+    public Builder sourceRoots(String... sourceRoots) {
+      this.sourceRoots.clear();
+      Arrays.stream(sourceRoots).map(Paths::get).forEach(this.sourceRoots::add);
+      return this;
+    }
+
+    /**
+     * @param debounceMillis The time to wait for more file system events after the first one, before updating the project. Defaults to 100 milliseconds.
+     * @return this builder
+     */
+    public Builder debounceMillis(long debounceMillis) {
+      this.debounceMillis = debounceMillis;
+      return this;
+    }
+
+    public WatchSession build() {
+      return new WatchSession(this);
+    }
+  }
+
+}
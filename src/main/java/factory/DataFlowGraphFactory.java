@@ -17,11 +17,12 @@
  */
 package factory;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -30,23 +31,33 @@ import org.slf4j.LoggerFactory;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.LocalClassDeclarationStmt;
 import com.github.javaparser.ast.type.VoidType;
 import com.github.javaparser.resolution.Resolvable;
+import com.github.javaparser.resolution.declarations.ResolvedMethodLikeDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserConstructorDeclaration;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
 
+import model.CallGraph;
 import model.DataFlowGraph;
 import model.DataFlowMethod;
 import model.DataFlowNode;
 import model.NodeCall;
 import model.OwnedNode;
 import model.ParameterList;
+import util.ParserUtil;
 
 /**
  * Factory for creating a {@link DataFlowGraph} from a {@link JavaParser} {@link CompilationUnit}.
@@ -60,92 +71,232 @@ public class DataFlowGraphFactory {
   private DataFlowNodeFactory dfnFactory = new DataFlowNodeFactory();
 
   /**
-   * Creates a {@link DataFlowGraph} for the given {@link CompilationUnit}.
+   * Creates a factory resolving fields with the symbol solver, see {@link ResolutionMode#DEFAULT}.
+   */
+  public DataFlowGraphFactory() {
+    this(ResolutionMode.DEFAULT);
+  }
+
+  /**
+   * @param resolutionMode Determines how the declarations of variables are found, use {@link ResolutionMode#SYNTACTIC} for quickly creating graphs of code
+   *          that is only parsed.
+   */
+  public DataFlowGraphFactory(ResolutionMode resolutionMode) {
+    nodeHandler.setResolutionMode(resolutionMode);
+  }
+
+  /**
+   * Creates a {@link DataFlowGraph} for the first type in the given {@link CompilationUnit}. Use {@link #createAll(CompilationUnit)} if it contains multiple
+   * top level types.
    *
    * @param cu The {@link CompilationUnit} containing the parsed class.
    * @return A {@link DataFlowGraph}
    */
   public DataFlowGraph create(CompilationUnit cu) {
-    DataFlowGraph graph = DataFlowGraph.builder().build();
-    Optional<ClassOrInterfaceDeclaration> representedNode = cu.findFirst(ClassOrInterfaceDeclaration.class);
-    if (representedNode.isPresent()) {
-      graph.setRepresentedNode(representedNode.get());
-      representedNode.map(ClassOrInterfaceDeclaration::getNameAsString).ifPresent(graph::setName);
+    List<DataFlowGraph> graphs = createAll(cu);
+    if (graphs.isEmpty()) {
+      DataFlowGraph graph = DataFlowGraph.builder().build();
+      cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).ifPresent(graph::setClassPackage);
+      return graph;
     }
-    executeForEachChildNode(cu, (node) -> this.addField(graph, node));
-    executeForEachChildNode(cu, (node) -> this.createMethod(graph, node));
-    executeForEachChildNode(cu, (node) -> this.fillMethod(graph, node));
-    connectMethods(graph);
-    return graph;
+    return graphs.get(0);
   }
 
-  private void executeForEachChildNode(CompilationUnit cu, Consumer<Node> consumer) {
+  /**
+   * Creates a {@link DataFlowGraph} for each top level type in the given {@link CompilationUnit}. Nested, local and anonymous classes are added as inner graphs
+   * to the graph of the class in which they are defined, see {@link DataFlowGraph#getInnerGraphs()}.
+   *
+   * @param cu The {@link CompilationUnit} containing the parsed classes.
+   * @return A {@link DataFlowGraph} per top level type, in the order in which they are defined.
+   */
+  public List<DataFlowGraph> createAll(CompilationUnit cu) {
+    String classPackage = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse(null);
+    // Compared on identity to prevent deep hashing of the AST.
+    Map<Node, DeclaredType> types = new IdentityHashMap<>();
+    List<DataFlowGraph> graphs = new ArrayList<>();
     for (TypeDeclaration<?> type : cu.getTypes()) {
-      List<Node> childNodes = type.getChildNodes();
-      for (Node node : childNodes) {
-        consumer.accept(node);
+      graphs.add(declare(type, type.getNameAsString(), type.getMembers(), classPackage, null, types));
+    }
+    // All fields and methods within the compilation unit need to be declared before filling the methods, since they can be referenced from any method.
+    graphs.forEach(graph -> fill(graph, types));
+    return graphs;
+  }
+
+  private void fill(DataFlowGraph graph, Map<Node, DeclaredType> types) {
+    types.get(graph.getRepresentedNode()).members.forEach(member -> fillMethod(graph, member, types));
+    graph.getInnerGraphs().forEach(inner -> fill(inner, types));
+  }
+
+  /**
+   * Creates a graph for the given type, declares all its fields and methods and recursively does the same for all classes defined within the type.
+   *
+   * @param type The {@link TypeDeclaration} or anonymous {@link ObjectCreationExpr}.
+   * @param name The name of the class.
+   * @param members The members of the class.
+   * @param classPackage The package of the compilation unit.
+   * @param owner The graph of the class in which the type is defined, null for top level types.
+   * @param types The declared types, which will be extended with the given type.
+   * @return The created graph
+   */
+  private DataFlowGraph declare(Node type, String name, List<BodyDeclaration<?>> members, String classPackage, DataFlowGraph owner,
+      Map<Node, DeclaredType> types) {
+    DataFlowGraph graph = DataFlowGraph.builder().name(name).representedNode(type).classPackage(classPackage).build();
+    if (owner != null) {
+      owner.addInnerGraph(graph);
+    }
+    types.put(type, new DeclaredType(graph, members));
+
+    for (BodyDeclaration<?> member : members) {
+      if (member instanceof FieldDeclaration) {
+        parseField((FieldDeclaration) member, graph).forEach(graph::addField);
+        createFieldInitializers(graph, (FieldDeclaration) member);
+      } else if (member instanceof CallableDeclaration) {
+        createMethod(graph, (CallableDeclaration<?>) member);
+      } else if (member instanceof InitializerDeclaration) {
+        InitializerDeclaration initializer = (InitializerDeclaration) member;
+        graph.addInitializer(createInitializer(initializer.isStatic() ? "static_initializer" : "initializer", initializer));
+      } else if (member instanceof TypeDeclaration) {
+        TypeDeclaration<?> nested = (TypeDeclaration<?>) member;
+        declare(nested, nested.getNameAsString(), nested.getMembers(), classPackage, graph, types);
+      }
+    }
+
+    // Local and anonymous classes that are defined directly within this type, the deeper ones are declared by their own enclosing class.
+    int anonymousClasses = 0;
+    for (BodyDeclaration<?> member : members) {
+      if (member instanceof TypeDeclaration) {
+        continue;
+      }
+      for (Node local : member.findAll(Node.class, n -> isLocalOrAnonymousClass(n) && getEnclosingType(n) == type)) {
+        if (local instanceof LocalClassDeclarationStmt) {
+          ClassOrInterfaceDeclaration localClass = ((LocalClassDeclarationStmt) local).getClassDeclaration();
+          declare(localClass, localClass.getNameAsString(), localClass.getMembers(), classPackage, graph, types);
+        } else {
+          ObjectCreationExpr anonymous = (ObjectCreationExpr) local;
+          declare(anonymous, String.valueOf(++anonymousClasses), anonymous.getAnonymousClassBody().get(), classPackage, graph, types);
+        }
       }
     }
+    return graph;
   }
 
-  private void addField(DataFlowGraph graph, Node node) {
-    if (node instanceof FieldDeclaration) {
-      parseField((FieldDeclaration) node, graph).forEach(graph::addField);
+  private boolean isLocalOrAnonymousClass(Node node) {
+    return node instanceof LocalClassDeclarationStmt || (node instanceof ObjectCreationExpr && ((ObjectCreationExpr) node).getAnonymousClassBody().isPresent());
+  }
+
+  /**
+   * @return The closest {@link TypeDeclaration} or anonymous class containing the given node, null if none exists.
+   */
+  private Node getEnclosingType(Node node) {
+    for (Node parent = node.getParentNode().orElse(null); parent != null; parent = parent.getParentNode().orElse(null)) {
+      if (parent instanceof TypeDeclaration || (parent instanceof ObjectCreationExpr && ((ObjectCreationExpr) parent).getAnonymousClassBody().isPresent())) {
+        return parent;
+      }
     }
+    return null;
   }
 
-  private DataFlowMethod createMethod(DataFlowGraph graph, Node node) {
-    DataFlowMethod method = null;
-    if (node instanceof CallableDeclaration) {
-      CallableDeclaration<?> cd = (CallableDeclaration<?>) node;
-      method = new DataFlowMethod(graph, cd, cd.getNameAsString());
-      List<DataFlowNode> dfnParameters = parseParameters(cd, method);
-      ParameterList paramList = ParameterList.builder().nodes(dfnParameters).owner(method).build();
-      method.setInputParameters(paramList);
-      if (node instanceof MethodDeclaration) {
-        MethodDeclaration md = (MethodDeclaration) node;
-        if (!(md.getType() instanceof VoidType)) {
-          method.setReturnNode(new DataFlowNode(cd.getNameAsString() + "_return", node));
-        }
-      } else {
-        // Always add a return statement for a constructor.
-        method.setReturnNode(new DataFlowNode(node));
+  private DataFlowMethod createMethod(DataFlowGraph graph, CallableDeclaration<?> cd) {
+    DataFlowMethod method = new DataFlowMethod(cd.getNameAsString(), cd);
+    List<DataFlowNode> dfnParameters = parseParameters(cd, method);
+    ParameterList paramList = ParameterList.builder().nodes(dfnParameters).owner(method).build();
+    method.setInputParameters(paramList);
+    if (cd instanceof MethodDeclaration) {
+      MethodDeclaration md = (MethodDeclaration) cd;
+      if (!(md.getType() instanceof VoidType)) {
+        method.setReturnNode(new DataFlowNode(cd.getNameAsString() + "_return", cd));
       }
+      graph.addMethod(method);
+    } else {
+      // Always add a return statement for a constructor.
+      method.setReturnNode(new DataFlowNode(cd));
+      graph.addConstructor(method);
+    }
+    return method;
+  }
+
+  /**
+   * Creates a {@link DataFlowMethod} for the initializer of each field that is initialized where it is declared. The method represents the initializer
+   * expression.
+   */
+  private void createFieldInitializers(DataFlowGraph graph, FieldDeclaration field) {
+    for (VariableDeclarator variable : field.getVariables()) {
+      variable.getInitializer().ifPresent(init -> graph.addInitializer(createInitializer(variable.getNameAsString() + "_initializer", init)));
     }
+  }
+
+  private DataFlowMethod createInitializer(String name, Node representedNode) {
+    DataFlowMethod method = new DataFlowMethod(name, representedNode);
+    method.setInputParameters(ParameterList.builder().owner(method).build());
     return method;
   }
 
-  private void fillMethod(DataFlowGraph graph, Node node) {
-    if (node instanceof MethodDeclaration) {
-      MethodDeclaration md = (MethodDeclaration) node;
-      parseCallable(graph, md);
+  private void fillMethod(DataFlowGraph graph, BodyDeclaration<?> member, Map<Node, DeclaredType> types) {
+    List<DataFlowMethod> filled = new ArrayList<>();
+    if (member instanceof CallableDeclaration) {
+      filled.add(parseCallable(graph, (CallableDeclaration<?>) member));
+    } else if (member instanceof InitializerDeclaration) {
+      InitializerDeclaration initializer = (InitializerDeclaration) member;
+      DataFlowMethod method = graph.getMethod(initializer);
+      fillBody(graph, method, initializer.getBody(), null, Collections.emptyList());
+      filled.add(method);
+    } else if (member instanceof FieldDeclaration) {
+      for (VariableDeclarator variable : ((FieldDeclaration) member).getVariables()) {
+        if (variable.getInitializer().isPresent()) {
+          DataFlowMethod method = graph.getMethod(variable.getInitializer().get());
+          fillBody(graph, method, variable.getInitializer().get(), graph.getNode(variable), Collections.emptyList());
+          filled.add(method);
+        }
+      }
     }
+    // All methods are already declared, so the calls can directly be connected.
+    filled.forEach(method -> connectMethod(graph, method, types));
   }
 
   /**
-   * Connects all method calls to methods inside this graph to each other.
+   * Connects all method calls from the given method to methods inside the same compilation unit and registers all calls in the
+   * {@link DataFlowGraph#getCallGraph()}. Calls to methods of other classes within the compilation unit, such as inner or anonymous classes, are also
+   * registered in the {@link CallGraph} of the called class.
    *
-   * @param graph The graph to connect the methods from.
+   * @param graph The graph containing the method.
+   * @param method The method to connect the calls from.
+   * @param types The types declared within the compilation unit.
    */
-  private void connectMethods(DataFlowGraph graph) {
+  private void connectMethod(DataFlowGraph graph, DataFlowMethod method, Map<Node, DeclaredType> types) {
     // TODO probably best to extract this to another class.
-    for (DataFlowMethod method : graph.getMethods()) {
-      for (NodeCall call : method.getNodeCalls()) {
-        Node node = call.getRepresentedNode();
-        Object resolved = resolve(method, node);
-        if (resolved instanceof JavaParserMethodDeclaration) {
-          MethodDeclaration resolvedNode = ((JavaParserMethodDeclaration) resolved).getWrappedNode();
-          DataFlowMethod resolvedMethod = graph.getMethod(resolvedNode);
-          if (resolvedMethod != null) {
-            call.setCalledMethod(resolvedMethod);
-          } else {
-            // TODO handle connecting to other graphs
+    for (NodeCall call : method.getNodeCalls()) {
+      Node node = call.getRepresentedNode();
+      Object resolved = resolve(method, node);
+      if (resolved instanceof JavaParserMethodDeclaration || resolved instanceof JavaParserConstructorDeclaration) {
+        Node resolvedNode = resolved instanceof JavaParserMethodDeclaration ? ((JavaParserMethodDeclaration) resolved).getWrappedNode()
+            : ((JavaParserConstructorDeclaration<?>) resolved).getWrappedNode();
+        DeclaredType declaringType = types.get(getEnclosingType(resolvedNode));
+        DataFlowMethod resolvedMethod = declaringType == null ? null : declaringType.graph.getMethod(resolvedNode);
+        if (resolvedMethod != null) {
+          call.setCalledMethod(resolvedMethod);
+          if (resolvedMethod.getGraph() != graph) {
+            resolvedMethod.getGraph().getCallGraph().addCall(method, call);
           }
-        } else {
-          LOG.warn("In method {}, Connecting methods of type {} is not supported, the node that was not connected is: {}", method.getName(),
-              resolved == null ? null : resolved.getClass(), node);
+        } else if (declaringType == null) {
+          // Declared in another compilation unit, the ProjectLinker connects it once both graphs are part of a DataFlowProject.
+          addDependency(graph, (ResolvedMethodLikeDeclaration) resolved);
+        }
+      } else {
+        if (resolved instanceof ResolvedMethodLikeDeclaration) {
+          addDependency(graph, (ResolvedMethodLikeDeclaration) resolved);
         }
+        LOG.warn("In method {}, Connecting methods of type {} is not supported, the node that was not connected is: {}", method.getName(),
+            resolved == null ? null : resolved.getClass(), node);
       }
+      graph.getCallGraph().addCall(method, call);
+    }
+  }
+
+  private void addDependency(DataFlowGraph graph, ResolvedMethodLikeDeclaration resolved) {
+    try {
+      graph.addDependency(resolved.declaringType().getQualifiedName(), ParserUtil.signature(resolved));
+    } catch (RuntimeException e) {
+      LOG.warn("In graph {}, could not register the dependency on {}: {}", graph.getName(), resolved.getName(), e.getMessage());
     }
   }
 
@@ -176,29 +327,57 @@ public class DataFlowGraphFactory {
     return node.getVariables().stream().map(var -> dfnFactory.create(var, owner)).collect(Collectors.toList());
   }
 
-  private void parseCallable(DataFlowGraph graph, CallableDeclaration<?> cd) {
+  private DataFlowMethod parseCallable(DataFlowGraph graph, CallableDeclaration<?> cd) {
     // TODO we need this method later to add outgoing and incoming nodes too.
     DataFlowMethod method = graph.getMethod(cd);
-    // The values that are overwridden inside this method, for example assigning a field.
-    Map<Node, DataFlowNode> overwriddenValues = new HashMap<>();
-
     Optional<BlockStmt> callableBody =
         cd.getChildNodes().stream().filter(n -> BlockStmt.class.isAssignableFrom(n.getClass())).findFirst().map(BlockStmt.class::cast);
+    callableBody.ifPresent(body -> fillBody(graph, method, body, null, cd.getParameters()));
+    return method;
+  }
 
-    if (callableBody.isPresent()) {
-      nodeHandler.handleNode(graph, method, overwriddenValues, callableBody.get(), method);
+  /**
+   * Fills the given method by handling its body.
+   *
+   * @param graph The graph containing the method.
+   * @param method The {@link DataFlowMethod} to fill.
+   * @param body The body of a method or initializer block, or the initializer expression of a field.
+   * @param initializedField The field initialized by the body, null if the body does not represent a field initializer.
+   * @param parameters The parameters that are visible within the body.
+   */
+  private void fillBody(DataFlowGraph graph, DataFlowMethod method, Node body, DataFlowNode initializedField, List<Parameter> parameters) {
+    // The versions of the variables that are assigned inside this method, for example assigning a field.
+    VariableState state = new VariableState();
+    parameters.forEach(p -> state.getScope().declare(p.getNameAsString(), p));
+    Optional<DataFlowNode> value = nodeHandler.handleNode(graph, method, state, body, method);
+    if (initializedField != null) {
+      value.ifPresent(v -> v.addEdgeTo(initializedField));
+      method.addChangedField(initializedField);
     }
 
-    // Each overwridden value has to receive the value that it was overwridden with
-    overwriddenValues.forEach((javaParserNode, dataFlowNode) -> dataFlowNode.addEdgeTo(graph.getNode(javaParserNode)));
-
-    // Add changed fields
-    overwriddenValues.keySet().stream().filter(VariableDeclarator.class::isInstance).map(graph::getNode).filter(n -> n != null).distinct()
-        .forEach(method::addChangedField);
+    // Each assigned field has to receive the last value that it was assigned with and is a changed field of this method.
+    state.getAssigned().forEach((javaParserNode, dataFlowNode) -> {
+      DataFlowNode field = graph.getNodeInScope(javaParserNode);
+      if (field != null) {
+        dataFlowNode.addEdgeTo(field);
+        method.addChangedField(field);
+      }
+    });
   }
 
   private List<DataFlowNode> parseParameters(CallableDeclaration<?> cd, OwnedNode<?> owner) {
     return cd.getParameters().stream().map(n -> dfnFactory.create(n, owner)).collect(Collectors.toList());
   }
 
+  /** A created graph together with the members of the type it represents, the members still need to be filled after declaring all types. */
+  private static final class DeclaredType {
+    private final DataFlowGraph graph;
+    private final List<BodyDeclaration<?>> members;
+
+    private DeclaredType(DataFlowGraph graph, List<BodyDeclaration<?>> members) {
+      this.graph = graph;
+      this.members = members;
+    }
+  }
+
 }
@@ -21,8 +21,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.SimpleName;
 import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
+import com.github.javaparser.ast.nodeTypes.NodeWithType;
 import com.github.javaparser.ast.stmt.ReturnStmt;
 import com.github.javaparser.printer.Stringable;
 
@@ -50,12 +52,17 @@ public class DataFlowNodeFactory {
       builder.name(((Stringable) nodeWithName).asString());
     } else if (nodeWithName instanceof SimpleName) {
       builder.name(((SimpleName) nodeWithName).asString());
+    } else if (nodeWithName instanceof Expression) {
+      // Expressions without a name, for instance literals or binary expressions, are named after their code.
+      builder.name(nodeWithName.toString());
     } else {
       LOG.warn("Not supported to add a name to a created DataFlowNode for node of type {}, input node is {}", n.getClass(), n);
     }
 
-    // TODO set the type
-    // builder.type(null);
+    if (n instanceof NodeWithType) {
+      // The declared type, for instance for parameters and variables.
+      builder.type(((NodeWithType<?, ?>) n).getTypeAsString());
+    }
 
     // for (int i = 0; i < resolved.getNumberOfParams(); i++) {
     // ResolvedParameterDeclaration p = resolved.getParam(i);
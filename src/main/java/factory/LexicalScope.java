@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.github.javaparser.ast.Node;
+
+/**
+ * The local variables and parameters that are visible at the current position while handling a method body. Each block, loop, catch clause or lambda opens a
+ * new scope via {@link #enter()}, which is closed again by {@link #exit()} after handling it. Variables are identified by the {@link Node} declaring them, for
+ * instance the {@link com.github.javaparser.ast.body.VariableDeclarator} of a local variable or the {@link com.github.javaparser.ast.body.Parameter} of a
+ * method, which is the same node the symbol solver resolves a name to.
+ * <p>
+ * All visible variables are kept in a single map, so that {@link #resolve(String)} does not depend on the nesting depth. Each scope remembers which
+ * declarations it shadowed, which are restored when the scope is exited.
+ *
+ * @author Daan
+ */
+public class LexicalScope {
+
+  /** The innermost visible declaration per name. */
+  private final Map<String, Node> visible = new HashMap<>();
+  /** Per scope the declarations that were visible before a name was declared within it, null if none was. The innermost scope first. */
+  private final Deque<Map<String, Node>> shadowed = new ArrayDeque<>();
+
+  public LexicalScope() {
+    // The outermost scope, containing the parameters of the method.
+    shadowed.push(new HashMap<>());
+  }
+
+  /** Opens a new scope, variables declared from now on are only visible until the matching {@link #exit()}. */
+  public void enter() {
+    shadowed.push(new HashMap<>());
+  }
+
+  /** Closes the innermost scope, restoring the declarations that were shadowed by it. */
+  public void exit() {
+    if (shadowed.size() == 1) {
+      throw new IllegalStateException("Cannot exit the outermost scope");
+    }
+    shadowed.pop().forEach((name, previous) -> {
+      if (previous == null) {
+        visible.remove(name);
+      } else {
+        visible.put(name, previous);
+      }
+    });
+  }
+
+  /**
+   * @param name The name of the variable.
+   * @param declaration The {@link Node} declaring the variable.
+   */
+  public void declare(String name, Node declaration) {
+    Map<String, Node> scope = shadowed.peek();
+    if (!scope.containsKey(name)) {
+      scope.put(name, visible.get(name));
+    }
+    visible.put(name, declaration);
+  }
+
+  /**
+   * @param name The name of a variable.
+   * @return The {@link Node} declaring the innermost visible variable with the given name, empty if no such local variable or parameter is visible.
+   */
+  public Optional<Node> resolve(String name) {
+    return Optional.ofNullable(visible.get(name));
+  }
+
+}
@@ -17,31 +17,69 @@
  */
 package factory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
-import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
-import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.ArrayCreationExpr;
+import com.github.javaparser.ast.expr.ArrayInitializerExpr;
 import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
 import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.LiteralExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.SimpleName;
+import com.github.javaparser.ast.expr.ThisExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
 import com.github.javaparser.ast.expr.VariableDeclarationExpr;
 import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.BreakStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ContinueStmt;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.EmptyStmt;
+import com.github.javaparser.ast.stmt.ExplicitConstructorInvocationStmt;
 import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.stmt.ForEachStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.LabeledStmt;
+import com.github.javaparser.ast.stmt.LocalClassDeclarationStmt;
 import com.github.javaparser.ast.stmt.ReturnStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.stmt.SwitchEntry;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.SynchronizedStmt;
+import com.github.javaparser.ast.stmt.ThrowStmt;
+import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserFieldDeclaration;
 
 import common.DataFlowException;
 import model.DataFlowEdge;
@@ -64,6 +102,49 @@ public class MethodNodeHandler {
   private ParserUtil parserUtil = new ParserUtil();
   private NodeCallFactory nodeCallFactory = new NodeCallFactory();
   private DataFlowNodeFactory dfnFactory = new DataFlowNodeFactory();
+  private ResolutionMode resolutionMode = ResolutionMode.DEFAULT;
+
+  /** The {@link Handler} per {@link Node} class. Classes without a registered handler are added the first time they are handled. */
+  private final Map<Class<?>, Handler<Node>> handlers = new ConcurrentHashMap<>();
+
+  public MethodNodeHandler() {
+    register(BlockStmt.class, this::handleBlockStmt);
+    register(ExpressionStmt.class, this::handleExpressionStmt);
+    register(AssignExpr.class, this::handleAssignExpr);
+    register(ReturnStmt.class, this::handleReturnStmt);
+    register(NameExpr.class, this::handleNameExpr);
+    register(MethodCallExpr.class, this::handleMethodCallExpr);
+    register(ObjectCreationExpr.class, this::handleObjectCreationExpr);
+    register(ExplicitConstructorInvocationStmt.class, this::handleExplicitConstructorInvocationStmt);
+    register(VariableDeclarationExpr.class, this::handleVariableDeclarationExpr);
+    register(VariableDeclarator.class, this::handleVariableDeclarator);
+    register(FieldAccessExpr.class, this::handleFieldAccessExpr);
+    register(IfStmt.class, this::handleIfStmt);
+    register(WhileStmt.class, this::handleWhileStmt);
+    register(DoStmt.class, this::handleDoStmt);
+    register(ForStmt.class, this::handleForStmt);
+    register(ForEachStmt.class, this::handleForEachStmt);
+    register(SwitchStmt.class, this::handleSwitchStmt);
+    register(TryStmt.class, this::handleTryStmt);
+    register(ThrowStmt.class, this::handleThrowStmt);
+    register(LabeledStmt.class, this::handleLabeledStmt);
+    register(SynchronizedStmt.class, this::handleSynchronizedStmt);
+    register(LambdaExpr.class, this::handleLambdaExpr);
+    register(BinaryExpr.class, this::handleBinaryExpr);
+    register(UnaryExpr.class, this::handleUnaryExpr);
+    register(ConditionalExpr.class, this::handleConditionalExpr);
+    register(EnclosedExpr.class, this::handleEnclosedExpr);
+    register(CastExpr.class, this::handleCastExpr);
+    register(LiteralExpr.class, this::handleLiteralExpr);
+    register(ArrayCreationExpr.class, this::handleArrayCreationExpr);
+    register(ArrayInitializerExpr.class, this::handleArrayInitializerExpr);
+    register(Comment.class, this::handleNothing);
+    register(BreakStmt.class, this::handleBreakStmt);
+    register(ContinueStmt.class, this::handleContinueStmt);
+    register(EmptyStmt.class, this::handleNothing);
+    // Local classes are represented by an inner graph of the graph of the enclosing class.
+    register(LocalClassDeclarationStmt.class, this::handleNothing);
+  }
 
   /**
    * Recursively creates new {@link DataFlowNode} or finds existing ones and creates {@link DataFlowEdge} between those nodes if needed. This is done within the
@@ -72,74 +153,433 @@ public class MethodNodeHandler {
    *
    * @param graph {@link DataFlowGraph}
    * @param method {@link DataFlowMethod} to add {@link DataFlowNode} to
-   * @param overriddenValues The values that have been overridden in previous iterations.
+   * @param state The current version of each variable that was assigned within the method.
    * @param n The {@link Node} to handle. ChildNodes will recursively be handled if needed.
    * @param owner The owner for the node to be created. This variable might be removed later, giving the caller of this method the responsibility to set the
    *          owner.
    * @return An optional of the {@link DataFlowNode} of the input node. If multiple head nodes are created, (In case of a {@link BlockStmt}) the optional will
    *         be empty.
    */
-  public Optional<DataFlowNode> handleNode(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, Node n, OwnedNode<?> owner) {
+  public Optional<DataFlowNode> handleNode(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node n, OwnedNode<?> owner) {
     LOG.trace("handling node {}", n);
-    Optional<DataFlowNode> created = Optional.empty();
-    if (n instanceof BlockStmt) {
-      created = handleBlockStmt(graph, method, overriddenValues, (BlockStmt) n, owner);
-    } else if (n instanceof ExpressionStmt) {
-      created = handleExpressionStmt(graph, method, overriddenValues, (ExpressionStmt) n, owner);
-    } else if (n instanceof AssignExpr) {
-      created = handleAssignExpr(graph, method, overriddenValues, (AssignExpr) n, owner);
-    } else if (n instanceof ReturnStmt) {
-      created = handleReturnStmt(graph, method, overriddenValues, (ReturnStmt) n, owner);
-    } else if (n instanceof NameExpr) {
-      created = handleNameExpr(graph, method, overriddenValues, (NameExpr) n, owner);
-    } else if (n instanceof MethodCallExpr) {
-      created = handleMethodCallExpr(graph, method, overriddenValues, (MethodCallExpr) n, owner);
-    } else if (n instanceof VariableDeclarationExpr) {
-      created = handleVariableDeclarationExpr(graph, method, overriddenValues, (VariableDeclarationExpr) n, owner);
-    } else if (n instanceof VariableDeclarator) {
-      created = handleVariableDeclarator(graph, method, overriddenValues, (VariableDeclarator) n, owner);
-    } else if (n instanceof FieldAccessExpr) {
-      created = handleFieldAccessExpr(graph, method, overriddenValues, (FieldAccessExpr) n, owner);
-    } else if (n instanceof LineComment) {
-      // do nothing for comments
-    } else {
-      LOG.warn("In method {} could not handle node [{}] of type {}", method.getName(), n, n.getClass());
-    }
+    Optional<DataFlowNode> created = getHandler(n.getClass()).handle(graph, method, state, n, owner);
     LOG.trace("created: {}", created);
     return created;
   }
 
-  private Optional<DataFlowNode> handleVariableDeclarator(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues,
+  /**
+   * @param resolutionMode Determines how the declarations of variables are found, defaults to {@link ResolutionMode#DEFAULT}.
+   */
+  public void setResolutionMode(ResolutionMode resolutionMode) {
+    this.resolutionMode = resolutionMode;
+  }
+
+  private <T extends Node> void register(Class<T> claz, Handler<T> handler) {
+    handlers.put(claz, (graph, method, state, n, owner) -> handler.handle(graph, method, state, claz.cast(n), owner));
+  }
+
+  private Handler<Node> getHandler(Class<?> claz) {
+    Handler<Node> handler = handlers.get(claz);
+    if (handler == null) {
+      // Use the handler of the closest registered super class, for instance for all types of literals. Cache it so that this is only done once per class.
+      for (Class<?> superClass = claz.getSuperclass(); handler == null && superClass != null; superClass = superClass.getSuperclass()) {
+        handler = handlers.get(superClass);
+      }
+      handler = handler == null ? this::handleUnsupported : handler;
+      handlers.put(claz, handler);
+    }
+    return handler;
+  }
+
+  private Optional<DataFlowNode> handleUnsupported(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node n, OwnedNode<?> owner) {
+    LOG.warn("In method {} could not handle node [{}] of type {}", method.getName(), n, n.getClass());
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleNothing(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node n, OwnedNode<?> owner) {
+    // For instance comments or empty statements, which do not influence the data flow.
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleIfStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, IfStmt n, OwnedNode<?> owner) {
+    handleNode(graph, method, state, n.getCondition(), owner);
+    VariableState thenState = state.copy();
+    handleNode(graph, method, thenState, n.getThenStmt(), owner);
+    VariableState elseState = state.copy();
+    n.getElseStmt().ifPresent(e -> handleNode(graph, method, elseState, e, owner));
+
+    List<VariableState> paths = new ArrayList<>();
+    if (completesNormally(n.getThenStmt())) {
+      paths.add(thenState);
+    }
+    if (n.getElseStmt().map(this::completesNormally).orElse(true)) {
+      paths.add(elseState);
+    }
+    merge(graph, method, state, n, paths);
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleWhileStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, WhileStmt n, OwnedNode<?> owner) {
+    List<Node> loop = Arrays.asList(n.getCondition(), n.getBody());
+    handleLoop(graph, method, state, n, loop, false, () -> {
+      handleNode(graph, method, state, n.getCondition(), owner);
+      handleLoopBody(graph, method, state, n, n.getBody(), owner);
+    });
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleDoStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, DoStmt n, OwnedNode<?> owner) {
+    List<Node> loop = Arrays.asList(n.getBody(), n.getCondition());
+    handleLoop(graph, method, state, n, loop, true, () -> {
+      handleLoopBody(graph, method, state, n, n.getBody(), owner);
+      handleNode(graph, method, state, n.getCondition(), owner);
+    });
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleForStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, ForStmt n, OwnedNode<?> owner) {
+    return inScope(state, () -> {
+      n.getInitialization().forEach(i -> handleNode(graph, method, state, i, owner));
+      List<Node> loop = new ArrayList<>();
+      n.getCompare().ifPresent(loop::add);
+      loop.add(n.getBody());
+      loop.addAll(n.getUpdate());
+      handleLoop(graph, method, state, n, loop, false, () -> {
+        n.getCompare().ifPresent(c -> handleNode(graph, method, state, c, owner));
+        handleLoopBody(graph, method, state, n, n.getBody(), owner);
+        n.getUpdate().forEach(u -> handleNode(graph, method, state, u, owner));
+      });
+      return Optional.empty();
+    });
+  }
+
+  private Optional<DataFlowNode> handleForEachStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, ForEachStmt n, OwnedNode<?> owner) {
+    Optional<DataFlowNode> iterable = handleNode(graph, method, state, n.getIterable(), owner);
+    List<Node> loop = Arrays.asList(n.getVariable(), n.getBody());
+    return inScope(state, () -> {
+      handleLoop(graph, method, state, n, loop, false, () -> {
+        // Each iteration the variable is assigned with an element from the iterable.
+        for (VariableDeclarator vd : n.getVariable().getVariables()) {
+          handleNode(graph, method, state, vd, owner).ifPresent(variable -> iterable.ifPresent(i -> i.addEdgeTo(variable)));
+        }
+        handleLoopBody(graph, method, state, n, n.getBody(), owner);
+      });
+      return Optional.empty();
+    });
+  }
+
+  /**
+   * Handles a loop once and then connects the variables that are assigned within the loop to the start of the loop via a merge node, see
+   * {@link VariableState#mergeLoop(DataFlowMethod, Node, VariableState, Function, Predicate, boolean, List)}. The states at break statements leaving the loop
+   * are merged with the state after the loop.
+   */
+  private void handleLoop(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node loopStmt, List<Node> loop, boolean executedAtLeastOnce,
+      Runnable handleLoop) {
+    VariableState entry = state.copy();
+    handleLoop.run();
+    List<VariableState> breaks = state.takeBreaks(loopStmt);
+    state.mergeLoop(method, loopStmt, entry, d -> getOriginal(graph, method, d), node -> isWithin(node, loop, loopStmt), !executedAtLeastOnce, breaks);
+    mergeJumps(graph, method, state, loopStmt, breaks);
+  }
+
+  /**
+   * Handles the body of a loop and merges the states at continue statements with the state at the end of the body, since both continue with the next
+   * iteration.
+   */
+  private void handleLoopBody(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node loopStmt, Statement body, OwnedNode<?> owner) {
+    handleNode(graph, method, state, body, owner);
+    // The body is the join, so that the merge nodes are part of the loop and are connected to the start of the loop.
+    mergeJumps(graph, method, state, body, state.takeContinues(loopStmt));
+  }
+
+  /**
+   * Merges the given states of jump statements with the given state, if there are any.
+   */
+  private void mergeJumps(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node join, List<VariableState> jumps) {
+    if (!jumps.isEmpty()) {
+      List<VariableState> paths = new ArrayList<>(jumps);
+      paths.add(0, state.copy());
+      merge(graph, method, state, join, paths);
+    }
+  }
+
+  private Optional<DataFlowNode> handleBreakStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, BreakStmt n, OwnedNode<?> owner) {
+    getJumpTarget(n, n.getLabel(), true).ifPresent(state::addBreak);
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleContinueStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, ContinueStmt n, OwnedNode<?> owner) {
+    getJumpTarget(n, n.getLabel(), false).ifPresent(state::addContinue);
+    return Optional.empty();
+  }
+
+  /**
+   * @param jump A break or continue statement.
+   * @param label The label of the jump statement.
+   * @param isBreak True for a break statement, which can also target a switch statement or labeled block.
+   * @return The statement that the jump leaves, for a labeled jump the statement with that label. Empty if it could not be found within the method.
+   */
+  private Optional<Node> getJumpTarget(Statement jump, Optional<SimpleName> label, boolean isBreak) {
+    for (Node current = jump.getParentNode().orElse(null); current != null; current = current.getParentNode().orElse(null)) {
+      if (current instanceof LambdaExpr || current instanceof BodyDeclaration) {
+        break;
+      }
+      if (label.isPresent()) {
+        if (current instanceof LabeledStmt && ((LabeledStmt) current).getLabel().equals(label.get())) {
+          return Optional.of(((LabeledStmt) current).getStatement());
+        }
+      } else if (current instanceof WhileStmt || current instanceof DoStmt || current instanceof ForStmt || current instanceof ForEachStmt
+          || (isBreak && current instanceof SwitchStmt)) {
+        return Optional.of(current);
+      }
+    }
+    LOG.warn("Could not find the statement targeted by {}", jump);
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleSwitchStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, SwitchStmt n, OwnedNode<?> owner) {
+    handleNode(graph, method, state, n.getSelector(), owner);
+    // All entries together form a single block, a variable declared in one entry is visible in the next entries.
+    return inScope(state, () -> handleSwitchEntries(graph, method, state, n, owner));
+  }
+
+  private Optional<DataFlowNode> handleSwitchEntries(DataFlowGraph graph, DataFlowMethod method, VariableState state, SwitchStmt n, OwnedNode<?> owner) {
+    List<VariableState> paths = new ArrayList<>();
+    VariableState fallThrough = null;
+    boolean hasDefault = false;
+    for (SwitchEntry entry : n.getEntries()) {
+      hasDefault |= entry.getLabels().isEmpty();
+      VariableState entryState = state.copy();
+      if (fallThrough != null) {
+        merge(graph, method, entryState, entry, Arrays.asList(state.copy(), fallThrough));
+      }
+      entry.getStatements().forEach(stmt -> handleNode(graph, method, entryState, stmt, owner));
+
+      Statement last = entry.getStatements().isEmpty() ? null : lastStatement(entry.getStatements().get(entry.getStatements().size() - 1));
+      fallThrough = null;
+      if (entry.getType() != SwitchEntry.Type.STATEMENT_GROUP && completesNormally(last)) {
+        paths.add(entryState);
+      } else if (completesNormally(last)) {
+        fallThrough = entryState;
+      }
+    }
+    if (fallThrough != null) {
+      paths.add(fallThrough);
+    }
+    // Entries left via a break statement, also from within nested statements.
+    paths.addAll(state.takeBreaks(n));
+    if (!hasDefault) {
+      paths.add(state.copy());
+    }
+    merge(graph, method, state, n, paths);
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleTryStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, TryStmt n, OwnedNode<?> owner) {
+    VariableState entry = state.copy();
+    int assignments = state.getAssignmentCount();
+    List<Node> tryParts = new ArrayList<>(n.getResources());
+    tryParts.add(n.getTryBlock());
+    // The resources are only visible within the try block.
+    inScope(state, () -> {
+      n.getResources().forEach(r -> handleNode(graph, method, state, r, owner));
+      return handleNode(graph, method, state, n.getTryBlock(), owner);
+    });
+
+    List<VariableState> paths = new ArrayList<>();
+    if (completesNormally(n.getTryBlock())) {
+      paths.add(state.copy());
+    }
+    for (CatchClause clause : n.getCatchClauses()) {
+      // The exception can be thrown anywhere within the try block, so the catch clause can receive the version from before the try block and every version
+      // assigned within it. Variables declared within the try block are not visible in the catch clause.
+      VariableState catchState = state.copy();
+      catchState.mergeAssignedSince(method, clause, entry, assignments, d -> !isWithin(d, tryParts, n), d -> getOriginal(graph, method, d));
+      method.addNode(dfnFactory.create(clause.getParameter(), owner));
+      inScope(state, () -> {
+        declare(state, clause.getParameter());
+        return handleNode(graph, method, catchState, clause.getBody(), owner);
+      });
+      if (completesNormally(clause.getBody())) {
+        paths.add(catchState);
+      }
+    }
+    merge(graph, method, state, n, paths);
+    n.getFinallyBlock().ifPresent(f -> handleNode(graph, method, state, f, owner));
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleThrowStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, ThrowStmt n, OwnedNode<?> owner) {
+    handleNode(graph, method, state, n.getExpression(), owner);
+    return Optional.empty();
+  }
+
+  private Optional<DataFlowNode> handleLabeledStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, LabeledStmt n, OwnedNode<?> owner) {
+    Optional<DataFlowNode> result = handleNode(graph, method, state, n.getStatement(), owner);
+    // Breaks out of a labeled block, loops and switch statements already merged the breaks targeting them.
+    mergeJumps(graph, method, state, n, state.takeBreaks(n.getStatement()));
+    return result;
+  }
+
+  private Optional<DataFlowNode> handleSynchronizedStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, SynchronizedStmt n,
+      OwnedNode<?> owner) {
+    handleNode(graph, method, state, n.getExpression(), owner);
+    return handleNode(graph, method, state, n.getBody(), owner);
+  }
+
+  private Optional<DataFlowNode> handleLambdaExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, LambdaExpr n, OwnedNode<?> owner) {
+    DataFlowNode lambda = dfnFactory.create(n, owner);
+    lambda.setName(method.getName() + "_lambda_" + position(n));
+    method.addNode(lambda);
+    n.getParameters().forEach(p -> method.addNode(dfnFactory.create(p, owner)));
+
+    // The body can be executed later or multiple times, therefore assignments within the body are not visible outside of it.
+    VariableState bodyState = state.copy();
+    Statement body = n.getBody();
+    inScope(state, () -> {
+      n.getParameters().forEach(p -> declare(state, p));
+      if (body instanceof ExpressionStmt) {
+        handleNode(graph, method, bodyState, ((ExpressionStmt) body).getExpression(), owner).ifPresent(value -> value.addEdgeTo(lambda));
+      } else {
+        // Return statements within the body will be connected to the lambda node.
+        handleNode(graph, method, bodyState, body, owner);
+      }
+      return Optional.empty();
+    });
+    return Optional.of(lambda);
+  }
+
+  private Optional<DataFlowNode> handleBinaryExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, BinaryExpr n, OwnedNode<?> owner) {
+    return createFromOperands(graph, method, state, n, owner, n.getLeft(), n.getRight());
+  }
+
+  private Optional<DataFlowNode> handleUnaryExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, UnaryExpr n, OwnedNode<?> owner) {
+    UnaryExpr.Operator operator = n.getOperator();
+    if (operator != UnaryExpr.Operator.PREFIX_INCREMENT && operator != UnaryExpr.Operator.PREFIX_DECREMENT
+        && operator != UnaryExpr.Operator.POSTFIX_INCREMENT && operator != UnaryExpr.Operator.POSTFIX_DECREMENT) {
+      return createFromOperands(graph, method, state, n, owner, n.getExpression());
+    }
+
+    // Incrementing or decrementing assigns a new version to the variable.
+    Optional<DataFlowNode> previous = handleNode(graph, method, state, n.getExpression(), owner);
+    Optional<Node> optionalAssignedJP = resolveDeclaration(graph, method, state, n.getExpression());
+    if (!previous.isPresent() || !optionalAssignedJP.isPresent() || !(n.getExpression() instanceof NodeWithSimpleName)) {
+      return previous;
+    }
+    DataFlowNode flowNode = dfnFactory.create(n, method);
+    flowNode.setName(state.nameForNextVersion(method, optionalAssignedJP.get(), ((NodeWithSimpleName<?>) n.getExpression()).getNameAsString()));
+    previous.get().addEdgeTo(flowNode);
+    method.addNode(flowNode);
+    state.assign(optionalAssignedJP.get(), flowNode);
+    // The value of a postfix expression is the value before incrementing.
+    return operator.isPostfix() ? previous : Optional.of(flowNode);
+  }
+
+  private Optional<DataFlowNode> handleConditionalExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, ConditionalExpr n,
+      OwnedNode<?> owner) {
+    handleNode(graph, method, state, n.getCondition(), owner);
+    DataFlowNode created = dfnFactory.create(n, owner);
+    VariableState thenState = state.copy();
+    handleNode(graph, method, thenState, n.getThenExpr(), owner).ifPresent(value -> value.addEdgeTo(created));
+    VariableState elseState = state.copy();
+    handleNode(graph, method, elseState, n.getElseExpr(), owner).ifPresent(value -> value.addEdgeTo(created));
+    merge(graph, method, state, n, Arrays.asList(thenState, elseState));
+    method.addNode(created);
+    return Optional.of(created);
+  }
+
+  private Optional<DataFlowNode> handleEnclosedExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, EnclosedExpr n, OwnedNode<?> owner) {
+    return handleNode(graph, method, state, n.getInner(), owner);
+  }
+
+  private Optional<DataFlowNode> handleCastExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, CastExpr n, OwnedNode<?> owner) {
+    return handleNode(graph, method, state, n.getExpression(), owner);
+  }
+
+  private Optional<DataFlowNode> handleLiteralExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, LiteralExpr n, OwnedNode<?> owner) {
+    return createFromOperands(graph, method, state, n, owner);
+  }
+
+  private Optional<DataFlowNode> handleArrayCreationExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, ArrayCreationExpr n,
+      OwnedNode<?> owner) {
+    if (n.getInitializer().isPresent()) {
+      return createFromOperands(graph, method, state, n, owner, n.getInitializer().get());
+    }
+    return createFromOperands(graph, method, state, n, owner);
+  }
+
+  private Optional<DataFlowNode> handleArrayInitializerExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, ArrayInitializerExpr n,
+      OwnedNode<?> owner) {
+    return createFromOperands(graph, method, state, n, owner, n.getValues().toArray(new Node[0]));
+  }
+
+  /**
+   * Creates a {@link DataFlowNode} for the given node, with an incoming edge from each of the handled operands.
+   */
+  private Optional<DataFlowNode> createFromOperands(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node n, OwnedNode<?> owner,
+      Node... operands) {
+    DataFlowNode created = dfnFactory.create(n, owner);
+    for (Node operand : operands) {
+      handleNode(graph, method, state, operand, owner).ifPresent(o -> o.addEdgeTo(created));
+    }
+    method.addNode(created);
+    return Optional.of(created);
+  }
+
+  private Optional<DataFlowNode> handleVariableDeclarator(DataFlowGraph graph, DataFlowMethod method, VariableState state,
       VariableDeclarator n, OwnedNode<?> owner) {
     DataFlowNode created = dfnFactory.create(n, owner);
     Optional<Expression> initializer = n.getInitializer();
     if (initializer.isPresent()) {
-      Optional<DataFlowNode> assigner = handleNode(graph, method, overriddenValues, initializer.get(), owner);
+      Optional<DataFlowNode> assigner = handleNode(graph, method, state, initializer.get(), owner);
       if (assigner.isPresent()) {
         assigner.get().addEdgeTo(created);
       } else {
         LOG.warn("In method {} was not able to resolve {} of type {}", method.getName(), initializer.get(), initializer.get().getClass());
       }
     }
+    // Declared after handling the initializer, since the initializer cannot read the declared variable.
+    declare(state, n);
     method.addNode(created);
     return Optional.ofNullable(created);
   }
 
-  private Optional<DataFlowNode> handleVariableDeclarationExpr(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues,
+  private Optional<DataFlowNode> handleVariableDeclarationExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state,
       VariableDeclarationExpr n, OwnedNode<?> owner) {
     NodeList<VariableDeclarator> variables = n.getVariables();
     for (VariableDeclarator vd : variables) {
-      handleNode(graph, method, overriddenValues, vd, owner);
+      handleNode(graph, method, state, vd, owner);
     }
     return Optional.empty();
   }
 
-  private Optional<DataFlowNode> handleMethodCallExpr(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, MethodCallExpr n,
+  private Optional<DataFlowNode> handleMethodCallExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, MethodCallExpr n, OwnedNode<?> owner) {
+    // Get the instance on which the method call is executed.
+    DataFlowNode instance = n.getScope().map(scope -> handleNode(graph, method, state, scope, owner).orElse(null)).orElse(null);
+    return handleCall(graph, method, state, n, n.getArguments(), instance, owner);
+  }
+
+  private Optional<DataFlowNode> handleObjectCreationExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, ObjectCreationExpr n,
       OwnedNode<?> owner) {
+    // The body of an anonymous class is represented by an inner graph, only the call to the constructor is part of this method.
+    DataFlowNode instance = n.getScope().map(scope -> handleNode(graph, method, state, scope, owner).orElse(null)).orElse(null);
+    return handleCall(graph, method, state, n, n.getArguments(), instance, owner);
+  }
 
-    // Get the instance on which the method call is executed.
-    DataFlowNode instance = n.getScope().map(scope -> handleNode(graph, method, overriddenValues, scope, owner).orElse(null)).orElse(null);
+  private Optional<DataFlowNode> handleExplicitConstructorInvocationStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state,
+      ExplicitConstructorInvocationStmt n, OwnedNode<?> owner) {
+    // A call to this(...) or super(...) from within a constructor.
+    DataFlowNode instance = n.getExpression().map(expr -> handleNode(graph, method, state, expr, owner).orElse(null)).orElse(null);
+    return handleCall(graph, method, state, n, n.getArguments(), instance, owner);
+  }
 
+  /**
+   * Creates a {@link NodeCall} for a call to a method or constructor and connects the arguments to it.
+   *
+   * @return The return node of the {@link NodeCall}, empty if the called method does not return anything or the call could not be resolved.
+   */
+  private Optional<DataFlowNode> handleCall(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node n, NodeList<Expression> arguments,
+      DataFlowNode instance, OwnedNode<?> owner) {
     // Create the nodeCall
     Optional<NodeCall> optionalCalledMethod = nodeCallFactory.create(owner, n, instance);
     if (!optionalCalledMethod.isPresent()) {
@@ -149,11 +589,10 @@ public class MethodNodeHandler {
     NodeCall calledMethod = optionalCalledMethod.get();
 
     // Handle input to call.
-    NodeList<Expression> arguments = n.getArguments();
     List<Optional<DataFlowNode>> optionalInputArguments =
-        arguments.stream().map(arg -> handleNode(graph, method, overriddenValues, arg, calledMethod)).collect(Collectors.toList());
+        arguments.stream().map(arg -> handleNode(graph, method, state, arg, calledMethod)).collect(Collectors.toList());
     if (optionalInputArguments.stream().filter(o -> !o.isPresent()).findAny().isPresent()) {
-      LOG.warn("Could not resolve all input arguments for methodCall {} in method {} with input parameters {}", n.getNameAsString(), method.getName(),
+      LOG.warn("Could not resolve all input arguments for methodCall {} in method {} with input parameters {}", calledMethod.getName(), method.getName(),
           optionalInputArguments);
       return Optional.empty();
     }
@@ -176,29 +615,32 @@ public class MethodNodeHandler {
     return calledMethod.getReturnNode();
   }
 
-  private Optional<DataFlowNode> handleBlockStmt(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, BlockStmt node,
-      OwnedNode<?> owner) {
-    for (Node n : node.getChildNodes()) {
-      handleNode(graph, method, overriddenValues, n, owner);
-    }
-    return Optional.empty();
+  private Optional<DataFlowNode> handleBlockStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, BlockStmt node, OwnedNode<?> owner) {
+    return inScope(state, () -> {
+      for (Node n : node.getChildNodes()) {
+        handleNode(graph, method, state, n, owner);
+      }
+      return Optional.empty();
+    });
   }
 
-  private Optional<DataFlowNode> handleReturnStmt(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, ReturnStmt n,
-      OwnedNode<?> owner) {
+  private Optional<DataFlowNode> handleReturnStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, ReturnStmt n, OwnedNode<?> owner) {
     DataFlowNode createdReturn = null;
     if (n.getExpression().isPresent()) {
       Expression expression = n.getExpression().get();
-      Optional<DataFlowNode> assignToReturn = handleNode(graph, method, overriddenValues, expression, owner);
+      Optional<DataFlowNode> assignToReturn = handleNode(graph, method, state, expression, owner);
 
       if (assignToReturn.isPresent()) {
         // TODO remove setting weird custom names later.
-        String name = method.getName() + "_return_" + n.getBegin().map(t -> "line" + t.line + "_col" + t.column).orElse("?");
+        String name = method.getName() + "_return_" + position(n);
         createdReturn = dfnFactory.create(n, owner);
         createdReturn.setName(name);
         assignToReturn.get().addEdgeTo(createdReturn);
         method.addNode(createdReturn);
-        if (method.getReturnNode().isPresent()) {
+        Optional<LambdaExpr> lambda = getEnclosingLambda(method, n);
+        if (lambda.isPresent()) {
+          createdReturn.addEdgeTo(method.getNode(lambda.get()));
+        } else if (method.getReturnNode().isPresent()) {
           createdReturn.addEdgeTo(method.getReturnNode().get());
         } else {
           throw new DataFlowException("Expected the method %s for which the return statement %s is handled to already have a return node", method, n);
@@ -211,38 +653,34 @@ public class MethodNodeHandler {
     return Optional.ofNullable(createdReturn);
   }
 
-  private Optional<DataFlowNode> handleNameExpr(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, NameExpr n,
-      OwnedNode<?> owner) {
+  private Optional<DataFlowNode> handleNameExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, NameExpr n, OwnedNode<?> owner) {
     DataFlowNode newDfn = dfnFactory.create(n, owner);
-    Optional<DataFlowNode> origin = getDataFlowNode(graph, method, overriddenValues, n);
+    Optional<DataFlowNode> origin = getDataFlowNode(graph, method, state, n);
     origin.ifPresent(ori -> ori.addEdgeTo(newDfn));
     method.addNode(newDfn);
     return Optional.of(newDfn);
   }
 
-  private Optional<DataFlowNode> handleFieldAccessExpr(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, FieldAccessExpr n,
-      OwnedNode<?> owner) {
+  private Optional<DataFlowNode> handleFieldAccessExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, FieldAccessExpr n, OwnedNode<?> owner) {
     DataFlowNode newDfn = dfnFactory.create(n, owner);
-    Optional<DataFlowNode> origin = getDataFlowNode(graph, method, overriddenValues, n);
+    Optional<DataFlowNode> origin = getDataFlowNode(graph, method, state, n);
     origin.ifPresent(ori -> ori.addEdgeTo(newDfn));
     method.addNode(newDfn);
     return Optional.of(newDfn);
   }
 
-  private Optional<DataFlowNode> handleExpressionStmt(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, ExpressionStmt n,
-      OwnedNode<?> owner) {
+  private Optional<DataFlowNode> handleExpressionStmt(DataFlowGraph graph, DataFlowMethod method, VariableState state, ExpressionStmt n, OwnedNode<?> owner) {
     for (Node c : n.getChildNodes()) {
-      handleNode(graph, method, overriddenValues, c, owner);
+      handleNode(graph, method, state, c, owner);
     }
     return Optional.empty();
   }
 
-  private Optional<DataFlowNode> handleAssignExpr(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, AssignExpr expr,
-      OwnedNode<?> owner) {
+  private Optional<DataFlowNode> handleAssignExpr(DataFlowGraph graph, DataFlowMethod method, VariableState state, AssignExpr expr, OwnedNode<?> owner) {
     Expression assignedJP = expr.getTarget();
     Expression assignerJP = expr.getValue();
-    Optional<Node> optionalRealAssignedJP = parserUtil.getJavaParserNode(method, assignedJP);
-    Optional<DataFlowNode> assignerDF = handleNode(graph, method, overriddenValues, assignerJP, owner);
+    Optional<Node> optionalRealAssignedJP = resolveDeclaration(graph, method, state, assignedJP);
+    Optional<DataFlowNode> assignerDF = handleNode(graph, method, state, assignerJP, owner);
 
     if (!optionalRealAssignedJP.isPresent() || !assignerDF.isPresent()) {
       // Logging is already done in the method call.
@@ -255,27 +693,28 @@ public class MethodNodeHandler {
 
     Node realAssignedJP = optionalRealAssignedJP.get();
     DataFlowNode flowNode = dfnFactory.create(expr, method);
-    String name = nameForInBetweenNode(method, overriddenValues, realAssignedJP, (NodeWithSimpleName<?>) assignedJP);
-    flowNode.setName(name);
+    flowNode.setName(state.nameForNextVersion(method, realAssignedJP, ((NodeWithSimpleName<?>) assignedJP).getNameAsString()));
     method.addNode(flowNode);
-    if (isField(realAssignedJP)) {
-      // This is the version of the field that will receive the assigner edge.
-      // If this is the last assignment to the field, an edge to the original field will be created.
-      overriddenValues.put(realAssignedJP, flowNode);
+    if (expr.getOperator() != AssignExpr.Operator.ASSIGN) {
+      // For compound assignments like a += b, the previous version also influences the new version.
+      getDataFlowNode(graph, method, state, assignedJP).ifPresent(previous -> previous.addEdgeTo(flowNode));
     }
+    // This is the version of the variable that will be read until it is assigned again.
+    // If this is the last assignment to a field, an edge to the original field will be created after handling the method.
+    state.assign(realAssignedJP, flowNode);
 
     assignerDF.get().addEdgeTo(flowNode);
     return Optional.of(flowNode);
   }
 
-  private Optional<DataFlowNode> getDataFlowNode(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overwriddenValues, Node node) {
-    Optional<Node> optionalResolvedNode = parserUtil.getJavaParserNode(method, node);
+  private Optional<DataFlowNode> getDataFlowNode(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node node) {
+    Optional<Node> optionalResolvedNode = resolveDeclaration(graph, method, state, node);
     DataFlowNode flowNode = null;
     if (optionalResolvedNode.isPresent()) {
       Node resolvedNode = optionalResolvedNode.get();
-      flowNode = getLastFlowNode(graph, method, overwriddenValues, resolvedNode);
+      flowNode = getLastFlowNode(graph, method, state, resolvedNode);
       flowNode = (flowNode != null || !(resolvedNode instanceof VariableDeclarationExpr)) ? flowNode
-          : ((VariableDeclarationExpr) resolvedNode).getVariables().stream().map(child -> getLastFlowNode(graph, method, overwriddenValues, child))
+          : ((VariableDeclarationExpr) resolvedNode).getVariables().stream().map(child -> getLastFlowNode(graph, method, state, child))
               .filter(n -> n != null).findFirst().orElse(null);
     }
     if (flowNode == null) {
@@ -285,35 +724,151 @@ public class MethodNodeHandler {
     return Optional.ofNullable(flowNode);
   }
 
-  private DataFlowNode getLastFlowNode(DataFlowGraph graph, DataFlowMethod method, Map<Node, DataFlowNode> overwriddenValues, Node resolvedNode) {
-    DataFlowNode flowNode = overwriddenValues.get(resolvedNode);
-    flowNode = flowNode != null ? flowNode : method.getNode(resolvedNode);
-    flowNode = flowNode != null ? flowNode : graph.getNode(resolvedNode);
-    return flowNode;
+  /**
+   * Finds the {@link Node} declaring the variable that is read or assigned by the given node. Names of local variables and parameters are found via the
+   * {@link LexicalScope}, since they always hide fields with the same name. With {@link ResolutionMode#SYNTACTIC} fields of the class itself are found on their
+   * name. All other nodes are resolved via the symbol solver.
+   *
+   * @return The declaring node, empty if it could not be resolved.
+   */
+  private Optional<Node> resolveDeclaration(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node node) {
+    Optional<Node> declaration = Optional.empty();
+    if (node instanceof NameExpr) {
+      String name = ((NameExpr) node).getNameAsString();
+      declaration = state.getScope().resolve(name);
+      if (!declaration.isPresent() && resolutionMode == ResolutionMode.SYNTACTIC) {
+        declaration = getField(graph, name);
+      }
+    } else if (node instanceof FieldAccessExpr && resolutionMode == ResolutionMode.SYNTACTIC && isUnqualifiedThis(((FieldAccessExpr) node).getScope())) {
+      declaration = getField(graph, ((FieldAccessExpr) node).getNameAsString());
+    }
+    return declaration.isPresent() ? declaration : resolveWithSymbolSolver(graph, method, node);
   }
 
-  private String nameForInBetweenNode(DataFlowMethod method, Map<Node, DataFlowNode> overriddenValues, Node realAssignedJP,
-      NodeWithSimpleName<?> nodeWithName) {
-    String namePostFix = "";
-    if (overriddenValues.containsKey(realAssignedJP)) {
-      DataFlowNode overridden = overriddenValues.get(realAssignedJP);
-      String stringNumber = overridden.getName().substring(overridden.getName().lastIndexOf("."));
-      namePostFix = StringUtils.isNumeric(stringNumber) ? "." + (new Integer(stringNumber) + 1) : ".2";
+  private Optional<Node> resolveWithSymbolSolver(DataFlowGraph graph, DataFlowMethod method, Node node) {
+    Object resolved = parserUtil.resolve(method, node);
+    if (resolved instanceof ResolvedFieldDeclaration) {
+      addFieldDependency(graph, node, (ResolvedFieldDeclaration) resolved);
     }
+    return parserUtil.getJavaParserNode(method, node, resolved);
+  }
 
-    // Make the name unique for multiple assignments to the same variable
-    return method.getName() + "." + nodeWithName.getNameAsString() + namePostFix;
+  /**
+   * Registers a field declared in another compilation unit as a dependency of the graph, so that the graph is created again when the field is removed, see
+   * {@link DataFlowGraph#getDependencies()}.
+   */
+  private void addFieldDependency(DataFlowGraph graph, Node usage, ResolvedFieldDeclaration field) {
+    if (field instanceof JavaParserFieldDeclaration
+        && ((JavaParserFieldDeclaration) field).getWrappedNode().findCompilationUnit().orElse(null) == usage.findCompilationUnit().orElse(null)) {
+      return;
+    }
+    try {
+      graph.addDependency(field.declaringType().getQualifiedName(), ParserUtil.fieldSignature(field.getName(), field.getType().describe()));
+    } catch (RuntimeException e) {
+      LOG.warn("In graph {}, could not register the dependency on field {}: {}", graph.getName(), field.getName(), e.getMessage());
+    }
+  }
+
+  /**
+   * @return The declaration of the field with the given name within the class represented by the graph, fields of super classes or outer classes are not
+   *         taken into account since they could be hidden.
+   */
+  private Optional<Node> getField(DataFlowGraph graph, String name) {
+    return graph.getFields().stream().filter(f -> name.equals(f.getName())).map(DataFlowNode::getRepresentedNode).filter(Objects::nonNull).findFirst();
+  }
+
+  private boolean isUnqualifiedThis(Expression expression) {
+    return expression instanceof ThisExpr && !((ThisExpr) expression).getTypeName().isPresent();
+  }
+
+  private void declare(VariableState state, NodeWithSimpleName<?> declaration) {
+    state.getScope().declare(declaration.getNameAsString(), (Node) declaration);
+  }
+
+  /**
+   * Handles the given supplier within a new {@link LexicalScope}, so that the variables declared within it are not visible after it.
+   */
+  private Optional<DataFlowNode> inScope(VariableState state, Supplier<Optional<DataFlowNode>> handle) {
+    state.getScope().enter();
+    try {
+      return handle.get();
+    } finally {
+      state.getScope().exit();
+    }
+  }
+
+  private DataFlowNode getLastFlowNode(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node resolvedNode) {
+    DataFlowNode flowNode = state.getCurrent(resolvedNode).orElse(null);
+    return flowNode != null ? flowNode : getOriginal(graph, method, resolvedNode);
+  }
+
+  /**
+   * @return The {@link DataFlowNode} representing the declaration of a variable, for instance the parameter or field.
+   */
+  private DataFlowNode getOriginal(DataFlowGraph graph, DataFlowMethod method, Node declaration) {
+    DataFlowNode flowNode = method.getNode(declaration);
+    return flowNode != null ? flowNode : graph.getNodeInScope(declaration);
   }
 
-  private boolean isField(Node representedNode) {
-    boolean isField = false;
-    if (representedNode instanceof VariableDeclarator) {
-      VariableDeclarator vd = (VariableDeclarator) representedNode;
-      if (vd.getParentNode().isPresent() && vd.getParentNode().get() instanceof FieldDeclaration) {
-        isField = true;
+  private void merge(DataFlowGraph graph, DataFlowMethod method, VariableState state, Node join, List<VariableState> paths) {
+    if (!paths.isEmpty()) {
+      // If none of the paths reaches the join, the code after it is unreachable and the state is left as is.
+      state.merge(method, join, paths, d -> getOriginal(graph, method, d));
+    }
+  }
+
+  /**
+   * @return False if the statement ends with a jump, in which case the state at its end does not reach the next statement. The states at break and continue
+   *         statements are merged where the jump arrives instead.
+   */
+  private boolean completesNormally(Statement stmt) {
+    Statement last = lastStatement(stmt);
+    return !(last instanceof ReturnStmt || last instanceof ThrowStmt || last instanceof BreakStmt || last instanceof ContinueStmt);
+  }
+
+  private Statement lastStatement(Statement stmt) {
+    Statement last = stmt;
+    while (last instanceof BlockStmt && !((BlockStmt) last).getStatements().isEmpty()) {
+      NodeList<Statement> statements = ((BlockStmt) last).getStatements();
+      last = statements.get(statements.size() - 1);
+    }
+    return last;
+  }
+
+  /**
+   * @return True if the node is one of the given roots or a descendant of it. Stops searching at the given boundary.
+   */
+  private boolean isWithin(Node node, List<Node> roots, Node boundary) {
+    for (Node current = node; current != null && current != boundary; current = current.getParentNode().orElse(null)) {
+      for (Node root : roots) {
+        if (current == root) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private Optional<LambdaExpr> getEnclosingLambda(DataFlowMethod method, Node node) {
+    for (Node current = node.getParentNode().orElse(null); current != null && current != method.getRepresentedNode(); current =
+        current.getParentNode().orElse(null)) {
+      if (current instanceof LambdaExpr) {
+        return Optional.of((LambdaExpr) current);
       }
     }
-    return isField;
+    return Optional.empty();
+  }
+
+  private String position(Node n) {
+    return n.getBegin().map(t -> "line" + t.line + "_col" + t.column).orElse("?");
+  }
+
+  /**
+   * Handles a specific type of {@link Node}, see {@link MethodNodeHandler#handleNode(DataFlowGraph, DataFlowMethod, VariableState, Node, OwnedNode)}.
+   */
+  @FunctionalInterface
+  private interface Handler<T extends Node> {
+    Optional<DataFlowNode> handle(DataFlowGraph graph, DataFlowMethod method, VariableState state, T n, OwnedNode<?> owner);
   }
 
 }
@@ -24,6 +24,9 @@ import org.slf4j.LoggerFactory;
 
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.stmt.ExplicitConstructorInvocationStmt;
+import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedMethodLikeDeclaration;
 import com.github.javaparser.resolution.types.ResolvedPrimitiveType;
@@ -51,11 +54,12 @@ public class NodeCallFactory {
    * Creates a {@link NodeCall}.
    *
    * @param owner The direct {@link OwnerNode} for the {@link NodeCall} to be created.
-   * @param node The {@link MethodCallExpr} that will be represented by the created {@link NodeCall}.
+   * @param node The {@link MethodCallExpr}, {@link ObjectCreationExpr} or {@link ExplicitConstructorInvocationStmt} that will be represented by the created
+   *          {@link NodeCall}.
    * @param instance The {@link DataFlowNode} on which the call was executed.
    * @return created {@link NodeCall}.
    */
-  public Optional<NodeCall> create(OwnedNode<?> owner, MethodCallExpr node, DataFlowNode instance) {
+  public Optional<NodeCall> create(OwnedNode<?> owner, Node node, DataFlowNode instance) {
     Object resolved = parserUtil.resolve(owner, node);
 
     NodeCall resolvedMethod = null;
@@ -67,14 +71,14 @@ public class NodeCallFactory {
     return Optional.ofNullable(resolvedMethod);
   }
 
-  private NodeCall createMethodCall(OwnedNode<?> owner, ResolvedMethodLikeDeclaration resolved, MethodCallExpr node, DataFlowNode instance) {
+  private NodeCall createMethodCall(OwnedNode<?> owner, ResolvedMethodLikeDeclaration resolved, Node node, DataFlowNode instance) {
     NodeCall methodCall = NodeCall.builder().name(resolved.getName()).claz(resolved.getClassName()).peckage(resolved.getPackageName()).owner(owner)
         .representedNode(node).instance(instance).build();
     setReturn(methodCall, owner, node, resolved);
     return methodCall;
   }
 
-  private void setReturn(NodeCall methodCall, OwnedNode<?> method, MethodCallExpr node, ResolvedMethodLikeDeclaration rmd) {
+  private void setReturn(NodeCall methodCall, OwnedNode<?> method, Node node, ResolvedMethodLikeDeclaration rmd) {
     if (rmd instanceof ResolvedMethodDeclaration) {
       ResolvedType returnType = ((ResolvedMethodDeclaration) rmd).getReturnType();
       if (!returnType.isVoid()) {
@@ -82,7 +86,12 @@ public class NodeCallFactory {
             DataFlowNode.builder().name("nodeCall_" + methodCall.getName() + "_return").representedNode(node).type(getType(returnType)).build();
         methodCall.setReturnNode(returnNode);
       }
-    } else {
+    } else if (rmd instanceof ResolvedConstructorDeclaration && node instanceof ObjectCreationExpr) {
+      // The return node represents the created object.
+      DataFlowNode returnNode =
+          DataFlowNode.builder().name("nodeCall_" + methodCall.getName() + "_return").representedNode(node).type(rmd.getClassName()).build();
+      methodCall.setReturnNode(returnNode);
+    } else if (!(node instanceof ExplicitConstructorInvocationStmt)) {
       LOG.warn("Not supported to create return node in NodeCall from resolved node of type {} in method {}", rmd.getClass(), method.getName());
     }
   }
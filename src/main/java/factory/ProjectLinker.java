@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserConstructorDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
+
+import model.CallGraph;
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowProject;
+import model.NodeCall;
+import util.ParserUtil;
+
+/**
+ * Connects {@link NodeCall}s to {@link DataFlowMethod}s of other {@link DataFlowGraph}s within the same {@link DataFlowProject}. The
+ * {@link DataFlowGraphFactory} only connects calls to methods within the same compilation unit, calls to other classes are left unresolved with the package
+ * and class of the called method, see {@link CallGraph#getUnresolvedClasses()}. This class connects those calls once the called class is part of the project,
+ * and disconnects them again when the called class is removed or replaced, for instance after it was parsed again.
+ * <p>
+ * Connected calls are registered in the {@link CallGraph} of both the calling and the called graph.
+ * <p>
+ * A call is connected to the method with the same name and number of parameters. If there are multiple such methods, the call is resolved via the symbol
+ * solver and connected to the method with the same signature.
+ *
+ * @author Daan
+ */
+public class ProjectLinker {
+  private static final Logger LOG = LoggerFactory.getLogger(ProjectLinker.class);
+
+  private ParserUtil parserUtil = new ParserUtil();
+
+  /**
+   * Connects all unresolved calls within the project to the methods of the graphs within the project. Each connected call adds the called graph to the
+   * {@link DataFlowGraph#getDependedGraphs()} of the calling graph.
+   *
+   * @param project The {@link DataFlowProject}.
+   * @return The graphs, including inner graphs, for which at least one call was connected.
+   */
+  public List<DataFlowGraph> link(DataFlowProject project) {
+    Map<String, DataFlowGraph> graphs = index(project.getGraphs());
+    List<DataFlowGraph> linked = new ArrayList<>();
+    for (DataFlowGraph graph : graphs.values()) {
+      boolean changed = false;
+      for (DataFlowMethod method : getAllMethods(graph)) {
+        for (NodeCall call : method.getNodeCalls()) {
+          if (!call.getCalledMethod().isPresent() && link(graphs, method, call)) {
+            DataFlowGraph called = call.getCalledMethod().get().getGraph();
+            graph.addDependedGraph(called);
+            if (called != graph) {
+              called.getCallGraph().addCall(method, call);
+            }
+            changed = true;
+          }
+        }
+      }
+      if (changed) {
+        rebuildCallGraph(graph);
+        linked.add(graph);
+      }
+    }
+    return linked;
+  }
+
+  /**
+   * Disconnects all calls from graphs within the project to methods of the given graphs, so that they can be connected again with
+   * {@link #link(DataFlowProject)} after the given graphs are replaced. The given graphs are also removed from the {@link DataFlowGraph#getDependedGraphs()}.
+   * All calls from the given graphs themselves are disconnected as well, so that the methods they called do not keep edges to the removed graphs.
+   *
+   * @param project The {@link DataFlowProject}.
+   * @param removed The removed or replaced graphs, their inner graphs are also disconnected.
+   * @return The graphs, including inner graphs, for which at least one call was disconnected.
+   */
+  public List<DataFlowGraph> unlink(DataFlowProject project, Collection<DataFlowGraph> removed) {
+    Set<DataFlowGraph> removedGraphs = Collections.newSetFromMap(new IdentityHashMap<>());
+    removedGraphs.addAll(index(removed).values());
+    List<DataFlowGraph> unlinked = new ArrayList<>();
+    for (DataFlowGraph graph : index(project.getGraphs()).values()) {
+      if (removedGraphs.contains(graph)) {
+        continue;
+      }
+      boolean changed = false;
+      for (DataFlowMethod method : getAllMethods(graph)) {
+        for (NodeCall call : method.getNodeCalls()) {
+          if (call.getCalledMethod().isPresent() && removedGraphs.contains(call.getCalledMethod().get().getGraph())) {
+            call.clearCalledMethod();
+            changed = true;
+          }
+        }
+      }
+      if (graph.getDependedGraphs().values().removeIf(removedGraphs::contains) || changed) {
+        rebuildCallGraph(graph);
+        unlinked.add(graph);
+      }
+    }
+    // The graphs called from the removed graphs, which need to drop those calls from their call graph.
+    Set<DataFlowGraph> called = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (DataFlowGraph graph : removedGraphs) {
+      for (DataFlowMethod method : getAllMethods(graph)) {
+        method.getNodeCalls().stream().map(NodeCall::getCalledMethod).filter(Optional::isPresent).map(m -> m.get().getGraph()).forEach(called::add);
+        method.getNodeCalls().forEach(NodeCall::clearCalledMethod);
+      }
+      graph.getDependedGraphs().clear();
+      rebuildCallGraph(graph);
+    }
+    called.stream().filter(g -> !removedGraphs.contains(g)).forEach(this::rebuildCallGraph);
+    return unlinked;
+  }
+
+  private boolean link(Map<String, DataFlowGraph> graphs, DataFlowMethod method, NodeCall call) {
+    String peckage = call.getPeckage();
+    DataFlowGraph called = graphs.get(peckage == null || peckage.isEmpty() ? call.getClaz() : peckage + "." + call.getClaz());
+    if (called == null || !call.getIn().isPresent()) {
+      return false;
+    }
+    int arguments = call.getIn().get().nofNodes();
+    List<DataFlowMethod> candidates = getAllMethods(called).stream().filter(m -> m.getName().equals(call.getName()))
+        .filter(m -> m.getParameters() != null && m.getParameters().nofNodes() == arguments).collect(Collectors.toList());
+    DataFlowMethod calledMethod = candidates.size() == 1 ? candidates.get(0) : null;
+    if (candidates.size() > 1) {
+      calledMethod = resolveDeclaration(method, call.getRepresentedNode()).map(called::getMethod).orElse(null);
+      if (calledMethod == null) {
+        LOG.warn("In method {}, could not choose between {} methods named {} in {}", method.getName(), candidates.size(), call.getName(),
+            called.getQualifiedName());
+      }
+    }
+    if (calledMethod != null) {
+      call.setCalledMethod(calledMethod);
+    }
+    return calledMethod != null;
+  }
+
+  private Optional<Node> resolveDeclaration(DataFlowMethod method, Node node) {
+    Object resolved = node == null ? null : parserUtil.resolve(method, node);
+    Node declaration = null;
+    if (resolved instanceof JavaParserMethodDeclaration) {
+      declaration = ((JavaParserMethodDeclaration) resolved).getWrappedNode();
+    } else if (resolved instanceof JavaParserConstructorDeclaration) {
+      declaration = ((JavaParserConstructorDeclaration<?>) resolved).getWrappedNode();
+    }
+    return Optional.ofNullable(declaration);
+  }
+
+  private void rebuildCallGraph(DataFlowGraph graph) {
+    CallGraph callGraph = new CallGraph();
+    for (DataFlowMethod method : getAllMethods(graph)) {
+      method.getNodeCalls().forEach(call -> callGraph.addCall(method, call));
+    }
+    // Keep the calls from other graphs that are still connected to this graph.
+    graph.getCallGraph().getResolvedCalls().forEach((call, caller) -> {
+      if (caller.getGraph() != graph && call.getCalledMethod().filter(m -> m.getGraph() == graph).isPresent()) {
+        callGraph.addCall(caller, call);
+      }
+    });
+    graph.setCallGraph(callGraph);
+  }
+
+  private List<DataFlowMethod> getAllMethods(DataFlowGraph graph) {
+    return Stream.of(graph.getConstructors(), graph.getMethods(), graph.getInitializers()).flatMap(Collection::stream).collect(Collectors.toList());
+  }
+
+  /**
+   * @return The given graphs and all their inner graphs, keyed on their qualified name.
+   */
+  private Map<String, DataFlowGraph> index(Collection<DataFlowGraph> graphs) {
+    Map<String, DataFlowGraph> index = new HashMap<>();
+    Deque<DataFlowGraph> toVisit = new ArrayDeque<>(graphs);
+    while (!toVisit.isEmpty()) {
+      DataFlowGraph graph = toVisit.pop();
+      index.put(graph.getQualifiedName(), graph);
+      toVisit.addAll(graph.getInnerGraphs());
+    }
+    return index;
+  }
+
+}
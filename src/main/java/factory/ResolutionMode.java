@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+
+/**
+ * Determines how the {@link MethodNodeHandler} finds the declaration of a variable that is read or assigned within a method. In all modes local variables and
+ * parameters are resolved via the {@link LexicalScope} of the method and method calls via the {@link JavaSymbolSolver}, the modes differ in how fields are
+ * found.
+ *
+ * @author Daan
+ */
+public enum ResolutionMode {
+  /** Fields and all other names that are not declared within the method are resolved via the {@link JavaSymbolSolver}. */
+  DEFAULT,
+  /**
+   * Fields declared within the class itself are resolved on their name via the fields of the graph, the {@link JavaSymbolSolver} is only used for other
+   * names, for instance inherited fields or fields of outer classes. This is faster when the code is only parsed and the data flow within methods is all that
+   * is needed.
+   */
+  SYNTACTIC
+}
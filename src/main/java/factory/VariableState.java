@@ -0,0 +1,384 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
+
+import model.DataFlowEdge;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+
+/**
+ * Keeps track of the versions of variables while handling the body of a single method, in the style of static single assignment. Each assignment to a local
+ * variable, parameter or field creates a new version of that variable, identified by an increasing version number. Reading the variable should always be done
+ * from the current version. Where multiple control flow paths join, {@link #merge(DataFlowMethod, Node, List, Function)} creates a single merge node (phi node)
+ * for each variable that has a different version on the incoming paths. Loops are connected back to their start with
+ * {@link #mergeLoop(DataFlowMethod, Node, VariableState, Function, Predicate, boolean, List)}. The states at break and continue statements are collected per
+ * targeted statement, so that they can be merged where the jump arrives, see {@link #addBreak(Node)} and {@link #addContinue(Node)}.
+ * <p>
+ * Variables are identified by the {@link Node} declaring them, for instance the {@link com.github.javaparser.ast.body.VariableDeclarator} of a field.
+ *
+ * @author Daan
+ */
+public class VariableState {
+
+  /** The version counters per variable, shared between all copies of a state so that every version within a method gets a unique number. */
+  private final Counters counters;
+  /** The current version per variable for the control flow path represented by this state. */
+  private final Map<Node, DataFlowNode> current;
+  /** The variables visible at the node that is currently handled, shared between all copies since it follows the nesting of the code, not the paths. */
+  private final LexicalScope scope;
+  /** The states at jump statements, shared between all copies since a jump can be made from any path within the targeted statement. */
+  private final Jumps jumps;
+
+  public VariableState() {
+    this.counters = new Counters();
+    this.current = new IdentityHashMap<>();
+    this.scope = new LexicalScope();
+    this.jumps = new Jumps();
+  }
+
+  private VariableState(VariableState other) {
+    this.counters = other.counters;
+    this.current = new IdentityHashMap<>(other.current);
+    this.scope = other.scope;
+    this.jumps = other.jumps;
+  }
+
+  /**
+   * @return The {@link LexicalScope} of the method, shared with all copies of this state.
+   */
+  public LexicalScope getScope() {
+    return scope;
+  }
+
+  /**
+   * @param declaration The {@link Node} declaring the variable.
+   * @return The {@link DataFlowNode} representing the current version of the variable, empty if it was not assigned within the method yet.
+   */
+  public Optional<DataFlowNode> getCurrent(Node declaration) {
+    return Optional.ofNullable(current.get(declaration));
+  }
+
+  /**
+   * @param declaration The {@link Node} declaring the variable.
+   * @return The version number of the last assignment to the variable within the method, 0 if it was not assigned yet.
+   */
+  public int getVersion(Node declaration) {
+    Counter counter = counters.get(declaration);
+    return counter == null ? 0 : counter.version;
+  }
+
+  /**
+   * Creates a name for the next version of the given variable, without incrementing the version.
+   *
+   * @param method The method in which the variable is assigned.
+   * @param declaration The {@link Node} declaring the variable.
+   * @param variableName The name of the variable.
+   * @return The name for the next version, the first version will have no postfix, later versions will have a postfix with the version number.
+   */
+  public String nameForNextVersion(DataFlowMethod method, Node declaration, String variableName) {
+    int version = getVersion(declaration) + 1;
+    return method.getName() + "." + variableName + (version > 1 ? "." + version : "");
+  }
+
+  /**
+   * Registers the given {@link DataFlowNode} as the next version of the variable.
+   *
+   * @param declaration The {@link Node} declaring the variable.
+   * @param node The {@link DataFlowNode} representing the new version.
+   * @return The version number of the new version.
+   */
+  public int assign(Node declaration, DataFlowNode node) {
+    current.put(declaration, node);
+    counters.assignedDeclarations.add(declaration);
+    counters.assignedVersions.add(node);
+    return counters.increment(declaration);
+  }
+
+  /**
+   * @return The number of assignments within the method so far, on all paths. Can be used with
+   *         {@link #mergeAssignedSince(DataFlowMethod, Node, VariableState, int, Predicate, Function)}.
+   */
+  public int getAssignmentCount() {
+    return counters.assignedVersions.size();
+  }
+
+  /**
+   * Registers a copy of this state as leaving the given statement via a break statement.
+   *
+   * @param target The statement that is left, for instance a loop or switch statement.
+   */
+  public void addBreak(Node target) {
+    jumps.breaks.computeIfAbsent(target, t -> new ArrayList<>()).add(copy());
+  }
+
+  /**
+   * Registers a copy of this state as continuing with the next iteration of the given loop.
+   *
+   * @param loop The loop statement.
+   */
+  public void addContinue(Node loop) {
+    jumps.continues.computeIfAbsent(loop, t -> new ArrayList<>()).add(copy());
+  }
+
+  /**
+   * @param target The statement targeted by break statements.
+   * @return The states registered via {@link #addBreak(Node)} for the given statement, which are removed from this state.
+   */
+  public List<VariableState> takeBreaks(Node target) {
+    List<VariableState> states = jumps.breaks.remove(target);
+    return states == null ? new ArrayList<>() : states;
+  }
+
+  /**
+   * @param loop The loop statement targeted by continue statements.
+   * @return The states registered via {@link #addContinue(Node)} for the given loop, which are removed from this state.
+   */
+  public List<VariableState> takeContinues(Node loop) {
+    List<VariableState> states = jumps.continues.remove(loop);
+    return states == null ? new ArrayList<>() : states;
+  }
+
+  /**
+   * @return A copy of this state that can be used for handling a separate control flow path. Version numbers are shared with this state.
+   */
+  public VariableState copy() {
+    return new VariableState(this);
+  }
+
+  /**
+   * Merges the states of the given control flow paths into this state. For each variable for which not all paths have the same version, a merge node is
+   * created with an incoming edge from the version of each path. The merge node is added to the method and becomes the current version of this state.
+   *
+   * @param method The {@link DataFlowMethod} in which the paths join.
+   * @param join The {@link Node} at which the paths join, for instance an if statement. This will be the represented node of the created merge nodes.
+   * @param paths The states at the end of each incoming path, typically copies of this state.
+   * @param original Function returning the node of a variable that was not assigned yet within the method, for instance the field or parameter node.
+   * @return The created merge nodes.
+   */
+  public List<DataFlowNode> merge(DataFlowMethod method, Node join, List<VariableState> paths, Function<Node, DataFlowNode> original) {
+    List<DataFlowNode> created = new ArrayList<>();
+    for (Node declaration : assignedDeclarations(paths)) {
+      List<DataFlowNode> incoming = new ArrayList<>();
+      for (VariableState path : paths) {
+        DataFlowNode assigned = path.current.get(declaration);
+        DataFlowNode node = assigned != null ? assigned : original.apply(declaration);
+        if (node != null && incoming.stream().noneMatch(n -> n == node)) {
+          incoming.add(node);
+        }
+      }
+      if (incoming.size() == 1) {
+        current.put(declaration, incoming.get(0));
+      } else if (incoming.size() > 1) {
+        String name = nameForNextVersion(method, declaration, nameOf(declaration));
+        DataFlowNode merged = DataFlowNode.builder().name(name).representedNode(join).owner(method).build();
+        incoming.forEach(n -> n.addEdgeTo(merged));
+        method.addMergeNode(merged);
+        assign(declaration, merged);
+        created.add(merged);
+      }
+    }
+    return created;
+  }
+
+  /**
+   * Merges every version of a variable that was assigned since the given assignment count into this state, together with the version before that. This is
+   * needed where the code can continue from any point within a block, for instance in a catch clause that can be reached from every statement within the try
+   * block. A merge node is created for each variable with more than one such version.
+   *
+   * @param method The {@link DataFlowMethod} containing the block.
+   * @param join The {@link Node} at which the versions join, this will be the represented node of the created merge nodes.
+   * @param entry A copy of this state from before the block.
+   * @param assignmentCount The result of {@link #getAssignmentCount()} before the block.
+   * @param visible Predicate returning true for the declarations that are visible at the join, variables declared within the block are not merged.
+   * @param original Function returning the node of a variable that was not assigned yet within the method, for instance the field or parameter node.
+   * @return The created merge nodes.
+   */
+  public List<DataFlowNode> mergeAssignedSince(DataFlowMethod method, Node join, VariableState entry, int assignmentCount, Predicate<Node> visible,
+      Function<Node, DataFlowNode> original) {
+    Map<Node, List<DataFlowNode>> versions = new IdentityHashMap<>();
+    List<Node> declarations = new ArrayList<>();
+    int end = counters.assignedVersions.size();
+    for (int i = assignmentCount; i < end; i++) {
+      Node declaration = counters.assignedDeclarations.get(i);
+      if (!visible.test(declaration)) {
+        continue;
+      }
+      List<DataFlowNode> incoming = versions.get(declaration);
+      if (incoming == null) {
+        incoming = new ArrayList<>();
+        DataFlowNode before = entry.current.containsKey(declaration) ? entry.current.get(declaration) : original.apply(declaration);
+        if (before != null) {
+          incoming.add(before);
+        }
+        versions.put(declaration, incoming);
+        declarations.add(declaration);
+      }
+      DataFlowNode version = counters.assignedVersions.get(i);
+      if (incoming.stream().noneMatch(n -> n == version)) {
+        incoming.add(version);
+      }
+    }
+    List<DataFlowNode> created = new ArrayList<>();
+    for (Node declaration : declarations) {
+      List<DataFlowNode> incoming = versions.get(declaration);
+      if (incoming.size() == 1) {
+        current.put(declaration, incoming.get(0));
+      } else {
+        String name = nameForNextVersion(method, declaration, nameOf(declaration));
+        DataFlowNode merged = DataFlowNode.builder().name(name).representedNode(join).owner(method).build();
+        incoming.forEach(n -> n.addEdgeTo(merged));
+        method.addMergeNode(merged);
+        assign(declaration, merged);
+        created.add(merged);
+      }
+    }
+    return created;
+  }
+
+  /**
+   * Connects the end of a loop to the start of the loop. This should be called on the state that was used to handle the loop once. For each variable that was
+   * declared before the loop and assigned within it, a merge node is created with an incoming edge from the version before the loop and from the version at
+   * the end of the loop. All usages within the loop of the version before the loop are redirected to the merge node. This gives the same graph as repeatedly
+   * handling the loop until no versions change anymore, without creating the nodes within the loop more than once.
+   *
+   * @param method The {@link DataFlowMethod} containing the loop.
+   * @param loop The loop statement, this will be the represented node of the created merge nodes.
+   * @param entry A copy of this state from before handling the loop.
+   * @param original Function returning the node of a variable that was not assigned yet within the method, for instance the field or parameter node.
+   * @param inLoop Predicate returning true if the given {@link Node} is part of the loop body or condition.
+   * @param exitFromStart True if the loop is exited from the merge node, as for a while loop. False if it is exited from the end of the body, as for a
+   *          do-while loop.
+   * @param exits The states at which the loop is left from within the body, for instance via break statements. Their versions from before the loop are
+   *          replaced by the merge node, since within the loop the variable can have the version of any iteration.
+   * @return The created merge nodes.
+   */
+  public List<DataFlowNode> mergeLoop(DataFlowMethod method, Node loop, VariableState entry, Function<Node, DataFlowNode> original, Predicate<Node> inLoop,
+      boolean exitFromStart, List<VariableState> exits) {
+    List<DataFlowNode> created = new ArrayList<>();
+    for (Node declaration : new ArrayList<>(counters.order)) {
+      DataFlowNode last = current.get(declaration);
+      DataFlowNode assignedBefore = entry.current.get(declaration);
+      DataFlowNode before = assignedBefore != null ? assignedBefore : original.apply(declaration);
+      if (last == null || before == null || last == before || inLoop.test(declaration)) {
+        continue;
+      }
+      String name = nameForNextVersion(method, declaration, nameOf(declaration));
+      DataFlowNode merged = DataFlowNode.builder().name(name).representedNode(loop).owner(method).build();
+      for (Iterator<DataFlowEdge> it = before.getOut().iterator(); it.hasNext();) {
+        DataFlowEdge edge = it.next();
+        Node usage = edge.getTo().getRepresentedNode();
+        if (usage != null && inLoop.test(usage)) {
+          it.remove();
+          edge.setFrom(merged);
+          merged.getOut().add(edge);
+        }
+      }
+      before.addEdgeTo(merged);
+      last.addEdgeTo(merged);
+      method.addMergeNode(merged);
+      for (VariableState exit : exits) {
+        DataFlowNode exitVersion = exit.current.get(declaration);
+        if (exitVersion == null ? assignedBefore == null : exitVersion == before) {
+          exit.current.put(declaration, merged);
+        }
+      }
+      if (exitFromStart) {
+        assign(declaration, merged);
+      } else {
+        counters.increment(declaration);
+      }
+      created.add(merged);
+    }
+    return created;
+  }
+
+  /**
+   * @return The last version of each variable that was assigned within this method, in the order of the first assignment.
+   */
+  public Map<Node, DataFlowNode> getAssigned() {
+    Map<Node, DataFlowNode> assigned = new LinkedHashMap<>();
+    for (Node declaration : counters.order) {
+      DataFlowNode node = current.get(declaration);
+      if (node != null) {
+        assigned.put(declaration, node);
+      }
+    }
+    return assigned;
+  }
+
+  private List<Node> assignedDeclarations(List<VariableState> paths) {
+    List<Node> declarations = new ArrayList<>();
+    for (Node declaration : counters.order) {
+      if (paths.stream().anyMatch(p -> p.current.containsKey(declaration))) {
+        declarations.add(declaration);
+      }
+    }
+    return declarations;
+  }
+
+  private String nameOf(Node declaration) {
+    return declaration instanceof NodeWithSimpleName ? ((NodeWithSimpleName<?>) declaration).getNameAsString() : declaration.toString();
+  }
+
+  /** Version counters for all variables within a method, together with the order in which they where first assigned. */
+  private static final class Counters {
+    private final Map<Node, Counter> counters = new IdentityHashMap<>();
+    private final List<Node> order = new ArrayList<>();
+    /** All assignments within the method in the order in which they were handled, the declarations and versions at the same index belong together. */
+    private final List<Node> assignedDeclarations = new ArrayList<>();
+    private final List<DataFlowNode> assignedVersions = new ArrayList<>();
+
+    private Counter get(Node declaration) {
+      return counters.get(declaration);
+    }
+
+    private int increment(Node declaration) {
+      Counter counter = counters.get(declaration);
+      if (counter == null) {
+        counter = new Counter();
+        counters.put(declaration, counter);
+        order.add(declaration);
+      }
+      return ++counter.version;
+    }
+  }
+
+  /** The states at break and continue statements per targeted statement, that were not merged yet. */
+  private static final class Jumps {
+    private final Map<Node, List<VariableState>> breaks = new IdentityHashMap<>();
+    private final Map<Node, List<VariableState>> continues = new IdentityHashMap<>();
+  }
+
+  private static final class Counter {
+    private int version;
+  }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Index of the calls between {@link DataFlowMethod}s, derived from the {@link NodeCall}s within those methods. Contains both the forward (callee) and reverse
+ * (caller) direction so that both can be queried in time proportional to the size of the answer. Calls for which the called method is not known, for instance
+ * because it is defined in a class that was not parsed, are grouped on the class and package of the called method.
+ * <p>
+ * The {@link CallGraph} of a {@link DataFlowGraph} contains the calls from the methods of that graph and the calls from other graphs to the methods of that
+ * graph, including inner and anonymous classes and, once linked, other classes of the project. To find the callers of a method, query the {@link CallGraph} of
+ * the graph declaring the method. The transitive queries only follow the calls registered within this {@link CallGraph}.
+ *
+ * @author Daan
+ */
+public class CallGraph {
+
+  /** The methods called from the key method. */
+  private final Map<DataFlowMethod, Set<DataFlowMethod>> callees = new IdentityHashMap<>();
+  /** The methods calling the key method. */
+  private final Map<DataFlowMethod, Set<DataFlowMethod>> callers = new IdentityHashMap<>();
+  /** The {@link NodeCall}s done to the key method. */
+  private final Map<DataFlowMethod, List<NodeCall>> callsTo = new IdentityHashMap<>();
+  /** The methods in which the key {@link NodeCall}s with a known called method are done. */
+  private final Map<NodeCall, DataFlowMethod> resolvedCalls = new IdentityHashMap<>();
+  /** The {@link NodeCall}s for which the called method is not known, the keys are the package and class name concatenated with a dot. */
+  private final Map<String, List<NodeCall>> unresolvedCallsByClass = new HashMap<>();
+  /** The {@link NodeCall}s for which the called method is not known, the keys are the package of the called method. */
+  private final Map<String, List<NodeCall>> unresolvedCallsByPackage = new HashMap<>();
+
+  /**
+   * Registers a call from the given caller. If {@link NodeCall#getCalledMethod()} is present it will be registered as a call between the two methods,
+   * otherwise as an unresolved call.
+   *
+   * @param caller The {@link DataFlowMethod} in which the call is done.
+   * @param call The {@link NodeCall}.
+   */
+  public void addCall(DataFlowMethod caller, NodeCall call) {
+    if (call.getCalledMethod().isPresent()) {
+      DataFlowMethod callee = call.getCalledMethod().get();
+      callees.computeIfAbsent(caller, m -> identitySet()).add(callee);
+      callers.computeIfAbsent(callee, m -> identitySet()).add(caller);
+      callsTo.computeIfAbsent(callee, m -> new ArrayList<>()).add(call);
+      resolvedCalls.put(call, caller);
+    } else {
+      unresolvedCallsByClass.computeIfAbsent(call.getPeckage() + "." + call.getClaz(), k -> new ArrayList<>()).add(call);
+      unresolvedCallsByPackage.computeIfAbsent(call.getPeckage(), k -> new ArrayList<>()).add(call);
+    }
+  }
+
+  /**
+   * @param method The calling {@link DataFlowMethod}
+   * @return The methods directly called from the given method.
+   */
+  public List<DataFlowMethod> getCallees(DataFlowMethod method) {
+    return toList(callees.get(method));
+  }
+
+  /**
+   * @param method The called {@link DataFlowMethod}
+   * @return The methods that directly call the given method.
+   */
+  public List<DataFlowMethod> getCallers(DataFlowMethod method) {
+    return toList(callers.get(method));
+  }
+
+  /**
+   * @param method The called {@link DataFlowMethod}
+   * @return All {@link NodeCall}s to the given method.
+   */
+  public List<NodeCall> getCallsTo(DataFlowMethod method) {
+    return unmodifiable(callsTo.get(method));
+  }
+
+  /**
+   * @return An unmodifiable view on all {@link NodeCall}s connected to a {@link DataFlowMethod}, the values are the methods in which the calls are done.
+   */
+  public Map<NodeCall, DataFlowMethod> getResolvedCalls() {
+    return Collections.unmodifiableMap(resolvedCalls);
+  }
+
+  /**
+   * @param qualifiedClassName The package and class name concatenated with a dot.
+   * @return All {@link NodeCall}s to methods of the given class that are not connected to a {@link DataFlowMethod}.
+   */
+  public List<NodeCall> getUnresolvedCallsToClass(String qualifiedClassName) {
+    return unmodifiable(unresolvedCallsByClass.get(qualifiedClassName));
+  }
+
+  /**
+   * @param peckage The package of the called class.
+   * @return All {@link NodeCall}s to methods of classes in the given package that are not connected to a {@link DataFlowMethod}.
+   */
+  public List<NodeCall> getUnresolvedCallsToPackage(String peckage) {
+    return unmodifiable(unresolvedCallsByPackage.get(peckage));
+  }
+
+  /**
+   * @return The package and class names of all classes with methods that where called but not connected to a {@link DataFlowMethod}.
+   */
+  public Set<String> getUnresolvedClasses() {
+    return Collections.unmodifiableSet(unresolvedCallsByClass.keySet());
+  }
+
+  /**
+   * @param method The start {@link DataFlowMethod}
+   * @return All methods that can be reached via one or more calls from the given method, not including the method itself unless it is recursive.
+   */
+  public List<DataFlowMethod> getTransitiveCallees(DataFlowMethod method) {
+    return reach(method, callees::get);
+  }
+
+  /**
+   * @param method The start {@link DataFlowMethod}
+   * @return All methods from which the given method can be reached via one or more calls, not including the method itself unless it is recursive.
+   */
+  public List<DataFlowMethod> getTransitiveCallers(DataFlowMethod method) {
+    return reach(method, callers::get);
+  }
+
+  private List<DataFlowMethod> reach(DataFlowMethod start, Function<DataFlowMethod, Set<DataFlowMethod>> next) {
+    Set<DataFlowMethod> visited = identitySet();
+    List<DataFlowMethod> result = new ArrayList<>();
+    Deque<DataFlowMethod> toVisit = new ArrayDeque<>();
+    toVisit.push(start);
+    while (!toVisit.isEmpty()) {
+      Set<DataFlowMethod> adjacent = next.apply(toVisit.pop());
+      if (adjacent != null) {
+        for (DataFlowMethod m : adjacent) {
+          if (visited.add(m)) {
+            result.add(m);
+            toVisit.push(m);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Set<DataFlowMethod> identitySet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  private static List<DataFlowMethod> toList(Set<DataFlowMethod> methods) {
+    return methods == null ? Collections.emptyList() : new ArrayList<>(methods);
+  }
+
+  private static List<NodeCall> unmodifiable(List<NodeCall> calls) {
+    return calls == null ? Collections.emptyList() : Collections.unmodifiableList(calls);
+  }
+
+}
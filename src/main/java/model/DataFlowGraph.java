@@ -20,23 +20,35 @@ package model;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+
+import util.Direction;
+import util.ParserUtil;
 
 /**
  * Graph representing the data flow within a single class. The {@link DataFlowNode}s represent variables. An {@link DataFlowEdge} goes from node a to b iff a
- * influences the state of b. Conditional statements are not supported in the current implementation.
+ * influences the state of b. Where control flow paths join, for instance after an if statement or at the start of a loop, a merge node receives the versions
+ * of a variable from all incoming paths, see {@link DataFlowMethod#getMergeNodes()}. Classes defined within the represented class, including local and
+ * anonymous classes, are represented by the inner graphs of this graph.
  *
  * @author Daan
  */
-public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
+public class DataFlowGraph extends OwnerNode<Node> {
 
   /** The package of the class that this {@link DataFlowGraph} represents. */
   private String classPackage;
@@ -44,19 +56,43 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
   private List<DataFlowNode> fields = new ArrayList<>();
   /** This Constructors within the represented class */
   private List<DataFlowMethod> constructors = new ArrayList<>();
-  /** This Methods within the represented class */
-  private Map<Node, DataFlowMethod> methods = new HashMap<>();
+  /** This Methods within the represented class, keyed on the represented node. */
+  private Map<Node, DataFlowMethod> methods = new IdentityHashMap<>();
+  /**
+   * The methods keyed on their signature, for finding a method via a declaration that is equal to, but not the same instance as, the represented node. For
+   * instance when the declaration was parsed again by the symbol solver.
+   */
+  private Map<String, DataFlowMethod> methodsBySignature = new HashMap<>();
+  /** The initializer blocks and field initializers within the represented class, in the order in which they are defined. */
+  private List<DataFlowMethod> initializers = new ArrayList<>();
   /**
    * All nodes defined within the class: fields and method/constructor parameters and return values. Does not contain method/constructor in-between variables.
    */
-  private Map<Node, DataFlowNode> nodes = new HashMap<>();
+  private Map<Node, DataFlowNode> nodes = new IdentityHashMap<>();
   /**
    * List containing all external DataFlowGraphs that this {@link DataFlowGraph} depends on. The contained dfg's are not complete graphs they only contain the
    * signatures of methods called from this class. The keys are the package and class name concatenated with a dot.
    */
   private Map<String, DataFlowGraph> dependedGraphs = new HashMap<>();
+  /**
+   * The declarations of other classes that this graph was resolved against while it was created, also for classes that where not parsed. The keys are the
+   * package and class name concatenated with a dot, the values are the signatures of the used methods, constructors and fields, see
+   * {@link ParserUtil#signature(CallableDeclaration)} and {@link ParserUtil#fieldSignature(String, String)}.
+   */
+  private Map<String, Set<String>> dependencies = new HashMap<>();
   /** In case that this {@link DataFlowGraph} represents an inner class, the owner graph represents the class outer class. */
   private DataFlowGraph ownerGraph;
+  /** The graphs representing nested, local and anonymous classes defined within the represented class. */
+  private List<DataFlowGraph> innerGraphs = new ArrayList<>();
+  /**
+   * The calls from the methods of this graph, also to methods outside of this graph, and the calls from other graphs to the methods of this graph. Filled when
+   * connecting the methods, see {@link CallGraph}.
+   */
+  private CallGraph callGraph = new CallGraph();
+  /** The project this graph is part of, can be null if this graph was created on its own. */
+  private DataFlowProject project;
+  /** Lazily created index over this graph, will be null if it needs to be rebuild. */
+  private GraphQuery query;
 
   public DataFlowGraph() {
     // empty constructor which would otherwise be invisible due to the constructor receiving the builder.
@@ -68,10 +104,14 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
     this.fields.clear();
     this.addFields(builder.fields);
     this.constructors.clear();
-    this.constructors.addAll(builder.constructors);
-    this.methods = builder.methods == null ? this.methods : builder.methods;
-    this.nodes = builder.nodes == null ? this.nodes : builder.nodes;
+    builder.constructors.forEach(this::addConstructor);
+    builder.initializers.forEach(this::addInitializer);
+    if (builder.methods != null) {
+      builder.methods.forEach(this::putMethod);
+    }
+    this.nodes = builder.nodes == null ? this.nodes : new IdentityHashMap<>(builder.nodes);
     this.dependedGraphs = builder.dependedGraphs == null ? this.dependedGraphs : builder.dependedGraphs;
+    builder.innerGraphs.forEach(this::addInnerGraph);
   }
 
   public List<DataFlowNode> getFields() {
@@ -80,6 +120,7 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
 
   public void setFields(List<DataFlowNode> fields) {
     this.fields = fields;
+    invalidateQuery();
   }
 
   public List<DataFlowMethod> getConstructors() {
@@ -88,18 +129,39 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
 
   public void setConstructors(List<DataFlowMethod> constructors) {
     this.constructors = constructors;
+    invalidateQuery();
+  }
+
+  public void addConstructor(DataFlowMethod constructor) {
+    this.constructors.add(constructor);
+    constructor.setGraph(this);
+    invalidateQuery();
+  }
+
+  public List<DataFlowMethod> getInitializers() {
+    return initializers;
+  }
+
+  public void addInitializer(DataFlowMethod initializer) {
+    this.initializers.add(initializer);
+    initializer.setGraph(this);
+    invalidateQuery();
   }
 
   public Collection<DataFlowMethod> getMethods() {
     return methods.values();
   }
 
+  /**
+   * @return An unmodifiable view on the methods keyed on their represented node, use {@link #addMethod(DataFlowMethod)} to add methods.
+   */
   public Map<Node, DataFlowMethod> getMethodMap() {
-    return this.methods;
+    return Collections.unmodifiableMap(this.methods);
   }
 
   public void setMethods(List<DataFlowMethod> methods) {
     this.methods.clear();
+    this.methodsBySignature.clear();
     methods.forEach(this::addMethod);
   }
 
@@ -107,12 +169,43 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
     if (method.getRepresentedNode() == null) {
       throw new NullPointerException("The representedNode may not be null, this risks overriding existing methods.");
     }
-    this.methods.put(method.getRepresentedNode(), method);
+    putMethod(method.getRepresentedNode(), method);
+    invalidateQuery();
+  }
+
+  private void putMethod(Node node, DataFlowMethod method) {
+    this.methods.put(node, method);
+    if (node instanceof CallableDeclaration) {
+      this.methodsBySignature.put(signature((CallableDeclaration<?>) node), method);
+    }
     method.setGraph(this);
   }
 
+  private String signature(CallableDeclaration<?> declaration) {
+    return declaration.getSignature().asString();
+  }
+
+  /**
+   * Gets the method representing the given node. Constructors and initializers are also returned if they represent the given node. Methods and constructors
+   * are also found via an equal declaration with the same signature, for instance one that the symbol solver parsed separately.
+   *
+   * @param node The represented {@link Node}
+   * @return The {@link DataFlowMethod} or null if it does not exist.
+   */
   public DataFlowMethod getMethod(Node node) {
-    return methods.get(node);
+    DataFlowMethod method = methods.get(node);
+    if (method == null && node instanceof MethodDeclaration) {
+      method = methodsBySignature.get(signature((CallableDeclaration<?>) node));
+    }
+    if (method == null) {
+      method = Stream.concat(constructors.stream(), initializers.stream()).filter(m -> m.getRepresentedNode() == node).findFirst().orElse(null);
+    }
+    if (method == null && node instanceof ConstructorDeclaration) {
+      String signature = signature((CallableDeclaration<?>) node);
+      method = constructors.stream().filter(c -> c.getRepresentedNode() instanceof ConstructorDeclaration)
+          .filter(c -> signature.equals(signature((CallableDeclaration<?>) c.getRepresentedNode()))).findFirst().orElse(null);
+    }
+    return method;
   }
 
   public final void addField(DataFlowNode node) {
@@ -122,6 +215,7 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
     }
     this.nodes.put(node.getRepresentedNode(), node);
     node.setOwner(this);
+    invalidateQuery();
   }
 
   public final void addFields(DataFlowNode... fields) {
@@ -138,12 +232,28 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
 
   public void addNode(DataFlowNode node) {
     this.nodes.put(node.getRepresentedNode(), node);
+    invalidateQuery();
   }
 
   public DataFlowNode getNode(Node node) {
     return nodes.get(node);
   }
 
+  /**
+   * Gets the node from this graph, or if it does not exist from the owner graphs. This can be used to find the fields of an outer class from within an inner
+   * class.
+   *
+   * @param node The represented {@link Node}
+   * @return The {@link DataFlowNode} or null if it was not found.
+   */
+  public DataFlowNode getNodeInScope(Node node) {
+    DataFlowNode found = null;
+    for (DataFlowGraph graph = this; graph != null && found == null; graph = graph.ownerGraph) {
+      found = graph.getNode(node);
+    }
+    return found;
+  }
+
   public Map<Node, DataFlowNode> getNodes() {
     return this.nodes;
   }
@@ -161,7 +271,61 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
   }
 
   public void addDependedGraph(DataFlowGraph graph) {
-    this.dependedGraphs.put(graph.getClassPackage() + "." + graph.getName(), graph);
+    this.dependedGraphs.put(graph.getQualifiedName(), graph);
+  }
+
+  /**
+   * @return The declarations of other classes this graph depends on, see {@link DataFlowProject#getInvalidatedGraphs(Collection, Collection)}.
+   */
+  public Map<String, Set<String>> getDependencies() {
+    return Collections.unmodifiableMap(dependencies);
+  }
+
+  /**
+   * @param qualifiedClassName The package and class name concatenated with a dot.
+   * @param signature The signature of the method, constructor or field within the given class that this graph was resolved against, see
+   *          {@link ParserUtil#signature(CallableDeclaration)} and {@link ParserUtil#fieldSignature(String, String)}.
+   */
+  public void addDependency(String qualifiedClassName, String signature) {
+    this.dependencies.computeIfAbsent(qualifiedClassName, k -> new HashSet<>()).add(signature);
+  }
+
+  /**
+   * @return The signatures of the methods, constructors and fields declared directly within this graph, in the same form as the values of
+   *         {@link #getDependencies()}.
+   */
+  public Set<String> getDeclarations() {
+    Set<String> declarations = Stream.concat(constructors.stream(), methods.values().stream()).map(DataFlowMethod::getRepresentedNode)
+        .filter(CallableDeclaration.class::isInstance).map(n -> ParserUtil.signature((CallableDeclaration<?>) n)).collect(Collectors.toSet());
+    fields.stream().filter(f -> f.getRepresentedNode() instanceof VariableDeclarator)
+        .map(f -> ParserUtil.fieldSignature(f.getName(), ((VariableDeclarator) f.getRepresentedNode()).getType().asString())).forEach(declarations::add);
+    return declarations;
+  }
+
+  public Optional<DataFlowGraph> getOwnerGraph() {
+    return Optional.ofNullable(ownerGraph);
+  }
+
+  public void setOwnerGraph(DataFlowGraph ownerGraph) {
+    this.ownerGraph = ownerGraph;
+  }
+
+  public List<DataFlowGraph> getInnerGraphs() {
+    return innerGraphs;
+  }
+
+  public void addInnerGraph(DataFlowGraph graph) {
+    this.innerGraphs.add(graph);
+    graph.setOwnerGraph(this);
+    invalidateQuery();
+  }
+
+  public CallGraph getCallGraph() {
+    return callGraph;
+  }
+
+  public void setCallGraph(CallGraph callGraph) {
+    this.callGraph = callGraph;
   }
 
   public String getClassPackage() {
@@ -172,6 +336,51 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
     this.classPackage = classPackage;
   }
 
+  /**
+   * @return The package and class name concatenated with a dot, or only the class name if the package is unknown. For inner graphs the name is appended to
+   *         the qualified name of the owner graph.
+   */
+  public String getQualifiedName() {
+    if (ownerGraph != null) {
+      return ownerGraph.getQualifiedName() + "." + getName();
+    }
+    return classPackage == null ? getName() : classPackage + "." + getName();
+  }
+
+  public Optional<DataFlowProject> getProject() {
+    return Optional.ofNullable(project);
+  }
+
+  void setProject(DataFlowProject project) {
+    this.project = project;
+  }
+
+  /**
+   * Returns the index for querying this graph by name, type or kind. The index is only created on the first call after this graph has been modified.
+   *
+   * @return {@link GraphQuery}
+   */
+  public GraphQuery query() {
+    if (query == null) {
+      query = new GraphQuery(Collections.singletonList(this));
+    }
+    return query;
+  }
+
+  /**
+   * Resets the index returned by {@link #query()}, this is done automatically when adding methods, fields or nodes. Only needs to be called after modifying
+   * the lists returned by the getters of this graph directly.
+   */
+  public void invalidateQuery() {
+    this.query = null;
+    if (ownerGraph != null) {
+      ownerGraph.invalidateQuery();
+    }
+    if (project != null) {
+      project.invalidateQuery();
+    }
+  }
+
   @Override
   public Optional<OwnedNode<?>> getOwner() {
     return Optional.ofNullable(this.ownerGraph);
@@ -180,7 +389,7 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
   @Override
   Collection<OwnerNode<?>> getOwnedOwners() {
     // streaming and collecting needed for casting.
-    return this.methods.values().stream().collect(Collectors.toList());
+    return Stream.of(this.methods.values(), this.constructors, this.initializers, this.innerGraphs).flatMap(Collection::stream).collect(Collectors.toList());
   }
 
   @Override
@@ -194,9 +403,11 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
 
     sb.append(super.toString());
     sb.append("fields{");
-    fields.forEach(f -> sb.append("\n->").append(f.toStringForward(1)));
+    Set<DataFlowNode> forward = Collections.newSetFromMap(new IdentityHashMap<>());
+    fields.forEach(f -> f.appendTree(sb.append("\n->"), Direction.FORWARD, 1, forward));
     sb.append("\n");
-    fields.forEach(f -> sb.append("\n<-").append(f.toStringBackward(1)));
+    Set<DataFlowNode> backward = Collections.newSetFromMap(new IdentityHashMap<>());
+    fields.forEach(f -> f.appendTree(sb.append("\n<-"), Direction.BACKWARD, 1, backward));
     sb.append("\n}\n");
 
     sb.append("methods{\n");
@@ -219,13 +430,15 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
   /**
    * Builder to build {@link DataFlowGraph}.
    */
-  public static final class Builder extends NodeRepresenter.Builder<ClassOrInterfaceDeclaration, DataFlowGraph.Builder> {
+  public static final class Builder extends NodeRepresenter.Builder<Node, DataFlowGraph.Builder> {
     private String classPackage;
     private List<DataFlowNode> fields = new ArrayList<>();
     private List<DataFlowMethod> constructors = new ArrayList<>();
-    private Map<Node, DataFlowMethod> methods = new HashMap<>();
+    private List<DataFlowMethod> initializers = new ArrayList<>();
+    private Map<Node, DataFlowMethod> methods = new IdentityHashMap<>();
     private Map<Node, DataFlowNode> nodes;
     private Map<String, DataFlowGraph> dependedGraphs;
+    private List<DataFlowGraph> innerGraphs = new ArrayList<>();
 
     private Builder() {
       // Builder should only be constructed via the parent class
@@ -254,6 +467,12 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
       return this;
     }
 
+    public Builder initializers(DataFlowMethod... initializers) {
+      this.initializers.clear();
+      this.initializers.addAll(Arrays.asList(initializers));
+      return this;
+    }
+
     public Builder methods(Map<Node, DataFlowMethod> methods) {
       this.methods = methods;
       return this;
@@ -274,6 +493,12 @@ public class DataFlowGraph extends OwnerNode<ClassOrInterfaceDeclaration> {
       return this;
     }
 
+    public Builder innerGraphs(DataFlowGraph... innerGraphs) {
+      this.innerGraphs.clear();
+      this.innerGraphs.addAll(Arrays.asList(innerGraphs));
+      return this;
+    }
+
     public DataFlowGraph build() {
       return new DataFlowGraph(this);
     }
@@ -21,7 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -33,22 +33,27 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 
 import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.body.CallableDeclaration;
 
-import util.HashCodeWrapper;
+import util.Direction;
 
 /**
- * DataFlow class representing a method inside a {@link DataFlowGraph}.
+ * DataFlow class representing a method inside a {@link DataFlowGraph}. Constructors, initializer blocks and the initializers of fields are also represented by
+ * a {@link DataFlowMethod}.
  *
  * @author Daan
  */
-public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
+public class DataFlowMethod extends OwnerNode<Node> {
 
   // TODO the idea is to not have one list of nodes in DFM containing everything, but to let other owners like NodeCall, ParameterList and later "FlowBlock"
   // (representing BlockStatement) have a list of nodes of their own. Then recursively get all owned nodes of a specific OwnedNode via this method.
 
   /** All nodes defined within this method. This method should be an (indirect) owner for each of these nodes. */
-  private Map<HashCodeWrapper<Node>, DataFlowNode> nodes = new HashMap<>();
+  private Map<Node, DataFlowNode> nodes = new IdentityHashMap<>();
+  /**
+   * Nodes merging the versions of a variable from multiple control flow paths (phi nodes). They represent the statement at which the paths join, since
+   * multiple variables can be merged at the same statement they are not part of {@link #nodes}.
+   */
+  private List<DataFlowNode> mergeNodes = new ArrayList<>();
   /** The graph which this method is part of. This is the owner of this method. */
   private DataFlowGraph graph;
   /**
@@ -60,6 +65,9 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   private ParameterList inputParameters;
   /** The calls to other methods or constructors done from within this method. These can be either to methods in the same class or different classes. */
   private List<NodeCall> nodeCalls = new ArrayList<>();
+  /** Cached dominator trees, created on first request and reset when this method is modified. */
+  private DominatorTree dominatorTree;
+  private DominatorTree postDominatorTree;
 
   /** The fields of the class that are read inside this method */
   // TODO Should probably be removed since it's a derivative
@@ -68,11 +76,11 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   // TODO Should probably be removed since it's a derivative
   private List<DataFlowNode> changedFields = new ArrayList<>();
 
-  public DataFlowMethod(String name, CallableDeclaration<?> representedNode) {
+  public DataFlowMethod(String name, Node representedNode) {
     super(name, representedNode);
   }
 
-  public DataFlowMethod(DataFlowGraph graph, CallableDeclaration<?> node, String name) {
+  public DataFlowMethod(DataFlowGraph graph, Node node, String name) {
     this(name, node);
     this.graph = graph;
     graph.addMethod(this);
@@ -151,7 +159,24 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   }
 
   public Collection<DataFlowNode> getNodes() {
-    return nodes.values();
+    Collection<DataFlowNode> all = nodes.values();
+    if (!mergeNodes.isEmpty()) {
+      all = new ArrayList<>(all);
+      all.addAll(mergeNodes);
+    }
+    return all;
+  }
+
+  public List<DataFlowNode> getMergeNodes() {
+    return mergeNodes;
+  }
+
+  public void addMergeNode(DataFlowNode node) {
+    this.mergeNodes.add(node);
+    invalidateDominators();
+    if (graph != null) {
+      graph.invalidateQuery();
+    }
   }
 
   public final void addNodes(List<DataFlowNode> nodes) {
@@ -159,11 +184,50 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   }
 
   public final void addNode(DataFlowNode created) {
-    this.nodes.put(new HashCodeWrapper<>(created.getRepresentedNode()), created);
+    this.nodes.put(created.getRepresentedNode(), created);
+    invalidateDominators();
+    if (graph != null) {
+      graph.invalidateQuery();
+    }
+  }
+
+  /**
+   * Returns the dominator tree of the nodes in this method, following the direction of the data flow. The tree is only created on the first call after this
+   * method has been modified.
+   *
+   * @return {@link DominatorTree}
+   */
+  public DominatorTree getDominatorTree() {
+    if (dominatorTree == null) {
+      dominatorTree = new DominatorTree(this, Direction.FORWARD);
+    }
+    return dominatorTree;
+  }
+
+  /**
+   * Returns the post dominator tree of the nodes in this method, the dominator tree following the data flow backwards. The tree is only created on the first
+   * call after this method has been modified.
+   *
+   * @return {@link DominatorTree}
+   */
+  public DominatorTree getPostDominatorTree() {
+    if (postDominatorTree == null) {
+      postDominatorTree = new DominatorTree(this, Direction.BACKWARD);
+    }
+    return postDominatorTree;
+  }
+
+  /**
+   * Resets the trees returned by {@link #getDominatorTree()} and {@link #getPostDominatorTree()}, this is done automatically when adding nodes. Only needs to
+   * be called after adding or removing edges between the nodes of this method.
+   */
+  public void invalidateDominators() {
+    this.dominatorTree = null;
+    this.postDominatorTree = null;
   }
 
   public DataFlowNode getNode(Node node) {
-    return nodes.get(new HashCodeWrapper<>(node));
+    return nodes.get(node);
   }
 
   public void addParameter(DataFlowNode node) {
@@ -194,6 +258,9 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   public void addMethodCall(NodeCall calledMethod) {
     this.nodeCalls.add(calledMethod);
     calledMethod.getIn().map(ParameterList::getNodes).ifPresent(this::addNodes);
+    if (graph != null) {
+      graph.invalidateQuery();
+    }
   }
 
   @Override
@@ -204,7 +271,7 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
 
   @Override
   public Collection<DataFlowNode> getDirectOwnedNodes() {
-    return this.nodes.values();
+    return getNodes();
   }
 
   public boolean isInputBoundary(DataFlowNode n) {
@@ -232,24 +299,34 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
+    // Shared so that nodes reachable from multiple parameters or fields are only expanded once.
+    Set<DataFlowNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
     sb.append("method " + super.getName() + "{\n");
 
     if (inputParameters != null) {
       sb.append("\tparameters{\n");
       for (DataFlowNode p : inputParameters.getParameters()) {
-        sb.append(p.toStringForward(1, 2) + "\n");
+        sb.append("\t\t");
+        p.appendTree(sb, Direction.FORWARD, 1, visited);
+        sb.append("\n");
       }
       sb.append("\t}\n");
     }
 
     sb.append("\tchangedFields{\n");
     for (DataFlowNode p : changedFields) {
-      sb.append(p.toStringForward(1, 2) + "\n");
+      sb.append("\t\t");
+      p.appendTree(sb, Direction.FORWARD, 1, visited);
+      sb.append("\n");
     }
     sb.append("\t}\n");
 
     sb.append("\tnodes{\n");
-    for (DataFlowNode p : nodes.values()) {
+    for (DataFlowNode p : getNodes()) {
+      if (sb.length() > DataFlowNode.MAX_TO_STRING_LENGTH) {
+        sb.append("\t\t...\n");
+        break;
+      }
       sb.append("\t\t" + p.toString() + "\n");
     }
     sb.append("\t}\n");
@@ -289,7 +366,7 @@ public class DataFlowMethod extends OwnerNode<CallableDeclaration<?>> {
   /**
    * Builder to build {@link DataFlowMethod}.
    */
-  public static class Builder extends NodeRepresenter.Builder<CallableDeclaration<?>, DataFlowMethod.Builder> {
+  public static class Builder extends NodeRepresenter.Builder<Node, DataFlowMethod.Builder> {
     protected ParameterList inputParameters;
     protected List<DataFlowNode> inputFields = new ArrayList<>();
     protected List<DataFlowNode> changedFields = new ArrayList<>();
@@ -19,9 +19,13 @@ package model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -33,6 +37,7 @@ import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
 
+import util.Direction;
 import util.GraphUtil;
 
 /**
@@ -42,6 +47,19 @@ import util.GraphUtil;
  * @author Daan
  */
 public class DataFlowNode extends OwnedNode<Node> {
+  /** The maximum number of edges followed from a single node by {@link #toStringForward(int)} and {@link #toStringBackward(int)}. */
+  static final int MAX_TO_STRING_DEPTH = 10;
+  /** The length after which {@link #toStringForward(int)}, {@link #toStringBackward(int)} and the toString of owners stop adding nodes. */
+  static final int MAX_TO_STRING_LENGTH = 10_000;
+  static final String SEEN_MARKER = " (see above)";
+  static final String TRUNCATED_MARKER = " ...";
+  private static final AtomicLong NEXT_ID = new AtomicLong();
+
+  /**
+   * Unique number of this node within the JVM, for identifying the node in exports and as a cheap hash during graph traversals. It is not part of
+   * {@link #equals(Object)} or {@link #hashCode()}.
+   */
+  private final long id = NEXT_ID.getAndIncrement();
 
   /** The {@link DataFlowEdge}s from {@link DataFlowNode}s that influence the state of this node */
   private List<DataFlowEdge> in = new ArrayList<>();
@@ -84,6 +102,10 @@ public class DataFlowNode extends OwnedNode<Node> {
     this.nodeCall = builder.nodeCall;
   }
 
+  public long getId() {
+    return id;
+  }
+
   public List<DataFlowEdge> getIn() {
     return in;
   }
@@ -106,6 +128,18 @@ public class DataFlowNode extends OwnedNode<Node> {
     to.addIncoming(edge);
   }
 
+  /**
+   * Removes all edges from this node to the given node.
+   *
+   * @param to The {@link DataFlowNode} to disconnect from, compared on identity.
+   * @return True if an edge was removed, false otherwise.
+   */
+  public boolean removeEdgeTo(DataFlowNode to) {
+    boolean removed = this.out.removeIf(edge -> edge.getTo() == to);
+    to.in.removeIf(edge -> edge.getFrom() == this);
+    return removed;
+  }
+
   public String getType() {
     return type;
   }
@@ -200,48 +234,82 @@ public class DataFlowNode extends OwnedNode<Node> {
         .build();
   }
 
+  /**
+   * Renders the nodes influenced by this node as an indented tree, following {@link #getOut()}. Each node is expanded at most once, a node that was already
+   * rendered is marked with {@value #SEEN_MARKER}, so that shared sub graphs and cycles do not blow up the output. The depth and total length of the output
+   * are limited.
+   *
+   * @param tabs The indentation of the nodes after the first.
+   * @return The rendered tree.
+   */
   public String toStringForward(int tabs) {
-    if (tabs > 10) {
-      return "TestDataFlowNode::toStringForward tabs>10";
-    }
     return toStringForward(tabs, 0);
   }
 
+  /**
+   * @see #toStringForward(int)
+   * @param tabs The indentation of the nodes after the first.
+   * @param firstTabs The indentation of the first node.
+   * @return The rendered tree.
+   */
   public String toStringForward(int tabs, int firstTabs) {
-    StringBuilder sb = new StringBuilder();
-    sb.append(tabs(firstTabs) + this.getName());
-    boolean first = true;
-    for (DataFlowEdge e : out) {
-      if (first) {
-        first = false;
-        sb.append("\t-> " + e.getTo().toStringForward(tabs + 1));
-      } else {
-        sb.append("\n" + tabs(firstTabs + tabs + 3) + "-> " + e.getTo().toStringForward(tabs + 1, firstTabs));
-      }
-    }
+    StringBuilder sb = new StringBuilder(tabs(firstTabs));
+    appendTree(sb, Direction.FORWARD, tabs, Collections.newSetFromMap(new IdentityHashMap<>()));
     return sb.toString();
   }
 
+  /**
+   * Renders the nodes influencing this node as an indented tree, following {@link #getIn()}. This has the same limits as {@link #toStringForward(int)}.
+   *
+   * @param tabs The indentation of the nodes after the first.
+   * @return The rendered tree.
+   */
   public String toStringBackward(int tabs) {
-    if (tabs > 10) {
-      return "TestDataFlowNode::toStringForward tabs>10";
-    }
-    return toStringBackward(tabs, 0);
+    StringBuilder sb = new StringBuilder();
+    appendTree(sb, Direction.BACKWARD, tabs, Collections.newSetFromMap(new IdentityHashMap<>()));
+    return sb.toString();
   }
 
-  private String toStringBackward(int tabs, int firstTabs) {
-    StringBuilder sb = new StringBuilder();
+  /**
+   * Appends the tree of nodes reachable from this node to the given {@link StringBuilder}. Nodes in the visited set are not expanded, so that multiple trees
+   * can share a visited set to render each node only once.
+   */
+  void appendTree(StringBuilder sb, Direction direction, int tabs, Set<DataFlowNode> visited) {
+    appendTree(sb, direction, tabs, 0, visited);
+  }
+
+  private void appendTree(StringBuilder sb, Direction direction, int tabs, int depth, Set<DataFlowNode> visited) {
     sb.append(this.getName());
+    List<DataFlowEdge> edges = direction.getEdges(this);
+    if (edges.isEmpty()) {
+      return;
+    }
+    if (visited.contains(this)) {
+      sb.append(SEEN_MARKER);
+      return;
+    }
+    // Only expanded nodes are marked as visited, so that a truncated node is still expanded where it appears at a lower depth.
+    if (depth >= MAX_TO_STRING_DEPTH) {
+      sb.append(TRUNCATED_MARKER);
+      return;
+    }
+    visited.add(this);
+    String arrow = direction == Direction.FORWARD ? "-> " : "<- ";
     boolean first = true;
-    for (DataFlowEdge e : in) {
+    for (DataFlowEdge e : edges) {
+      if (sb.length() > MAX_TO_STRING_LENGTH) {
+        sb.append(TRUNCATED_MARKER);
+        return;
+      }
       if (first) {
         first = false;
-        sb.append("\t<- " + e.getFrom().toStringBackward(tabs + 1));
+        sb.append("\t");
       } else {
-        sb.append("\n" + tabs(tabs + 1) + "<- " + e.getFrom().toStringBackward(tabs + 1, tabs + 1));
+        sb.append("\n").append(tabs(tabs + depth + 1));
       }
+      sb.append(arrow);
+      direction.getNext(e).appendTree(sb, direction, tabs, depth + 1, visited);
     }
-    return sb.toString();
   }
 
   /**
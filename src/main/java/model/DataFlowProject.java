@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The set of {@link DataFlowGraph}s that together form a project. Graphs are stored by their qualified class name.
+ *
+ * @author Daan
+ */
+public class DataFlowProject {
+
+  /** The graphs within this project, the keys are the package and class name concatenated with a dot. */
+  private Map<String, DataFlowGraph> graphs = new HashMap<>();
+  /** Lazily created index over all graphs, will be null if it needs to be rebuild. */
+  private GraphQuery query;
+
+  public DataFlowProject() {
+    // empty constructor which would otherwise be invisible due to the constructor receiving the builder.
+  }
+
+  private DataFlowProject(Builder builder) {
+    builder.graphs.forEach(this::addGraph);
+  }
+
+  public Collection<DataFlowGraph> getGraphs() {
+    return graphs.values();
+  }
+
+  public Optional<DataFlowGraph> getGraph(String qualifiedName) {
+    return Optional.ofNullable(graphs.get(qualifiedName));
+  }
+
+  public void addGraph(DataFlowGraph graph) {
+    DataFlowGraph previous = this.graphs.put(graph.getQualifiedName(), graph);
+    if (previous != null && previous != graph) {
+      previous.setProject(null);
+    }
+    graph.setProject(this);
+    invalidateQuery();
+  }
+
+  public Optional<DataFlowGraph> removeGraph(String qualifiedName) {
+    DataFlowGraph removed = this.graphs.remove(qualifiedName);
+    if (removed != null) {
+      removed.setProject(null);
+      invalidateQuery();
+    }
+    return Optional.ofNullable(removed);
+  }
+
+  /**
+   * Determines which graphs within this project need to be created again after the given graphs where replaced, for instance because the file defining them
+   * changed. A graph needs to be created again if it was resolved against a method, constructor or field of a replaced class that was removed or changed, or
+   * if one was added with the same name as one it was resolved against, since that could change which overload a call resolves to. Changing only the return
+   * type of a method or the type of a field also invalidates the graphs using it, since for instance the return node of a call is created from the return
+   * type. Changes within method bodies do not invalidate other graphs. Only graphs directly depending on the replaced classes are returned, the declarations of
+   * those graphs do not change by creating them again. See {@link DataFlowGraph#getDependencies()}.
+   *
+   * @param oldGraphs The replaced graphs, empty for new files, inner graphs are taken into account.
+   * @param newGraphs The graphs replacing them, empty for deleted files.
+   * @return The graphs within this project, other than the old graphs, that need to be created again.
+   */
+  public List<DataFlowGraph> getInvalidatedGraphs(Collection<DataFlowGraph> oldGraphs, Collection<DataFlowGraph> newGraphs) {
+    Map<String, Set<String>> before = getDeclarations(oldGraphs);
+    Map<String, Set<String>> after = getDeclarations(newGraphs);
+    // Per class, the removed or changed signatures and the names of added methods or constructors.
+    Map<String, Set<String>> removed = new HashMap<>();
+    Map<String, Set<String>> addedNames = new HashMap<>();
+    Set<String> classes = new HashSet<>(before.keySet());
+    classes.addAll(after.keySet());
+    for (String claz : classes) {
+      Set<String> b = before.getOrDefault(claz, Collections.emptySet());
+      Set<String> a = after.getOrDefault(claz, Collections.emptySet());
+      b.stream().filter(s -> !a.contains(s)).forEach(s -> removed.computeIfAbsent(claz, k -> new HashSet<>()).add(s));
+      a.stream().filter(s -> !b.contains(s)).forEach(s -> addedNames.computeIfAbsent(claz, k -> new HashSet<>()).add(nameOf(s)));
+    }
+    Set<DataFlowGraph> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+    oldGraphs.forEach(g -> collectInnerGraphs(g, replaced));
+    return graphs.values().stream().filter(g -> !replaced.contains(g) && isInvalidated(g, removed, addedNames)).collect(Collectors.toList());
+  }
+
+  private boolean isInvalidated(DataFlowGraph graph, Map<String, Set<String>> removed, Map<String, Set<String>> addedNames) {
+    for (Map.Entry<String, Set<String>> dependency : graph.getDependencies().entrySet()) {
+      Set<String> removedSignatures = removed.getOrDefault(dependency.getKey(), Collections.emptySet());
+      Set<String> added = addedNames.getOrDefault(dependency.getKey(), Collections.emptySet());
+      if (dependency.getValue().stream().anyMatch(s -> removedSignatures.contains(s) || added.contains(nameOf(s)))) {
+        return true;
+      }
+    }
+    return graph.getInnerGraphs().stream().anyMatch(inner -> isInvalidated(inner, removed, addedNames));
+  }
+
+  private Map<String, Set<String>> getDeclarations(Collection<DataFlowGraph> graphs) {
+    Set<DataFlowGraph> all = Collections.newSetFromMap(new IdentityHashMap<>());
+    graphs.forEach(g -> collectInnerGraphs(g, all));
+    Map<String, Set<String>> declarations = new HashMap<>();
+    all.forEach(g -> declarations.computeIfAbsent(g.getQualifiedName(), k -> new HashSet<>()).addAll(g.getDeclarations()));
+    return declarations;
+  }
+
+  private void collectInnerGraphs(DataFlowGraph graph, Set<DataFlowGraph> graphs) {
+    graphs.add(graph);
+    graph.getInnerGraphs().forEach(inner -> collectInnerGraphs(inner, graphs));
+  }
+
+  private static String nameOf(String signature) {
+    // The name of a method ends at its parameters, the name of a field at its type.
+    return signature.split("[(:]", 2)[0];
+  }
+
+  /**
+   * Returns the index for querying all graphs within this project. The index is only created on the first call after one of the graphs has been modified.
+   *
+   * @return {@link GraphQuery}
+   */
+  public GraphQuery query() {
+    if (query == null) {
+      query = new GraphQuery(graphs.values());
+    }
+    return query;
+  }
+
+  void invalidateQuery() {
+    this.query = null;
+  }
+
+  /**
+   * Creates builder to build {@link DataFlowProject}.
+   *
+   * @return created builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Builder to build {@link DataFlowProject}.
+   */
+  public static final class Builder {
+    private List<DataFlowGraph> graphs = new ArrayList<>();
+
+    private Builder() {
+      // Builder should only be constructed via the parent class
+    }
+
+    public Builder graphs(List<DataFlowGraph> graphs) {
+      this.graphs.clear();
+      this.graphs.addAll(graphs);
+      return this;
+    }
+
+    public Builder graphs(DataFlowGraph... graphs) {
+      this.graphs.clear();
+      this.graphs.addAll(Arrays.asList(graphs));
+      return this;
+    }
+
+    public DataFlowProject build() {
+      return new DataFlowProject(this);
+    }
+
+  }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import util.Direction;
+
+/**
+ * The dominator tree, or post dominator tree, of the nodes of a {@link DataFlowMethod}. A node a dominates node b if all data flowing into b from the start of
+ * the method flows through a. For post dominators this is the other way around: a post dominates b if all data from b to the end of the method flows through
+ * a. Only nodes and edges within the method are considered. The nodes without input from within the method, like parameters, are all seen as successors of a
+ * single virtual start node, which is not part of the tree. The tree is computed with the algorithm of Cooper, Harvey and Kennedy.
+ * <p>
+ * Use {@link DataFlowMethod#getDominatorTree()} or {@link DataFlowMethod#getPostDominatorTree()} to get an up to date instance. Checking dominance takes
+ * constant time, so that it can be used as scope of a traversal, for instance to skip all nodes dominated by a given node.
+ *
+ * @author Daan
+ */
+public class DominatorTree {
+
+  private final List<DataFlowNode> nodes;
+  private final Map<DataFlowNode, Integer> index = new IdentityHashMap<>();
+  /** The immediate dominator per node index, -1 if only the virtual start node dominates it. */
+  private final int[] idom;
+  private final List<List<DataFlowNode>> children = new ArrayList<>();
+  /** Pre order and post order numbers of the nodes within the tree, to check dominance in constant time. */
+  private final int[] pre;
+  private final int[] post;
+
+  DominatorTree(DataFlowMethod method, Direction direction) {
+    this.nodes = collectNodes(method);
+    for (int i = 0; i < nodes.size(); i++) {
+      index.put(nodes.get(i), i);
+    }
+    int n = nodes.size();
+    int[][] predecessors = new int[n][];
+    int[][] successors = new int[n][];
+    for (int i = 0; i < n; i++) {
+      predecessors[i] = neighbours(nodes.get(i), direction.reverse());
+      successors[i] = neighbours(nodes.get(i), direction);
+    }
+    this.idom = computeDominators(predecessors, successors);
+    for (int i = 0; i < n; i++) {
+      children.add(new ArrayList<>());
+    }
+    for (int i = 0; i < n; i++) {
+      if (idom[i] >= 0) {
+        children.get(idom[i]).add(nodes.get(i));
+      }
+    }
+    this.pre = new int[n];
+    this.post = new int[n];
+    number();
+  }
+
+  /**
+   * @param node The {@link DataFlowNode} to get the immediate dominator for.
+   * @return The closest node dominating the given node, empty if only the virtual start node dominates it or if the node is not part of the method.
+   */
+  public Optional<DataFlowNode> getImmediateDominator(DataFlowNode node) {
+    Integer i = index.get(node);
+    return i == null || idom[i] < 0 ? Optional.empty() : Optional.of(nodes.get(idom[i]));
+  }
+
+  /**
+   * @param node The {@link DataFlowNode} to get the children for.
+   * @return The nodes for which the given node is the immediate dominator.
+   */
+  public List<DataFlowNode> getChildren(DataFlowNode node) {
+    Integer i = index.get(node);
+    return i == null ? Collections.emptyList() : Collections.unmodifiableList(children.get(i));
+  }
+
+  /**
+   * @param dominator The possible dominator.
+   * @param node The possibly dominated node.
+   * @return True if the first node dominates the second. A node dominates itself.
+   */
+  public boolean dominates(DataFlowNode dominator, DataFlowNode node) {
+    Integer a = index.get(dominator);
+    Integer b = index.get(node);
+    return a != null && b != null && pre[a] <= pre[b] && post[b] <= post[a];
+  }
+
+  private List<DataFlowNode> collectNodes(DataFlowMethod method) {
+    Map<DataFlowNode, Boolean> added = new IdentityHashMap<>();
+    List<DataFlowNode> all = new ArrayList<>();
+    if (method.getParameters() != null) {
+      method.getParameters().getNodes().stream().filter(n -> added.put(n, true) == null).forEach(all::add);
+    }
+    method.getNodes().stream().filter(n -> added.put(n, true) == null).forEach(all::add);
+    method.getReturnNode().filter(n -> added.put(n, true) == null).ifPresent(all::add);
+    return all;
+  }
+
+  private int[] neighbours(DataFlowNode node, Direction direction) {
+    return direction.getEdges(node).stream().map(direction::getNext).map(index::get).filter(i -> i != null).mapToInt(Integer::intValue).distinct().toArray();
+  }
+
+  /**
+   * Computes the immediate dominators by iterating over the nodes in reverse post order until nothing changes. The virtual start node gets index n.
+   */
+  private int[] computeDominators(int[][] predecessors, int[][] successors) {
+    int n = predecessors.length;
+    int start = n;
+    int[] postOrder = new int[n + 1];
+    boolean[] extraRoot = new boolean[n];
+    int[] reversePostOrder = reversePostOrder(predecessors, successors, postOrder, extraRoot);
+
+    int[] dom = new int[n + 1];
+    Arrays.fill(dom, -1);
+    dom[start] = start;
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int b : reversePostOrder) {
+        int newIdom = -1;
+        // Nodes without predecessors, or only reachable via a cycle without entry, are connected to the virtual start node.
+        if (predecessors[b].length == 0 || extraRoot[b]) {
+          newIdom = start;
+        }
+        for (int p : predecessors[b]) {
+          if (dom[p] >= 0) {
+            newIdom = newIdom < 0 ? p : intersect(p, newIdom, dom, postOrder);
+          }
+        }
+        if (newIdom >= 0 && dom[b] != newIdom) {
+          dom[b] = newIdom;
+          changed = true;
+        }
+      }
+    }
+    int[] result = new int[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = dom[i] == start ? -1 : dom[i];
+    }
+    return result;
+  }
+
+  private int intersect(int b1, int b2, int[] dom, int[] postOrder) {
+    while (b1 != b2) {
+      while (postOrder[b1] < postOrder[b2]) {
+        b1 = dom[b1];
+      }
+      while (postOrder[b2] < postOrder[b1]) {
+        b2 = dom[b2];
+      }
+    }
+    return b1;
+  }
+
+  /**
+   * Depth first search from the virtual start node. Nodes that can not be reached from a node without predecessors, because they are part of a cycle without
+   * entry, are added as extra successors of the start node.
+   */
+  private int[] reversePostOrder(int[][] predecessors, int[][] successors, int[] postOrder, boolean[] extraRoot) {
+    int n = predecessors.length;
+    boolean[] visited = new boolean[n];
+    int[] order = new int[n];
+    int counter = 0;
+    int[] stack = new int[n];
+    int[] edge = new int[n];
+    List<Integer> roots = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      if (predecessors[i].length == 0) {
+        roots.add(i);
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      roots.add(i);
+    }
+    for (int root : roots) {
+      if (visited[root]) {
+        continue;
+      }
+      // The root of a cycle without entry gets the start node as extra predecessor.
+      extraRoot[root] = predecessors[root].length > 0;
+      visited[root] = true;
+      int depth = 0;
+      stack[0] = root;
+      edge[0] = 0;
+      while (depth >= 0) {
+        int v = stack[depth];
+        if (edge[depth] < successors[v].length) {
+          int w = successors[v][edge[depth]++];
+          if (!visited[w]) {
+            visited[w] = true;
+            stack[++depth] = w;
+            edge[depth] = 0;
+          }
+        } else {
+          order[counter++] = v;
+          depth--;
+        }
+      }
+    }
+    int[] reverse = new int[n];
+    for (int i = 0; i < n; i++) {
+      postOrder[order[i]] = i;
+      reverse[n - 1 - i] = order[i];
+    }
+    postOrder[n] = n;
+    return reverse;
+  }
+
+  private void number() {
+    int counter = 0;
+    int n = nodes.size();
+    int[] stack = new int[n];
+    int[] child = new int[n];
+    for (int root = 0; root < n; root++) {
+      if (idom[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      stack[0] = root;
+      child[0] = 0;
+      pre[root] = counter++;
+      while (depth >= 0) {
+        int v = stack[depth];
+        List<DataFlowNode> c = children.get(v);
+        if (child[depth] < c.size()) {
+          int w = index.get(c.get(child[depth]++));
+          pre[w] = counter++;
+          stack[++depth] = w;
+          child[depth] = 0;
+        } else {
+          post[v] = counter++;
+          depth--;
+        }
+      }
+    }
+  }
+
+}
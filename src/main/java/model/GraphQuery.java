@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.javaparser.ast.Node;
+
+/**
+ * Index over one or more {@link DataFlowGraph}s for looking up methods, fields, nodes and {@link NodeCall}s by name, type or kind without scanning the whole
+ * graph. An instance is a snapshot of the graphs at the moment it was created, use {@link DataFlowGraph#query()} or {@link DataFlowProject#query()} to get an
+ * up to date instance. Those will only rebuild the index after the graph was modified via one of its add or set methods. The inner graphs of the given graphs
+ * are indexed as well.
+ *
+ * @author Daan
+ */
+public class GraphQuery {
+
+  private final Map<String, List<DataFlowMethod>> methodsByName = new HashMap<>();
+  private final Map<String, List<DataFlowNode>> fieldsByName = new HashMap<>();
+  private final Map<String, List<DataFlowNode>> nodesByName = new HashMap<>();
+  private final Map<String, List<DataFlowNode>> nodesByType = new HashMap<>();
+  private final Map<Class<?>, List<DataFlowNode>> nodesByKind = new HashMap<>();
+  private final Map<String, List<NodeCall>> nodeCallsByName = new HashMap<>();
+  private final Map<String, List<NodeCall>> nodeCallsByClass = new HashMap<>();
+  private final Map<String, List<NodeCall>> nodeCallsByPackage = new HashMap<>();
+
+  GraphQuery(Collection<DataFlowGraph> graphs) {
+    // Nodes can be reachable via multiple owners, the identity set makes sure we index them only once.
+    Set<DataFlowNode> indexed = Collections.newSetFromMap(new IdentityHashMap<>());
+    graphs.forEach(graph -> index(graph, indexed));
+  }
+
+  /**
+   * @param name The name of the method
+   * @return All {@link DataFlowMethod}s with the given name, an empty list if none exist.
+   */
+  public List<DataFlowMethod> getMethods(String name) {
+    return get(methodsByName, name);
+  }
+
+  /**
+   * @param name The name of the field
+   * @return All fields with the given name, the list will contain more than one element if multiple graphs are queried.
+   */
+  public List<DataFlowNode> getFields(String name) {
+    return get(fieldsByName, name);
+  }
+
+  /**
+   * @param name The name of the {@link DataFlowNode}
+   * @return All {@link DataFlowNode}s with the given name, including fields, parameters, return nodes and in-between nodes.
+   */
+  public List<DataFlowNode> getNodes(String name) {
+    return get(nodesByName, name);
+  }
+
+  /**
+   * @param type The type as given by {@link DataFlowNode#getType()}
+   * @return All {@link DataFlowNode}s with the given type.
+   */
+  public List<DataFlowNode> getNodesByType(String type) {
+    return get(nodesByType, type);
+  }
+
+  /**
+   * @param kind The class of the {@link Node} represented by the {@link DataFlowNode}, for instance NameExpr.
+   * @return All {@link DataFlowNode}s representing a node of exactly the given class.
+   */
+  public List<DataFlowNode> getNodesByKind(Class<? extends Node> kind) {
+    return get(nodesByKind, kind);
+  }
+
+  /**
+   * @param name The name of the called method
+   * @return All {@link NodeCall}s to a method with the given name.
+   */
+  public List<NodeCall> getNodeCalls(String name) {
+    return get(nodeCallsByName, name);
+  }
+
+  /**
+   * @param claz The class name as given by {@link NodeCall#getClaz()}
+   * @return All {@link NodeCall}s to the given class.
+   */
+  public List<NodeCall> getNodeCallsToClass(String claz) {
+    return get(nodeCallsByClass, claz);
+  }
+
+  /**
+   * @param peckage The package name as given by {@link NodeCall#getPeckage()}
+   * @return All {@link NodeCall}s to a class in the given package.
+   */
+  public List<NodeCall> getNodeCallsToPackage(String peckage) {
+    return get(nodeCallsByPackage, peckage);
+  }
+
+  private void index(DataFlowGraph graph, Set<DataFlowNode> indexed) {
+    for (DataFlowNode field : graph.getFields()) {
+      add(fieldsByName, field.getName(), field);
+      indexNode(field, indexed);
+    }
+    List<DataFlowMethod> methods = new ArrayList<>(graph.getMethods());
+    methods.addAll(graph.getConstructors());
+    methods.addAll(graph.getInitializers());
+    for (DataFlowMethod method : methods) {
+      add(methodsByName, method.getName(), method);
+      method.getNodes().forEach(n -> indexNode(n, indexed));
+      for (NodeCall call : method.getNodeCalls()) {
+        add(nodeCallsByName, call.getName(), call);
+        add(nodeCallsByClass, call.getClaz(), call);
+        add(nodeCallsByPackage, call.getPeckage(), call);
+      }
+    }
+    graph.getInnerGraphs().forEach(inner -> index(inner, indexed));
+  }
+
+  private void indexNode(DataFlowNode node, Set<DataFlowNode> indexed) {
+    if (indexed.add(node)) {
+      add(nodesByName, node.getName(), node);
+      add(nodesByType, node.getType(), node);
+      if (node.getRepresentedNode() != null) {
+        add(nodesByKind, node.getRepresentedNode().getClass(), node);
+      }
+    }
+  }
+
+  private <K, V> void add(Map<K, List<V>> index, K key, V value) {
+    if (key != null) {
+      index.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+    }
+  }
+
+  private <K, V> List<V> get(Map<K, List<V>> index, K key) {
+    List<V> values = index.get(key);
+    return values == null ? Collections.emptyList() : Collections.unmodifiableList(values);
+  }
+
+}
@@ -104,12 +104,29 @@ public class NodeCall extends OwnedNode<Node> {
       if (calledMethod.getReturnNode().isPresent()) {
         calledMethod.getReturnNode().get().addEdgeTo(returnNode);
       } else {
-        LOG.warn("Could not connect method return node to NodeCall return Node because return node was not present in method {}", calledMethod);
+        LOG.warn("Could not connect method return node to NodeCall return Node because return node was not present in method {}", calledMethod.getName());
       }
 
     }
   }
 
+  /**
+   * Disconnects this call from the called method, removing the edges that where created by {@link #setCalledMethod(DataFlowMethod)}. This is needed before
+   * connecting the call to a new version of the method, for instance after the class containing the called method was parsed again.
+   */
+  public void clearCalledMethod() {
+    if (this.calledMethod == null) {
+      return;
+    }
+    if (this.in != null && this.calledMethod.getParameters() != null) {
+      this.in.disconnectFrom(this.calledMethod.getParameters());
+    }
+    if (this.returnNode != null) {
+      this.calledMethod.getReturnNode().ifPresent(r -> r.removeEdgeTo(returnNode));
+    }
+    this.calledMethod = null;
+  }
+
   public String getClaz() {
     return claz;
   }
@@ -186,8 +203,9 @@ public class NodeCall extends OwnedNode<Node> {
 
   @Override
   public String toString() {
-    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).appendSuper(super.toString()).append("in", in).append("calledMethod", calledMethod)
-        .append("returnNode", returnNode).append("class", claz).append("package", peckage).build();
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).appendSuper(super.toString()).append("in", in)
+        .append("calledMethod", calledMethod == null ? null : calledMethod.getName()).append("returnNode", returnNode).append("class", claz)
+        .append("package", peckage).build();
   }
 
   /**
@@ -96,7 +96,14 @@ public abstract class NodeRepresenter<T extends Node> {
 
   @Override
   public String toString() {
-    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("name", name).append("representedNode", representedNode).build();
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("name", name).append("representedNode", describe(representedNode)).build();
+  }
+
+  /**
+   * Describes the node by its kind and position instead of printing its code, since the code of for instance a whole method or class can be very large.
+   */
+  private static String describe(Node node) {
+    return node == null ? null : node.getClass().getSimpleName() + node.getBegin().map(p -> "@" + p).orElse("");
   }
 
   /**
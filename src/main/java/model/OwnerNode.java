@@ -18,13 +18,17 @@
 package model;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 import com.github.javaparser.ast.Node;
 
 /**
  * A {@link OwnedNode} that owns other {@link OwnedNode}s. For instance a method owning a return node.
+ * <p>
+ * Owners look up their methods and nodes via the represented {@link Node}. Those lookups compare the JavaParser nodes on identity, because the equals and
+ * hashCode of a {@link Node} traverse its whole subtree.
  *
  * @author Daan
  */
@@ -55,10 +59,12 @@ public abstract class OwnerNode<T extends Node> extends OwnedNode<T> {
   /**
    * Gets all direct or indirectly owned nodes.
    *
-   * @return {@link Set} of {@link DataFlowNode}.
+   * @return {@link Set} of {@link DataFlowNode}, comparing the nodes on identity.
    */
   public final Set<DataFlowNode> getOwnedNodes() {
-    Set<DataFlowNode> nodes = new HashSet<>(getDirectOwnedNodes());
+    // Identity based, since the hashCode of a node is computed from all its edges.
+    Set<DataFlowNode> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    nodes.addAll(getDirectOwnedNodes());
     getOwnedOwners().stream().map(OwnerNode::getOwnedNodes).forEach(nodes::addAll);
     return nodes;
   }
@@ -117,6 +117,17 @@ public class ParameterList extends OwnedNode<Node> {
     }
   }
 
+  /**
+   * Removes the edges created by {@link #connectTo(ParameterList)}.
+   *
+   * @param otherParams The {@link ParameterList} this list was connected to.
+   */
+  public void disconnectFrom(ParameterList otherParams) {
+    for (int i = 0; i < Math.min(this.nodes.size(), otherParams.nodes.size()); i++) {
+      this.nodes.get(i).removeEdgeTo(otherParams.nodes.get(i));
+    }
+  }
+
   public boolean isInputParametersForMethod() {
     boolean isInputParam = false;
     if (this.owner != null && this.owner instanceof DataFlowMethod && ((DataFlowMethod) this.owner).getParameters() == this) {
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package util;
+
+import java.util.List;
+
+import model.DataFlowEdge;
+import model.DataFlowNode;
+
+/**
+ * The direction in which to walk over the edges of a {@link DataFlowNode}.
+ *
+ * @author Daan
+ */
+public enum Direction {
+  /** Walk over {@link DataFlowNode#getIn()} towards the nodes influencing a node. */
+  BACKWARD {
+    @Override
+    public List<DataFlowEdge> getEdges(DataFlowNode node) {
+      return node.getIn();
+    }
+
+    @Override
+    public DataFlowNode getNext(DataFlowEdge edge) {
+      return edge.getFrom();
+    }
+  },
+  /** Walk over {@link DataFlowNode#getOut()} towards the nodes influenced by a node. */
+  FORWARD {
+    @Override
+    public List<DataFlowEdge> getEdges(DataFlowNode node) {
+      return node.getOut();
+    }
+
+    @Override
+    public DataFlowNode getNext(DataFlowEdge edge) {
+      return edge.getTo();
+    }
+  };
+
+  /**
+   * @param node The {@link DataFlowNode} to get the edges from.
+   * @return The edges to walk over from the given node.
+   */
+  public abstract List<DataFlowEdge> getEdges(DataFlowNode node);
+
+  /**
+   * @param edge One of the edges returned by {@link #getEdges(DataFlowNode)}.
+   * @return The node on the other side of the edge.
+   */
+  public abstract DataFlowNode getNext(DataFlowEdge edge);
+
+  /**
+   * @return The opposite direction.
+   */
+  public Direction reverse() {
+    return this == BACKWARD ? FORWARD : BACKWARD;
+  }
+
+}
@@ -17,8 +17,18 @@
  */
 package util;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -37,6 +47,34 @@ public class GraphUtil {
     return nodes.stream().map(n -> walkBackUntil(n, predicate, scopePredicate)).flatMap(List::stream).collect(Collectors.toList());
   }
 
+  /**
+   * Walks from all given nodes concurrently on the common {@link ForkJoinPool}.
+   *
+   * @see #walkUntil(Collection, Direction, Predicate, Predicate, ForkJoinPool)
+   */
+  public static List<DataFlowNode> walkUntil(Collection<DataFlowNode> nodes, Direction direction, Predicate<DataFlowNode> predicate,
+      Predicate<DataFlowNode> scopePredicate) {
+    return walkUntil(nodes, direction, predicate, scopePredicate, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Walks from all given nodes concurrently in the given direction until for each path the predicate holds, comparable to calling
+   * {@link #walkBackUntil(DataFlowNode, Predicate, Predicate)} or {@link #walkForwardUntil(DataFlowNode, Predicate, Predicate)} for each node. All walks share
+   * the visited nodes, so that each node is handled only once. This makes it possible to walk from many nodes at once, for instance from all sinks within a
+   * project. The graph may not be modified during the walk, and the given predicates need to be thread safe.
+   *
+   * @param nodes The nodes to start walking from.
+   * @param direction The {@link Direction} to walk in.
+   * @param predicate The {@link Predicate} determining when to stop walking and add the node to the result.
+   * @param scopePredicate Nodes for which this predicate does not hold are skipped.
+   * @param pool The {@link ForkJoinPool} to walk on.
+   * @return All distinct nodes for which the predicate holds, in no specific order.
+   */
+  public static List<DataFlowNode> walkUntil(Collection<DataFlowNode> nodes, Direction direction, Predicate<DataFlowNode> predicate,
+      Predicate<DataFlowNode> scopePredicate, ForkJoinPool pool) {
+    return pool.invoke(new ParallelWalk(new ArrayList<>(nodes), direction, predicate, scopePredicate));
+  }
+
   /**
    * Walks back via {@link DataFlowNode#getIn()} until for each node it holds that the predicate holds. The input {@link DataFlowNode} will be returned if the
    * {@link Predicate} holds for it. An empty list will be returned if the scopePredicate does not hold for the input node.
@@ -45,17 +83,10 @@ public class GraphUtil {
    * @param predicate The {@link Predicate} to check on the {@link DataFlowNode}
    * @param scopePredicate This predicate determines the scope for when to stop searching. If this predicate does not hold for the input node an empty list will
    *          be returned.
-   * @return Returns a list of nodes that either have no incoming edges, or for which the predicate holds.
+   * @return Returns a list of nodes for which the predicate holds, each node is returned once even if it can be reached via multiple paths.
    */
   public static List<DataFlowNode> walkBackUntil(DataFlowNode dfn, Predicate<DataFlowNode> predicate, Predicate<DataFlowNode> scopePredicate) {
-    if (!scopePredicate.test(dfn)) {
-      return Collections.emptyList();
-    }
-    if (predicate.test(dfn)) {
-      return Collections.singletonList(dfn);
-    }
-    return dfn.getIn().stream().map(DataFlowEdge::getFrom).map(node -> walkBackUntil(node, predicate, scopePredicate)).flatMap(List::stream)
-        .collect(Collectors.toList());
+    return walkUntil(dfn, Direction.BACKWARD, predicate, scopePredicate, TraversalOptions.UNBOUNDED).getNodes();
   }
 
   /**
@@ -66,18 +97,210 @@ public class GraphUtil {
    * @param predicate The {@link Predicate} to check on the {@link DataFlowNode}
    * @param scopePredicate This predicate determines the scope for when to stop searching. If this predicate does not hold for the input node an empty list will
    *          be returned.
-   * @return Returns a list of nodes that either have no incoming edges, or for which the predicate holds.
+   * @return Returns a list of nodes for which the predicate holds, each node is returned once even if it can be reached via multiple paths.
    */
   public static List<DataFlowNode> walkForwardUntil(DataFlowNode dfn, Predicate<DataFlowNode> predicate, Predicate<DataFlowNode> scopePredicate) {
-    if (!scopePredicate.test(dfn)) {
-      return Collections.emptyList();
+    return walkUntil(dfn, Direction.FORWARD, predicate, scopePredicate, TraversalOptions.UNBOUNDED).getNodes();
+  }
+
+  /**
+   * Walks breadth first in the given direction until for each path the predicate holds, or until one of the limits in the given {@link TraversalOptions} is
+   * reached. Each node is visited at most once, so that cycles in the graph are only walked once.
+   *
+   * @param dfn The {@link DataFlowNode} to start from.
+   * @param direction The {@link Direction} to walk in.
+   * @param predicate The {@link Predicate} determining when to stop walking and add the node to the result.
+   * @param scopePredicate Nodes for which this predicate does not hold are skipped.
+   * @param options The {@link TraversalOptions} limiting the walk.
+   * @return {@link TraversalResult} with the nodes for which the predicate holds, ordered by their distance to the start node.
+   */
+  public static TraversalResult walkUntil(DataFlowNode dfn, Direction direction, Predicate<DataFlowNode> predicate, Predicate<DataFlowNode> scopePredicate,
+      TraversalOptions options) {
+    long deadline = options.getTimeout().map(t -> System.nanoTime() + t.toNanos()).orElse(Long.MAX_VALUE);
+    Set<DataFlowNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<DataFlowNode> found = new ArrayList<>();
+    Deque<DataFlowNode> level = new ArrayDeque<>();
+    Deque<DataFlowNode> nextLevel = new ArrayDeque<>();
+    level.add(dfn);
+    visited.add(dfn);
+
+    boolean budgetExceeded = false;
+    int handled = 0;
+    for (int depth = 0; !level.isEmpty() && !budgetExceeded; depth++) {
+      while (!level.isEmpty()) {
+        // Checking the time is relatively expensive, therefore only check it once in a while.
+        if ((++handled & 0xFF) == 0 && System.nanoTime() > deadline) {
+          budgetExceeded = true;
+          break;
+        }
+        DataFlowNode node = level.poll();
+        if (!scopePredicate.test(node)) {
+          continue;
+        }
+        if (predicate.test(node)) {
+          if (found.size() >= options.getMaxResults()) {
+            // Only possible if the maximum is below 1, otherwise the walk already stopped after adding the last allowed result.
+            budgetExceeded = true;
+            break;
+          }
+          found.add(node);
+          if (found.size() >= options.getMaxResults()) {
+            budgetExceeded = !level.isEmpty() || !nextLevel.isEmpty();
+            break;
+          }
+          continue;
+        }
+        for (DataFlowEdge edge : direction.getEdges(node)) {
+          DataFlowNode next = direction.getNext(edge);
+          if (depth >= options.getMaxDepth() || visited.size() >= options.getMaxVisited()) {
+            budgetExceeded |= !visited.contains(next);
+          } else if (visited.add(next)) {
+            nextLevel.add(next);
+          }
+        }
+      }
+      Deque<DataFlowNode> swap = level;
+      level = nextLevel;
+      nextLevel = swap;
+    }
+    return new TraversalResult(found, visited.size(), budgetExceeded);
+  }
+
+  /**
+   * Finds the shortest path from the given node to a node for which the predicate holds.
+   *
+   * @see #findPaths(DataFlowNode, Direction, Predicate, Predicate, int)
+   * @return The edges of the shortest path in the order in which they are walked, empty if no node was found. If the predicate holds for the start node, the
+   *         optional will contain an empty list.
+   */
+  public static Optional<List<DataFlowEdge>> findShortestPath(DataFlowNode dfn, Direction direction, Predicate<DataFlowNode> predicate,
+      Predicate<DataFlowNode> scopePredicate) {
+    return findPaths(dfn, direction, predicate, scopePredicate, 1).stream().findFirst();
+  }
+
+  /**
+   * Finds up to k distinct paths from the given node to nodes for which the predicate holds, breadth first so that shorter paths are found first. Like
+   * {@link #walkUntil(DataFlowNode, Direction, Predicate, Predicate, TraversalOptions)} a path ends at the first node for which the predicate holds. A path
+   * never contains the same node twice and each node is expanded at most k times. Paths are stored as pointers to the previous step, so that no lists are
+   * copied while walking.
+   *
+   * @param dfn The {@link DataFlowNode} to start from.
+   * @param direction The {@link Direction} to walk in.
+   * @param predicate The {@link Predicate} determining the end of a path.
+   * @param scopePredicate Nodes for which this predicate does not hold are skipped.
+   * @param k The maximum number of paths to return.
+   * @return The paths, each given as the list of edges in the order in which they are walked. For {@link Direction#BACKWARD} this is the opposite of the
+   *         direction of the data flow.
+   */
+  public static List<List<DataFlowEdge>> findPaths(DataFlowNode dfn, Direction direction, Predicate<DataFlowNode> predicate,
+      Predicate<DataFlowNode> scopePredicate, int k) {
+    List<List<DataFlowEdge>> paths = new ArrayList<>();
+    Map<DataFlowNode, Integer> expanded = new IdentityHashMap<>();
+    Deque<PathStep> queue = new ArrayDeque<>();
+    queue.add(new PathStep(dfn, null, null));
+    while (!queue.isEmpty() && paths.size() < k) {
+      PathStep step = queue.poll();
+      if (!scopePredicate.test(step.node)) {
+        continue;
+      }
+      if (predicate.test(step.node)) {
+        paths.add(step.toPath());
+        continue;
+      }
+      int count = expanded.merge(step.node, 1, Integer::sum);
+      if (count > k) {
+        continue;
+      }
+      for (DataFlowEdge edge : direction.getEdges(step.node)) {
+        DataFlowNode next = direction.getNext(edge);
+        if (!step.contains(next)) {
+          queue.add(new PathStep(next, edge, step));
+        }
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * Determines whether data can flow from one node to another. The graph is searched breadth first from both ends at the same time, forward from the from
+   * node and backward from the to node, always expanding the smallest of both frontiers by one level. The search stops as soon as both searches meet, so that
+   * on wide graphs far fewer nodes are visited than with a single {@link #walkForwardUntil(DataFlowNode, Predicate, Predicate)}.
+   *
+   * @param from The {@link DataFlowNode} where the data flow starts.
+   * @param to The {@link DataFlowNode} where the data flow should end.
+   * @param scopePredicate Nodes for which this predicate does not hold are not walked through.
+   * @return True if there is a path from the from node to the to node, false otherwise.
+   */
+  public static boolean reaches(DataFlowNode from, DataFlowNode to, Predicate<DataFlowNode> scopePredicate) {
+    if (from == to) {
+      return scopePredicate.test(from);
     }
-    if (predicate.test(dfn)) {
-      return Collections.singletonList(dfn);
+    if (!scopePredicate.test(from) || !scopePredicate.test(to)) {
+      return false;
     }
-    return dfn.getOut().stream().map(DataFlowEdge::getTo).map(node -> walkForwardUntil(node, predicate, scopePredicate)).flatMap(List::stream)
-        .collect(Collectors.toList());
+    Set<DataFlowNode> forwardVisited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<DataFlowNode> backwardVisited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<DataFlowNode> forward = new ArrayDeque<>();
+    Deque<DataFlowNode> backward = new ArrayDeque<>();
+    forward.add(from);
+    forwardVisited.add(from);
+    backward.add(to);
+    backwardVisited.add(to);
+    while (!forward.isEmpty() && !backward.isEmpty()) {
+      boolean met = forward.size() <= backward.size() ? expandLevel(forward, forwardVisited, backwardVisited, Direction.FORWARD, scopePredicate)
+          : expandLevel(backward, backwardVisited, forwardVisited, Direction.BACKWARD, scopePredicate);
+      if (met) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean expandLevel(Deque<DataFlowNode> frontier, Set<DataFlowNode> visited, Set<DataFlowNode> otherVisited, Direction direction,
+      Predicate<DataFlowNode> scopePredicate) {
+    for (int i = frontier.size(); i > 0; i--) {
+      DataFlowNode node = frontier.poll();
+      for (DataFlowEdge edge : direction.getEdges(node)) {
+        DataFlowNode next = direction.getNext(edge);
+        if (otherVisited.contains(next)) {
+          return true;
+        }
+        if (scopePredicate.test(next) && visited.add(next)) {
+          frontier.add(next);
+        }
+      }
+    }
+    return false;
+  }
+
+  /** A single step of a path, pointing to the previous step. */
+  private static final class PathStep {
+    private final DataFlowNode node;
+    private final DataFlowEdge edge;
+    private final PathStep previous;
 
+    private PathStep(DataFlowNode node, DataFlowEdge edge, PathStep previous) {
+      this.node = node;
+      this.edge = edge;
+      this.previous = previous;
+    }
+
+    private boolean contains(DataFlowNode other) {
+      for (PathStep step = this; step != null; step = step.previous) {
+        if (step.node == other) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private List<DataFlowEdge> toPath() {
+      LinkedList<DataFlowEdge> path = new LinkedList<>();
+      for (PathStep step = this; step.previous != null; step = step.previous) {
+        path.addFirst(step.edge);
+      }
+      return new ArrayList<>(path);
+    }
   }
 
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+import model.DataFlowEdge;
+import model.DataFlowNode;
+
+/**
+ * {@link RecursiveTask} walking from multiple start nodes until a predicate holds, see
+ * {@link GraphUtil#walkUntil(java.util.Collection, Direction, Predicate, Predicate, java.util.concurrent.ForkJoinPool)}. All tasks of a single walk share the
+ * set of visited nodes, so that each node is handled only once, no matter from how many start nodes it can be reached. A task walks depth first over its own
+ * stack of nodes and splits off half of that stack as a new task when it grows beyond {@link #SPLIT_THRESHOLD}, so that idle workers can steal work.
+ *
+ * @author Daan
+ */
+class ParallelWalk extends RecursiveTask<List<DataFlowNode>> {
+  private static final long serialVersionUID = 1L;
+
+  /** The number of nodes on the stack of a single task above which the stack will be split over a new task. */
+  static final int SPLIT_THRESHOLD = 64;
+
+  private final Deque<DataFlowNode> stack;
+  private final Shared shared;
+
+  ParallelWalk(List<DataFlowNode> start, Direction direction, Predicate<DataFlowNode> predicate, Predicate<DataFlowNode> scopePredicate) {
+    this(new ArrayDeque<>(start), new Shared(direction, predicate, scopePredicate));
+  }
+
+  private ParallelWalk(Deque<DataFlowNode> stack, Shared shared) {
+    this.stack = stack;
+    this.shared = shared;
+  }
+
+  @Override
+  protected List<DataFlowNode> compute() {
+    List<DataFlowNode> found = new ArrayList<>();
+    List<ParallelWalk> forked = new ArrayList<>();
+    while (!stack.isEmpty()) {
+      DataFlowNode node = stack.pop();
+      if (!shared.visited.add(new HashCodeWrapper<>(node)) || !shared.scopePredicate.test(node)) {
+        continue;
+      }
+      if (shared.predicate.test(node)) {
+        found.add(node);
+        continue;
+      }
+      for (DataFlowEdge edge : shared.direction.getEdges(node)) {
+        stack.push(shared.direction.getNext(edge));
+      }
+      if (stack.size() > SPLIT_THRESHOLD) {
+        forked.add(split());
+      }
+    }
+    for (ParallelWalk task : forked) {
+      found.addAll(task.join());
+    }
+    return found;
+  }
+
+  private ParallelWalk split() {
+    Deque<DataFlowNode> half = new ArrayDeque<>();
+    for (int i = stack.size() / 2; i > 0; i--) {
+      half.push(stack.removeLast());
+    }
+    ParallelWalk task = new ParallelWalk(half, shared);
+    task.fork();
+    return task;
+  }
+
+  /** The state shared between all tasks of a single walk. */
+  private static final class Shared {
+    private final Direction direction;
+    private final Predicate<DataFlowNode> predicate;
+    private final Predicate<DataFlowNode> scopePredicate;
+    /** Nodes are compared on identity, since the equals method of a {@link DataFlowNode} compares the whole node including its edges. */
+    private final Set<HashCodeWrapper<DataFlowNode>> visited = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private Shared(Direction direction, Predicate<DataFlowNode> predicate, Predicate<DataFlowNode> scopePredicate) {
+      this.direction = direction;
+      this.predicate = predicate;
+      this.scopePredicate = scopePredicate;
+    }
+  }
+
+}
@@ -20,7 +20,10 @@ package util;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
@@ -31,7 +34,14 @@ import com.github.javaparser.JavaParser;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.resolution.Resolvable;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodLikeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedParameterDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserFieldDeclaration;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserParameterDeclaration;
 import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserVariableDeclaration;
@@ -42,6 +52,7 @@ import model.OwnedNode;
 
 public class ParserUtil {
   private static final Logger LOG = LoggerFactory.getLogger(ParserUtil.class);
+  private static final Pattern QUALIFIER = Pattern.compile("[\\w$]+\\.");
 
   /**
    * Gets the node to which the input points to. For example for the input "this.s" which points to a field usage in a class, the {@link JavaParser}
@@ -52,14 +63,26 @@ public class ParserUtil {
    * @return An empty {@link Optional} if the node could not be resolved, an {@link Optional} with the pointed to node otherwise.
    */
   public Optional<Node> getJavaParserNode(DataFlowMethod method, Node node) {
-    Object resolved = resolve(method, node);
+    return getJavaParserNode(method, node, resolve(method, node));
+  }
+
+  /**
+   * Gets the node declaring the already resolved declaration, see {@link #getJavaParserNode(DataFlowMethod, Node)}.
+   *
+   * @param method Only needed for logging purposes
+   * @param node The resolved node, only needed for logging purposes
+   * @param resolved The result of {@link #resolve(OwnedNode, Node)} for the node.
+   * @return An empty {@link Optional} if the declaration is not a field, parameter or variable declared in parsed code, an {@link Optional} with the
+   *         declaring node otherwise.
+   */
+  public Optional<Node> getJavaParserNode(DataFlowMethod method, Node node, Object resolved) {
     Node resolvedNode = null;
     if (resolved instanceof JavaParserFieldDeclaration) {
       resolvedNode = ((JavaParserFieldDeclaration) resolved).getVariableDeclarator();
     } else if (resolved instanceof JavaParserParameterDeclaration) {
       resolvedNode = ((JavaParserParameterDeclaration) resolved).getWrappedNode();
     } else if (resolved instanceof JavaParserVariableDeclaration) {
-      resolvedNode = ((JavaParserVariableDeclaration) resolved).getWrappedNode();
+      resolvedNode = ((JavaParserVariableDeclaration) resolved).getVariableDeclarator();
     } else {
       LOG.warn("In method {}, resolving is not supported for node {} of type {}", method.getName(), node, resolved == null ? null : resolved.getClass());
     }
@@ -84,6 +107,66 @@ public class ParserUtil {
     return resolved;
   }
 
+  /**
+   * Creates the signature of a declared method or constructor, in the same form as {@link #signature(ResolvedMethodLikeDeclaration)}, so that declarations
+   * can be compared with the resolved declarations other classes depend on. The return type is part of the signature, since the graph of a calling class
+   * depends on it.
+   *
+   * @param declaration The {@link CallableDeclaration}
+   * @return The name followed by the simple names of the parameter types and for methods the simple name of the return type, for instance
+   *         "get(int, List<String>): int".
+   */
+  public static String signature(CallableDeclaration<?> declaration) {
+    List<String> types = new ArrayList<>();
+    for (Parameter parameter : declaration.getParameters()) {
+      types.add(simpleTypeName(parameter.getType().asString()) + (parameter.isVarArgs() ? "..." : ""));
+    }
+    String signature = declaration.getNameAsString() + "(" + String.join(", ", types) + ")";
+    return declaration instanceof MethodDeclaration ? typed(signature, ((MethodDeclaration) declaration).getType().asString()) : signature;
+  }
+
+  /**
+   * Creates the signature of a resolved method or constructor, see {@link #signature(CallableDeclaration)}.
+   *
+   * @param resolved The {@link ResolvedMethodLikeDeclaration}
+   * @return The name followed by the simple names of the parameter types and for methods the simple name of the return type.
+   * @throws RuntimeException If the type of a parameter or the return type could not be resolved.
+   */
+  public static String signature(ResolvedMethodLikeDeclaration resolved) {
+    List<String> types = new ArrayList<>();
+    for (int i = 0; i < resolved.getNumberOfParams(); i++) {
+      ResolvedParameterDeclaration parameter = resolved.getParam(i);
+      ResolvedType type = parameter.getType();
+      if (parameter.isVariadic() && type.isArray()) {
+        types.add(simpleTypeName(type.asArrayType().getComponentType().describe()) + "...");
+      } else {
+        types.add(simpleTypeName(type.describe()));
+      }
+    }
+    String signature = resolved.getName() + "(" + String.join(", ", types) + ")";
+    return resolved instanceof ResolvedMethodDeclaration ? typed(signature, ((ResolvedMethodDeclaration) resolved).getReturnType().describe()) : signature;
+  }
+
+  /**
+   * Creates the signature of a field, in the same form as the signatures of methods so that fields can be compared with the fields other classes depend on.
+   *
+   * @param fieldName The name of the field
+   * @param type The declared or resolved type of the field, qualified or not.
+   * @return The name prefixed with "#", so that it never equals the name of a method, followed by the simple name of the type, for instance "#x: int".
+   */
+  public static String fieldSignature(String fieldName, String type) {
+    return typed("#" + fieldName, type);
+  }
+
+  private static String typed(String signature, String type) {
+    return signature + ": " + simpleTypeName(type);
+  }
+
+  private static String simpleTypeName(String type) {
+    // Removes the package and outer classes from each type name, also within type arguments.
+    return QUALIFIER.matcher(type).replaceAll("").replace(" ", "");
+  }
+
   public CompilationUnit createCompilationUnit(String inputClass) {
     CompilationUnit cu = null;
     try (FileInputStream in = new FileInputStream(inputClass)) {
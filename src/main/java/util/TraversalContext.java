@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import model.DataFlowEdge;
+import model.DataFlowNode;
+
+/**
+ * Reusable state for walking through the graph without allocating memory per walk. Visited nodes are kept in an open addressing identity hash table, hashed
+ * on {@link DataFlowNode#getId()}. Only the slots used by a walk are cleared after it, so that the cost of a walk does not depend on the size of the table
+ * and no nodes are retained after the walk. The table, the work stack and the result buffer are kept between walks and only grow when a larger part of a
+ * graph is walked, their size is bounded by the largest walk rather than by the number of nodes ever created. After warming up, a walk does not allocate
+ * anything, as long as the given predicates do not.
+ * <p>
+ * A context is not thread safe, each thread should use its own context, for instance via {@link #current()}. The results are only valid until the next walk
+ * on the same context.
+ *
+ * @author Daan
+ */
+public class TraversalContext {
+
+  private static final ThreadLocal<TraversalContext> CURRENT = ThreadLocal.withInitial(TraversalContext::new);
+
+  /** The nodes visited in the current walk, the length is a power of two and at least twice the number of visited nodes. */
+  private DataFlowNode[] visited = new DataFlowNode[1024];
+  /** The indexes of the used slots in {@link #visited}, in the order in which they where used. */
+  private int[] usedSlots = new int[512];
+  private int usedCount;
+  private DataFlowNode[] stack = new DataFlowNode[64];
+  private DataFlowNode[] results = new DataFlowNode[16];
+  private int resultCount;
+
+  /**
+   * @return The {@link TraversalContext} of the current thread.
+   */
+  public static TraversalContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Walks depth first in the given direction until for each path the predicate holds. Each node is visited at most once. The found nodes can be obtained via
+   * {@link #getResult(int)}.
+   *
+   * @param dfn The {@link DataFlowNode} to start from.
+   * @param direction The {@link Direction} to walk in.
+   * @param predicate The {@link Predicate} determining when to stop walking and add the node to the result.
+   * @param scopePredicate Nodes for which this predicate does not hold are skipped.
+   * @return The number of found nodes.
+   */
+  public int walkUntil(DataFlowNode dfn, Direction direction, Predicate<DataFlowNode> predicate, Predicate<DataFlowNode> scopePredicate) {
+    startWalk();
+    int size = 0;
+    mark(dfn);
+    stack[size++] = dfn;
+    while (size > 0) {
+      DataFlowNode node = stack[--size];
+      stack[size] = null;
+      if (!scopePredicate.test(node)) {
+        continue;
+      }
+      if (predicate.test(node)) {
+        addResult(node);
+        continue;
+      }
+      // Indexed loop instead of for-each, to not rely on escape analysis for removing the iterator.
+      List<DataFlowEdge> edges = direction.getEdges(node);
+      for (int i = edges.size() - 1; i >= 0; i--) {
+        DataFlowNode next = direction.getNext(edges.get(i));
+        if (mark(next)) {
+          if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+          }
+          stack[size++] = next;
+        }
+      }
+    }
+    clearVisited();
+    return resultCount;
+  }
+
+  /**
+   * @param index The index of the result, between 0 and the number returned by the last walk.
+   * @return The found node at the given index.
+   */
+  public DataFlowNode getResult(int index) {
+    if (index < 0 || index >= resultCount) {
+      throw new IndexOutOfBoundsException("Index " + index + " for " + resultCount + " results");
+    }
+    return results[index];
+  }
+
+  /**
+   * @return The number of nodes found by the last walk.
+   */
+  public int getResultCount() {
+    return resultCount;
+  }
+
+  /**
+   * @return A copy of the nodes found by the last walk, in the order in which they were found.
+   */
+  public List<DataFlowNode> getResults() {
+    List<DataFlowNode> list = new ArrayList<>(resultCount);
+    for (int i = 0; i < resultCount; i++) {
+      list.add(results[i]);
+    }
+    return list;
+  }
+
+  private void startWalk() {
+    Arrays.fill(results, 0, resultCount, null);
+    resultCount = 0;
+    // Normally already cleared at the end of the previous walk, unless a predicate threw an exception.
+    clearVisited();
+  }
+
+  private void clearVisited() {
+    for (int i = 0; i < usedCount; i++) {
+      visited[usedSlots[i]] = null;
+    }
+    usedCount = 0;
+  }
+
+  /**
+   * @return True if the node was not visited yet within the current walk.
+   */
+  private boolean mark(DataFlowNode node) {
+    int mask = visited.length - 1;
+    int slot = slot(node, mask);
+    for (DataFlowNode current = visited[slot]; current != null; current = visited[slot]) {
+      if (current == node) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    visited[slot] = node;
+    usedSlots[usedCount++] = slot;
+    if (usedCount * 2 >= visited.length) {
+      grow();
+    }
+    return true;
+  }
+
+  private void grow() {
+    DataFlowNode[] old = visited;
+    visited = new DataFlowNode[old.length * 2];
+    usedSlots = Arrays.copyOf(usedSlots, visited.length / 2);
+    int mask = visited.length - 1;
+    for (int i = 0; i < usedCount; i++) {
+      DataFlowNode node = old[usedSlots[i]];
+      int slot = slot(node, mask);
+      while (visited[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      visited[slot] = node;
+      usedSlots[i] = slot;
+    }
+  }
+
+  private static int slot(DataFlowNode node, int mask) {
+    // Multiplying with an odd constant spreads consecutive ids over the table without collisions.
+    long id = node.getId();
+    return (int) ((id ^ (id >>> 32)) * 0x9E3779B9L) & mask;
+  }
+
+  private void addResult(DataFlowNode node) {
+    if (resultCount == results.length) {
+      results = Arrays.copyOf(results, resultCount * 2);
+    }
+    results[resultCount++] = node;
+  }
+
+}
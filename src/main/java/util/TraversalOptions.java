@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package util;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Limits for walking over a {@link model.DataFlowNode} graph, see {@link GraphUtil#walkUntil(model.DataFlowNode, Direction, java.util.function.Predicate,
+ * java.util.function.Predicate, TraversalOptions)}. All limits are unbounded by default.
+ *
+ * @author Daan
+ */
+public class TraversalOptions {
+
+  /** Options without any limit. */
+  public static final TraversalOptions UNBOUNDED = TraversalOptions.builder().build();
+
+  /** The maximum number of edges between the start node and a visited node. */
+  private final int maxDepth;
+  /** The maximum number of nodes to visit. */
+  private final int maxVisited;
+  /** The maximum number of nodes to return, the walk stops as soon as this number of nodes is found. */
+  private final int maxResults;
+  /** The maximum duration of the walk, null if there is no time limit. */
+  private final Duration timeout;
+
+  private TraversalOptions(Builder builder) {
+    this.maxDepth = builder.maxDepth;
+    this.maxVisited = builder.maxVisited;
+    this.maxResults = builder.maxResults;
+    this.timeout = builder.timeout;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public int getMaxVisited() {
+    return maxVisited;
+  }
+
+  public int getMaxResults() {
+    return maxResults;
+  }
+
+  public Optional<Duration> getTimeout() {
+    return Optional.ofNullable(timeout);
+  }
+
+  @Override
+  public String toString() {
+    return "TraversalOptions[maxDepth=" + maxDepth + ",maxVisited=" + maxVisited + ",maxResults=" + maxResults + ",timeout=" + timeout + "]";
+  }
+
+  /**
+   * Creates builder to build {@link TraversalOptions}.
+   *
+   * @return created builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Builder to build {@link TraversalOptions}.
+   */
+  public static final class Builder {
+    private int maxDepth = Integer.MAX_VALUE;
+    private int maxVisited = Integer.MAX_VALUE;
+    private int maxResults = Integer.MAX_VALUE;
+    private Duration timeout;
+
+    private Builder() {
+      // Builder should only be constructed via the parent class
+    }
+
+    public Builder maxDepth(int maxDepth) {
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    public Builder maxVisited(int maxVisited) {
+      this.maxVisited = maxVisited;
+      return this;
+    }
+
+    public Builder maxResults(int maxResults) {
+      this.maxResults = maxResults;
+      return this;
+    }
+
+    public Builder timeout(Duration timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
+    public TraversalOptions build() {
+      return new TraversalOptions(this);
+    }
+  }
+
+}
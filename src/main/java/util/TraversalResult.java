@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package util;
+
+import java.util.List;
+
+import model.DataFlowNode;
+
+/**
+ * The result of walking over the graph with {@link TraversalOptions}. If one of the limits was reached before the walk was completed, the result only contains
+ * the nodes found until then.
+ *
+ * @author Daan
+ */
+public class TraversalResult {
+
+  private final List<DataFlowNode> nodes;
+  private final int visited;
+  private final boolean budgetExceeded;
+
+  public TraversalResult(List<DataFlowNode> nodes, int visited, boolean budgetExceeded) {
+    this.nodes = nodes;
+    this.visited = visited;
+    this.budgetExceeded = budgetExceeded;
+  }
+
+  /**
+   * @return The found nodes, in the order in which they were found.
+   */
+  public List<DataFlowNode> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * @return The number of nodes visited during the walk.
+   */
+  public int getVisited() {
+    return visited;
+  }
+
+  /**
+   * @return True if the walk was stopped because one of the limits from the {@link TraversalOptions} was reached, in which case the result can be incomplete.
+   */
+  public boolean isBudgetExceeded() {
+    return budgetExceeded;
+  }
+
+  @Override
+  public String toString() {
+    return "TraversalResult[nodes=" + nodes.size() + ",visited=" + visited + ",budgetExceeded=" + budgetExceeded + "]";
+  }
+
+}
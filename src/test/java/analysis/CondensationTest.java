@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.CallGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+import model.NodeCall;
+
+/**
+ * Unit test for {@link Condensation}.
+ *
+ * @author Daan
+ */
+public class CondensationTest {
+
+  @Test
+  public void testOfNodes() {
+    // a -> b -> c -> b, c -> d, d -> d, e -> a
+    DataFlowNode a = node("a");
+    DataFlowNode b = node("b");
+    DataFlowNode c = node("c");
+    DataFlowNode d = node("d");
+    DataFlowNode e = node("e");
+    a.addEdgeTo(b);
+    b.addEdgeTo(c);
+    c.addEdgeTo(b);
+    c.addEdgeTo(d);
+    d.addEdgeTo(d);
+    e.addEdgeTo(a);
+
+    Condensation<DataFlowNode> condensation = Condensation.ofNodes(Arrays.asList(a, b, c, d, e));
+
+    Assert.assertEquals(4, condensation.size());
+    int bc = condensation.getComponent(b);
+    Assert.assertEquals(bc, condensation.getComponent(c));
+    Assert.assertEquals(names(b, c), names(condensation.getMembers(bc)));
+    Assert.assertTrue(condensation.isCyclic(bc));
+    Assert.assertTrue(condensation.isCyclic(condensation.getComponent(d)));
+    Assert.assertFalse(condensation.isCyclic(condensation.getComponent(a)));
+    Assert.assertArrayEquals(new int[] {condensation.getComponent(d)}, condensation.getSuccessors(bc));
+    // Reverse topological order
+    Assert.assertTrue(condensation.getComponent(d) < bc && bc < condensation.getComponent(a) && condensation.getComponent(a) < condensation.getComponent(e));
+
+    Assert.assertEquals(names(a, b, c, d), names(condensation.getReachable(a)));
+    Assert.assertEquals(-1, condensation.getComponent(node("x")));
+  }
+
+  @Test
+  public void testOfCallGraph() {
+    // Mutually recursive methods a and b, both calling c.
+    DataFlowMethod a = DataFlowMethod.builder().name("a").build();
+    DataFlowMethod b = DataFlowMethod.builder().name("b").build();
+    DataFlowMethod c = DataFlowMethod.builder().name("c").build();
+    CallGraph callGraph = new CallGraph();
+    callGraph.addCall(a, call(a, b));
+    callGraph.addCall(b, call(b, a));
+    callGraph.addCall(b, call(b, c));
+
+    Condensation<DataFlowMethod> condensation = Condensation.ofCallGraph(callGraph, Arrays.asList(a, b, c));
+
+    Assert.assertEquals(2, condensation.size());
+    // The methods that can be reached from each component, summarized once per component.
+    List<Set<String>> summaries = condensation.summarize(members -> members.stream().map(DataFlowMethod::getName).collect(Collectors.toSet()), (x, y) -> {
+      Set<String> union = new HashSet<>(x);
+      union.addAll(y);
+      return union;
+    });
+    Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), summaries.get(condensation.getComponent(a)));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("c")), summaries.get(condensation.getComponent(c)));
+  }
+
+  @Test
+  public void testOf_longChain() {
+    // Without cycles every node is its own component, the condensation should not need memory quadratic in the number of components.
+    int length = 100_000;
+    List<Integer> nodes = IntStream.range(0, length).boxed().collect(Collectors.toList());
+
+    Condensation<Integer> condensation =
+        Condensation.of(nodes, i -> i + 1 < length ? Arrays.asList(i + 1, i + 1) : Collections.<Integer> emptyList());
+
+    Assert.assertEquals(length, condensation.size());
+    int first = condensation.getComponent(0);
+    Assert.assertArrayEquals(new int[] {condensation.getComponent(1)}, condensation.getSuccessors(first));
+    Assert.assertFalse(condensation.isCyclic(first));
+  }
+
+  private DataFlowNode node(String name) {
+    return DataFlowNode.builder().name(name).build();
+  }
+
+  private NodeCall call(DataFlowMethod from, DataFlowMethod to) {
+    return NodeCall.builder().name(to.getName()).owner(from).calledMethod(to).build();
+  }
+
+  private Set<String> names(DataFlowNode... nodes) {
+    return names(Arrays.asList(nodes));
+  }
+
+  private Set<String> names(List<DataFlowNode> nodes) {
+    return nodes.stream().map(DataFlowNode::getName).collect(Collectors.toSet());
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.LiteralExpr;
+
+import common.SymbolSolverSetup;
+import factory.DataFlowGraphFactory;
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+import util.Direction;
+
+/**
+ * Unit test for {@link DataFlowAnalysis}.
+ *
+ * @author Daan
+ */
+public class DataFlowAnalysisTest {
+
+  /** The set of literals that can flow into a node, joined via union. */
+  private static final Lattice<Set<String>> LITERALS = new Lattice<Set<String>>() {
+    @Override
+    public Set<String> bottom() {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public Set<String> join(Set<String> a, Set<String> b) {
+      Set<String> joined = new TreeSet<>(a);
+      joined.addAll(b);
+      return joined;
+    }
+  };
+
+  @Before
+  public void setup() {
+    SymbolSolverSetup.setup();
+  }
+
+  @Test
+  public void testSolve_reachingLiterals() {
+    DataFlowGraph graph = new DataFlowGraphFactory().create(StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a) {\n" + //
+            "    int b = 1;\n" + //
+            "    int c = b;\n" + //
+            "    while (a > c) {\n" + //
+            "      c = c + 2;\n" + //
+            "    }\n" + //
+            "    return c;\n" + //
+            "  }\n" + //
+            "}"));
+    DataFlowMethod method = graph.getMethods().iterator().next();
+    DataFlowAnalysis<Set<String>> analysis = DataFlowAnalysis.<Set<String>> builder().lattice(LITERALS)
+        .transfer(LiteralExpr.class, (node, input) -> Collections.singleton(node.getName())).build();
+
+    DataFlowResult<Set<String>> result = analysis.solve(method);
+
+    DataFlowNode b = method.getNodes().stream().filter(n -> n.getRepresentedNode() instanceof VariableDeclarator && "b".equals(n.getName())).findFirst().get();
+    Assert.assertEquals(Collections.singleton("1"), result.getValue(b));
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("1", "2")), result.getValue(method.getReturnNode().get()));
+    Assert.assertEquals(Collections.emptySet(), result.getValue(method.getParameters().getNodes().get(0)));
+  }
+
+  @Test
+  public void testSolve_backward() {
+    DataFlowGraph graph = new DataFlowGraphFactory().create(StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a, int b) {\n" + //
+            "    int c = a;\n" + //
+            "    return c;\n" + //
+            "  }\n" + //
+            "}"));
+    DataFlowMethod method = graph.getMethods().iterator().next();
+    // Marks all nodes that can influence the return value.
+    DataFlowAnalysis<Set<String>> analysis = DataFlowAnalysis.<Set<String>> builder().lattice(LITERALS).direction(Direction.BACKWARD)
+        .entry(n -> n == method.getReturnNode().get() ? Collections.singleton("return") : Collections.emptySet()).build();
+
+    DataFlowResult<Set<String>> result = analysis.solve(method);
+
+    Assert.assertEquals(Collections.singleton("return"), result.getValue(method.getParameters().getNodes().get(0)));
+    Assert.assertEquals(Collections.emptySet(), result.getValue(method.getParameters().getNodes().get(1)));
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package analysis;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.javaparser.StaticJavaParser;
+
+import common.SymbolSolverSetup;
+import factory.DataFlowGraphFactory;
+import model.DataFlowGraph;
+
+/**
+ * Unit test for {@link TaintAnalysis}.
+ *
+ * @author Daan
+ */
+public class TaintAnalysisTest {
+
+  private static final String CLASS = //
+      "public class Claz {\n" + //
+          "  private StringBuilder sb = new StringBuilder();\n" + //
+          "  public void handle(String input, String other) {\n" + //
+          "    String a = pass(input);\n" + //
+          "    sb.append(a);\n" + //
+          "    sb.append(clean(other));\n" + //
+          "    sb.append(other.trim());\n" + //
+          "  }\n" + //
+          "  private String pass(String p) {\n" + //
+          "    return p;\n" + //
+          "  }\n" + //
+          "  private String clean(String c) {\n" + //
+          "    return \"\";\n" + //
+          "  }\n" + //
+          "}";
+
+  private DataFlowGraph graph;
+
+  @Before
+  public void setup() {
+    SymbolSolverSetup.setup();
+    graph = new DataFlowGraphFactory().create(StaticJavaParser.parse(CLASS));
+  }
+
+  @Test
+  public void testAnalyze() {
+    TaintAnalysis analysis = TaintAnalysis.builder() //
+        .source(TaintMatcher.node(n -> n.isInputParameter() && Arrays.asList("input", "other").contains(n.getName()))) //
+        .sink(TaintMatcher.call(null, "StringBuilder", "append")) //
+        .build();
+
+    List<String> findings = analysis.analyze(graph).stream().map(this::describe).sorted().collect(Collectors.toList());
+
+    Assert.assertEquals(Arrays.asList("input->a:append", "other->nodeCall_trim_return:append"), findings);
+  }
+
+  @Test
+  public void testAnalyze_sanitizer() {
+    TaintAnalysis analysis = TaintAnalysis.builder() //
+        .source(TaintMatcher.node(n -> n.isInputParameter() && Arrays.asList("input", "other").contains(n.getName()))) //
+        .sink(TaintMatcher.call(null, "StringBuilder", "append")) //
+        .sanitizer(TaintMatcher.call("java.lang", "String", "trim")) //
+        .build();
+
+    List<String> findings = analysis.analyze(graph).stream().map(this::describe).collect(Collectors.toList());
+
+    Assert.assertEquals(Arrays.asList("input->a:append"), findings);
+  }
+
+  private String describe(TaintFinding finding) {
+    return finding.getSource().getName() + "->" + finding.getSink().getName() + ":" + finding.getSinkCall().map(c -> c.getName()).orElse(null);
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import common.SymbolSolverSetup;
+import factory.DataFlowGraphFactory;
+import factory.ResolutionMode;
+import model.DataFlowGraph;
+
+/**
+ * Benchmark for the throughput of {@link DataFlowGraphFactory#create(CompilationUnit)} on a generated class with many fields and methods. Run the main method
+ * after compiling the test classes, for instance from the IDE.
+ *
+ * @author Daan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataFlowGraphFactoryBenchmark {
+
+  @Param({"10", "100"})
+  private int methods;
+
+  @Param({"DEFAULT", "SYNTACTIC"})
+  private ResolutionMode mode;
+
+  private CompilationUnit cu;
+  private DataFlowGraphFactory factory;
+
+  @Setup
+  public void setup() {
+    SymbolSolverSetup.setup();
+    factory = new DataFlowGraphFactory(mode);
+    cu = StaticJavaParser.parse(createClass(methods));
+  }
+
+  @Benchmark
+  public DataFlowGraph create() {
+    return factory.create(cu);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(DataFlowGraphFactoryBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  /**
+   * Creates a class where each method assigns fields, calls the previous method and contains some control flow.
+   */
+  static String createClass(int methods) {
+    StringBuilder sb = new StringBuilder("public class Generated {\n");
+    for (int i = 0; i < methods; i++) {
+      sb.append("  private int f" + i + ";\n");
+    }
+    for (int i = 0; i < methods; i++) {
+      sb.append("  public int met" + i + "(int a, int b) {\n");
+      sb.append("    int c = a + f" + i + ";\n");
+      sb.append("    if (b > c) {\n");
+      sb.append("      c = b;\n");
+      sb.append("    }\n");
+      sb.append("    for (int j = 0; j < a; j++) {\n");
+      sb.append("      c += j;\n");
+      sb.append("    }\n");
+      sb.append("    this.f" + i + " = c;\n");
+      sb.append(i > 0 ? "    return met" + (i - 1) + "(c, b);\n" : "    return c;\n");
+      sb.append("  }\n");
+    }
+    return sb.append("}").toString();
+  }
+
+}
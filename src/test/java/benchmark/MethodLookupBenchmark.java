@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+
+/**
+ * Benchmark for {@link DataFlowGraph#getMethod(Node)} on a class with many large methods. The {@code hashMap} benchmark shows the cost of the deep hashing
+ * and equality checks of the AST when using a {@link HashMap} keyed on the declaration, which grows with the size of the method bodies. The
+ * {@code reparsed} benchmark looks up declarations from a second parse of the same code, which are only found on their signature.
+ *
+ * @author Daan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodLookupBenchmark {
+
+  @Param({"50"})
+  private int methods;
+
+  /** The number of statements within each method. */
+  @Param({"10", "200"})
+  private int statements;
+
+  private List<MethodDeclaration> declarations;
+  private List<MethodDeclaration> reparsedDeclarations;
+  private DataFlowGraph graph;
+  private Map<Node, DataFlowMethod> hashMap;
+
+  @Setup
+  public void setup() {
+    String code = createClass(methods, statements);
+    declarations = StaticJavaParser.parse(code).findAll(MethodDeclaration.class);
+    reparsedDeclarations = StaticJavaParser.parse(code).findAll(MethodDeclaration.class);
+    graph = DataFlowGraph.builder().name("Generated").build();
+    hashMap = new HashMap<>();
+    for (MethodDeclaration declaration : declarations) {
+      DataFlowMethod method = DataFlowMethod.builder().name(declaration.getNameAsString()).representedNode(declaration).build();
+      graph.addMethod(method);
+      hashMap.put(declaration, method);
+    }
+  }
+
+  @Benchmark
+  public int graph() {
+    return lookup(graph::getMethod, declarations);
+  }
+
+  @Benchmark
+  public int reparsed() {
+    return lookup(graph::getMethod, reparsedDeclarations);
+  }
+
+  @Benchmark
+  public int hashMap() {
+    return lookup(hashMap::get, declarations);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MethodLookupBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  private static int lookup(Function<Node, DataFlowMethod> getter, List<MethodDeclaration> declarations) {
+    int found = 0;
+    for (MethodDeclaration declaration : declarations) {
+      if (getter.apply(declaration) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  private static String createClass(int methods, int statements) {
+    StringBuilder sb = new StringBuilder("public class Generated {\n");
+    for (int i = 0; i < methods; i++) {
+      sb.append("  public int met" + i + "(int a) {\n");
+      sb.append("    int c = a;\n");
+      for (int s = 0; s < statements; s++) {
+        sb.append("    c = c * " + s + " + a;\n");
+      }
+      sb.append("    return c;\n");
+      sb.append("  }\n");
+    }
+    return sb.append("}").toString();
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import model.DataFlowNode;
+import util.Direction;
+import util.GraphUtil;
+import util.TraversalContext;
+
+/**
+ * Benchmark comparing {@link GraphUtil#walkBackUntil(DataFlowNode, Predicate, Predicate)} with a reused {@link TraversalContext} for many small walks. Run with
+ * the gc profiler ({@code -prof gc}) to see the allocation rate per walk, which should be close to zero for the context.
+ *
+ * @author Daan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraversalBenchmark {
+
+  private static final Predicate<DataFlowNode> IS_INPUT = n -> n.getIn().isEmpty();
+  private static final Predicate<DataFlowNode> ALL = n -> true;
+
+  /** The number of levels of the walked graph. */
+  @Param({"4", "8"})
+  private int depth;
+
+  private DataFlowNode end;
+  private final TraversalContext context = new TraversalContext();
+
+  @Setup
+  public void setup() {
+    end = createGraph(depth);
+  }
+
+  @Benchmark
+  public List<DataFlowNode> graphUtil() {
+    return GraphUtil.walkBackUntil(end, IS_INPUT, ALL);
+  }
+
+  @Benchmark
+  public int traversalContext() {
+    return context.walkUntil(end, Direction.BACKWARD, IS_INPUT, ALL);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TraversalBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+  }
+
+  /**
+   * Creates a graph where each level has 4 nodes, each node having an edge to every node of the next level. This gives many paths to each node, so that
+   * visiting nodes only once matters.
+   *
+   * @return The single node at the end of the graph.
+   */
+  private static DataFlowNode createGraph(int depth) {
+    List<DataFlowNode> level = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      level.add(DataFlowNode.builder().name("n0_" + i).build());
+    }
+    for (int d = 1; d < depth; d++) {
+      List<DataFlowNode> next = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        DataFlowNode node = DataFlowNode.builder().name("n" + d + "_" + i).build();
+        level.forEach(n -> n.addEdgeTo(node));
+        next.add(node);
+      }
+      level = next;
+    }
+    DataFlowNode end = DataFlowNode.builder().name("end").build();
+    level.forEach(n -> n.addEdgeTo(end));
+    return end;
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.javaparser.ast.expr.NameExpr;
+
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+
+/**
+ * Unit test for the {@link GraphExporter}s.
+ *
+ * @author Daan
+ */
+public class GraphExporterTest {
+
+  private DataFlowNode s;
+  private DataFlowNode a;
+  private DataFlowGraph graph;
+  private DataFlowNode external;
+
+  @Before
+  public void setup() {
+    s = DataFlowNode.builder().name("s").type("String").representedNode(new NameExpr("s")).build();
+    a = DataFlowNode.builder().name("a\"<b>").representedNode(new NameExpr("a")).build();
+    external = DataFlowNode.builder().name("ext").build();
+    a.addEdgeTo(s);
+    s.addEdgeTo(external);
+    DataFlowMethod setS = DataFlowMethod.builder().name("setS").inputParameters(a).build();
+    graph = DataFlowGraph.builder().name("Claz").classPackage("pkg").fields(s).methods(setS).build();
+  }
+
+  @Test
+  public void testDot() throws IOException {
+    String expected = "digraph \"pkg.Claz\" {\n" + //
+        "  " + id(s) + " [label=\"s\", owner=\"pkg.Claz\", type=\"String\"];\n" + //
+        "  " + id(a) + " [label=\"a\\\"<b>\", owner=\"pkg.Claz.setS\"];\n" + //
+        "  " + id(external) + " [label=\"ext\"];\n" + //
+        "  " + id(s) + " -> " + id(external) + ";\n" + //
+        "  " + id(a) + " -> " + id(s) + ";\n" + //
+        "}\n";
+    Assert.assertEquals(expected, export(new DotExporter()));
+  }
+
+  @Test
+  public void testGraphML() throws IOException {
+    String result = export(new GraphMLExporter());
+    Assert.assertTrue(result,
+        result.contains("<node id=\"" + id(a) + "\"><data key=\"name\">a&quot;&lt;b&gt;</data><data key=\"owner\">pkg.Claz.setS</data></node>"));
+    Assert.assertTrue(result, result.contains("<edge source=\"" + id(a) + "\" target=\"" + id(s) + "\"/>"));
+    Assert.assertTrue(result, result.endsWith("</graph>\n</graphml>\n"));
+  }
+
+  @Test
+  public void testJsonLines() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JsonLinesExporter().export(graph, out);
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+    Assert.assertEquals(5, lines.length);
+    Assert.assertEquals("{\"node\":\"" + id(s) + "\",\"name\":\"s\",\"owner\":\"pkg.Claz\",\"type\":\"String\"}", lines[0]);
+    Assert.assertEquals("{\"node\":\"" + id(a) + "\",\"name\":\"a\\\"<b>\",\"owner\":\"pkg.Claz.setS\"}", lines[1]);
+    Assert.assertEquals("{\"edge\":[\"" + id(a) + "\",\"" + id(s) + "\"]}", lines[4]);
+  }
+
+  private String export(GraphExporter exporter) throws IOException {
+    StringWriter writer = new StringWriter();
+    exporter.export(graph, writer);
+    return writer.toString();
+  }
+
+  private String id(DataFlowNode node) {
+    return "n" + node.getId();
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package facade;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+
+import common.SymbolSolverSetup;
+import model.DataFlowGraph;
+import model.DataFlowProject;
+
+/**
+ * Unit test for {@link SourceRootScanner}.
+ *
+ * @author Daan
+ */
+public class SourceRootScannerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Before
+  public void setup() {
+    SymbolSolverSetup.setup();
+  }
+
+  @Test
+  public void testScan() throws IOException {
+    File root = folder.newFolder("src");
+    write(root, "a/A.java", "package a;\npublic class A {\n  int x;\n  public int get(int y) {\n    return x + y;\n  }\n}");
+    write(root, "a/b/B.java", "package a.b;\npublic class B {\n  public void set(int v) {\n    int w = v;\n  }\n}\nclass C {\n}");
+    write(root, "a/b/c/D.java", "package a.b.c;\npublic class D {\n  public void broken( {\n}");
+    write(root, "a/notes.txt", "not java");
+    List<SourceRootScanner.Progress> progress = new ArrayList<>();
+
+    DataFlowProject project =
+        SourceRootScanner.builder().sourceRoots(root.toPath()).parseThreads(2).queueCapacity(1).progressListener(progress::add).build().scan();
+
+    List<String> names = project.getGraphs().stream().map(DataFlowGraph::getQualifiedName).sorted().collect(Collectors.toList());
+    Assert.assertEquals(Arrays.asList("a.A", "a.b.B", "a.b.C"), names);
+    Assert.assertEquals(1, project.getGraph("a.A").get().getMethods().size());
+    Assert.assertEquals(3, progress.size());
+    SourceRootScanner.Progress last = progress.get(2);
+    Assert.assertEquals(3, last.getTotal());
+    Assert.assertEquals(3, last.getHandled());
+    Assert.assertEquals(2, last.getParsed());
+    Assert.assertEquals(1, last.getFailed());
+    Assert.assertEquals(3, last.getGraphs());
+  }
+
+  @Test(timeout = 10000)
+  public void testScan_parseError() throws IOException {
+    File root = folder.newFolder("src");
+    write(root, "a/A.java", "package a;\npublic class A {\n}");
+    write(root, "a/B.java", "package a;\npublic class B {\n}");
+    ParserConfiguration configuration = new ParserConfiguration();
+    configuration.getPostProcessors().add((result, config) -> {
+      if (result.getResult().filter(cu -> !cu.findAll(ClassOrInterfaceDeclaration.class, c -> c.getNameAsString().equals("B")).isEmpty()).isPresent()) {
+        throw new StackOverflowError();
+      }
+    });
+    List<SourceRootScanner.Progress> progress = new ArrayList<>();
+
+    DataFlowProject project = SourceRootScanner.builder().sourceRoots(root.toPath()).parseThreads(2).parserConfiguration(configuration)
+        .progressListener(progress::add).build().scan();
+
+    Assert.assertEquals(Arrays.asList("a.A"), project.getGraphs().stream().map(DataFlowGraph::getQualifiedName).collect(Collectors.toList()));
+    Assert.assertEquals(2, progress.size());
+    Assert.assertEquals(1, progress.get(1).getFailed());
+  }
+
+  @Test
+  public void testDiscover() throws IOException {
+    File first = folder.newFolder("first");
+    File second = folder.newFolder("second");
+    Path b = write(first, "x/B.java", "class B {}");
+    Path a = write(first, "A.java", "class A {}");
+    Path c = write(second, "y/z/C.java", "class C {}");
+
+    Path missing = folder.getRoot().toPath().resolve("missing");
+
+    List<Path> files = SourceRootScanner.builder().sourceRoots(first.toPath(), second.toPath(), missing).build().discover();
+
+    Assert.assertEquals(Arrays.asList(a, b, c), files);
+  }
+
+  @Test
+  public void testScan_empty() throws IOException {
+    DataFlowProject project = SourceRootScanner.builder().sourceRoots(folder.newFolder("empty").toPath()).build().scan();
+
+    Assert.assertTrue(project.getGraphs().isEmpty());
+  }
+
+  private Path write(File root, String relativePath, String code) throws IOException {
+    Path file = root.toPath().resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package facade;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+import model.NodeCall;
+
+/**
+ * Unit test for {@link WatchSession}.
+ *
+ * @author Daan
+ */
+public class WatchSessionTest {
+  private static final String B = "package b;\npublic class B {\n  public int get(int y) {\n    return y%s;\n  }\n}";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File root;
+  private Path fileB;
+  private WatchSession session;
+
+  @Before
+  public void setup() throws IOException {
+    root = folder.newFolder("src");
+    write("a/A.java", "package a;\nimport b.B;\npublic class A {\n  B b;\n  public int met(int x) {\n    return b.get(x);\n  }\n}");
+    fileB = write("b/B.java", String.format(B, ""));
+    // The watch thread never updates within a test, so that it cannot interfere with the updates done by the test itself, only testWatch waits for it.
+    session = WatchSession.builder().sourceRoots(root.toPath()).debounceMillis(TimeUnit.HOURS.toMillis(1)).build().start();
+  }
+
+  @After
+  public void tearDown() {
+    session.close();
+  }
+
+  @Test
+  public void testStart() {
+    DataFlowGraph b = session.getProject().getGraph("b.B").get();
+
+    Assert.assertSame(b.getMethods().iterator().next(), getCall().getCalledMethod().get());
+  }
+
+  @Test
+  public void testUpdate() throws IOException {
+    DataFlowGraph oldB = session.getProject().getGraph("b.B").get();
+    DataFlowGraph a = session.getProject().getGraph("a.A").get();
+    write("b/B.java", String.format(B, " + 1"));
+
+    WatchSession.ChangeEvent event = session.update(Collections.singletonList(fileB));
+
+    DataFlowGraph newB = session.getProject().getGraph("b.B").get();
+    Assert.assertNotSame(oldB, newB);
+    Assert.assertEquals(Arrays.asList(oldB), event.getRemovedGraphs());
+    Assert.assertEquals(Arrays.asList(newB), event.getAddedGraphs());
+    Assert.assertEquals(Arrays.asList(a), event.getRelinkedGraphs());
+    Assert.assertTrue("Only the body changed", event.getInvalidatedGraphs().isEmpty());
+    Assert.assertSame(newB.getMethods().iterator().next(), getCall().getCalledMethod().get());
+    Assert.assertTrue(oldB.getMethods().iterator().next().getParameters().getNodes().get(0).getIn().isEmpty());
+  }
+
+  @Test
+  public void testUpdate_sameFileTwice() throws IOException {
+    Path fileA = root.toPath().resolve("a/A.java").toAbsolutePath();
+    DataFlowMethod get = session.getProject().getGraph("b.B").get().getMethods().iterator().next();
+    DataFlowNode param = get.getParameters().getNodes().get(0);
+    DataFlowNode returnNode = get.getReturnNode().get();
+    int in = param.getIn().size();
+    int out = returnNode.getOut().size();
+
+    session.update(Collections.singletonList(fileA));
+    session.update(Collections.singletonList(fileA));
+
+    Assert.assertEquals(1, in);
+    Assert.assertEquals(in, param.getIn().size());
+    Assert.assertEquals(out, returnNode.getOut().size());
+    Assert.assertSame(get, getCall().getCalledMethod().get());
+  }
+
+  @Test
+  public void testUpdate_invalidated() throws IOException {
+    DataFlowGraph oldA = session.getProject().getGraph("a.A").get();
+    write("b/B.java", "package b;\npublic class B {\n  public long get(long y) {\n    return y;\n  }\n}");
+
+    WatchSession.ChangeEvent event = session.update(Collections.singletonList(fileB));
+
+    DataFlowGraph newA = session.getProject().getGraph("a.A").get();
+    DataFlowGraph newB = session.getProject().getGraph("b.B").get();
+    Assert.assertEquals(Arrays.asList(oldA), event.getInvalidatedGraphs());
+    Assert.assertTrue(event.getAddedGraphs().contains(newA));
+    Assert.assertTrue(event.getRelinkedGraphs().isEmpty());
+    Assert.assertNotSame(oldA, newA);
+    Assert.assertSame(newB.getMethods().iterator().next(), getCall().getCalledMethod().get());
+    Assert.assertEquals(Collections.singleton("get(long): long"), newA.getDependencies().get("b.B"));
+  }
+
+  @Test
+  public void testUpdate_returnTypeChanged() throws IOException {
+    DataFlowGraph oldA = session.getProject().getGraph("a.A").get();
+    write("b/B.java", "package b;\npublic class B {\n  public long get(int y) {\n    return y;\n  }\n}");
+
+    WatchSession.ChangeEvent event = session.update(Collections.singletonList(fileB));
+
+    Assert.assertEquals(Arrays.asList(oldA), event.getInvalidatedGraphs());
+    Assert.assertEquals(Collections.singleton("get(int): long"), session.getProject().getGraph("a.A").get().getDependencies().get("b.B"));
+  }
+
+  @Test
+  public void testUpdate_deleted() throws IOException {
+    DataFlowGraph oldA = session.getProject().getGraph("a.A").get();
+    Files.delete(fileB);
+
+    WatchSession.ChangeEvent event = session.update(Collections.singletonList(fileB));
+
+    Assert.assertFalse(session.getProject().getGraph("b.B").isPresent());
+    Assert.assertEquals(Arrays.asList(oldA), event.getInvalidatedGraphs());
+    Assert.assertEquals(2, event.getRemovedGraphs().size());
+    Assert.assertEquals(Arrays.asList(session.getProject().getGraph("a.A").get()), event.getAddedGraphs());
+    Assert.assertTrue("The call can no longer be resolved", getMet().getNodeCalls().isEmpty());
+  }
+
+  @Test
+  public void testWatch() throws IOException, InterruptedException {
+    session.close();
+    session = WatchSession.builder().sourceRoots(root.toPath()).debounceMillis(50).build().start();
+    BlockingQueue<WatchSession.ChangeEvent> events = new LinkedBlockingQueue<>();
+    session.subscribe(events::add);
+
+    write("c/C.java", "package c;\npublic class C {\n}");
+
+    WatchSession.ChangeEvent event = events.poll(30, TimeUnit.SECONDS);
+    Assert.assertNotNull("Expected a change event", event);
+    Assert.assertEquals("c.C", event.getAddedGraphs().get(0).getQualifiedName());
+    Assert.assertTrue(session.getProject().getGraph("c.C").isPresent());
+  }
+
+  private NodeCall getCall() {
+    return getMet().getNodeCalls().get(0);
+  }
+
+  private DataFlowMethod getMet() {
+    return session.getProject().getGraph("a.A").get().getMethods().iterator().next();
+  }
+
+  private Path write(String relativePath, String code) throws IOException {
+    Path file = root.toPath().resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -17,11 +17,15 @@
  */
 package factory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -39,18 +43,26 @@ import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.expr.AssignExpr;
 import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
 import com.github.javaparser.ast.expr.SimpleName;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.ReturnStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
 import com.google.common.base.Functions;
 
+import analysis.Condensation;
 import common.SymbolSolverSetup;
+import model.DataFlowEdge;
 import model.DataFlowGraph;
 import model.DataFlowMethod;
 import model.DataFlowNode;
 import model.DataFlowNodeTest;
 import model.NodeCall;
 import model.ParameterList;
+import util.GraphUtil;
 
 /**
  * Unit test for {@link DataFlowGraphFactory}.
@@ -145,6 +157,351 @@ public class DataFlowGraphFactoryTest {
     executeAndVerify(cu, expected);
   }
 
+  @Test
+  public void testCreate_setterAssignFieldThreeTimes() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  private String s;\n" + //
+            "  public void setS(String a, String b, String c) {\n" + //
+            "    this.s = a;\n" + //
+            "    this.s = b;\n" + //
+            "    this.s = c;\n" + //
+            "  }\n" + //
+            "}"); //
+    DataFlowNode s = dfnTest.createField(cu, "s");
+    DataFlowNode a = dfnTest.createParameter(cu, "a");
+    DataFlowNode b = dfnTest.createParameter(cu, "b");
+    DataFlowNode c = dfnTest.createParameter(cu, "c");
+    DataFlowNode a_1 = dfnTest.createNode(cu, "a", NameExpr.class, 0);
+    DataFlowNode b_1 = dfnTest.createNode(cu, "b", NameExpr.class, 1);
+    DataFlowNode c_1 = dfnTest.createNode(cu, "c", NameExpr.class, 2);
+    DataFlowNode setS_s1 = dfnTest.createNode(cu, "setS.s", AssignExpr.class, 0);
+    DataFlowNode setS_s2 = dfnTest.createNode(cu, "setS.s.2", AssignExpr.class, 1);
+    DataFlowNode setS_s3 = dfnTest.createNode(cu, "setS.s.3", AssignExpr.class, 2);
+
+    connectNodesInSquence(a, a_1, setS_s1);
+    connectNodesInSquence(b, b_1, setS_s2);
+    connectNodesInSquence(c, c_1, setS_s3, s);
+
+    DataFlowMethod setS = createMethod("setS").inputParameters(a, b, c).nodes(a_1, b_1, c_1, setS_s1, setS_s2, setS_s3).changedFields(s).build();
+    DataFlowGraph expected = DataFlowGraph.builder().name("Claz").fields(s).methods(setS).build();
+
+    executeAndVerify(cu, expected);
+  }
+
+  @Test
+  public void testCreate_reassignLocal() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a, int c) {\n" + //
+            "    int b = a;\n" + //
+            "    b = c;\n" + //
+            "    return b;\n" + //
+            "  }\n" + //
+            "}"); //
+    DataFlowNode a = dfnTest.createParameter(cu, "a");
+    DataFlowNode c = dfnTest.createParameter(cu, "c");
+    DataFlowNode a_1 = dfnTest.createNode(cu, "a", NameExpr.class, 0);
+    DataFlowNode b = dfnTest.createNode(cu, "b", VariableDeclarator.class);
+    DataFlowNode c_1 = dfnTest.createNode(cu, "c", NameExpr.class, 2);
+    DataFlowNode met_b = dfnTest.createNode(cu, "met.b", AssignExpr.class);
+    DataFlowNode b_1 = dfnTest.createNode(cu, "b", NameExpr.class, 3);
+    DataFlowNode specificReturn = dfnTest.createSpecificReturn(cu, "met");
+    DataFlowNode genericReturn = dfnTest.createMethodReturn(cu, "met");
+
+    connectNodesInSquence(a, a_1, b);
+    // The return only depends on the last assigned value of b, not on its declaration.
+    connectNodesInSquence(c, c_1, met_b, b_1, specificReturn, genericReturn);
+
+    DataFlowMethod met = createMethod("met").inputParameters(a, c).nodes(a_1, b, c_1, met_b, b_1, specificReturn).returnNode(genericReturn).build();
+    DataFlowGraph expected = DataFlowGraph.builder().name("Claz").methods(met).build();
+
+    DataFlowGraph graph = executeAndVerify(cu, expected);
+    DataFlowNode resultB = graph.query().getNodesByKind(VariableDeclarator.class).get(0);
+    Assert.assertTrue("Declaration of b should not flow anywhere after it is overwritten", resultB.getOut().isEmpty());
+  }
+
+  @Test
+  public void testCreate_ifMerge() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a, int c, boolean x) {\n" + //
+            "    int b = a;\n" + //
+            "    if (x) {\n" + //
+            "      b = c;\n" + //
+            "    }\n" + //
+            "    return b;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowMethod met = factory.create(cu).getMethods().iterator().next();
+
+    Assert.assertEquals(1, met.getMergeNodes().size());
+    DataFlowNode merged = met.getMergeNodes().get(0);
+    Assert.assertEquals("met.b.2", merged.getName());
+    Assert.assertTrue(merged.getRepresentedNode() instanceof IfStmt);
+    Assert.assertEquals(Arrays.asList("met.b", "b"), merged.getIn().stream().map(e -> e.getFrom().getName()).collect(Collectors.toList()));
+    DataFlowNode returnedB = met.getNode(cu.findAll(ReturnStmt.class).get(0).getExpression().get());
+    Assert.assertEquals(Arrays.asList(merged), returnedB.getIn().stream().map(DataFlowEdge::getFrom).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testCreate_whileLoop() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a) {\n" + //
+            "    int s = 0;\n" + //
+            "    while (s < a) {\n" + //
+            "      s = s + a;\n" + //
+            "    }\n" + //
+            "    return s;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowMethod met = factory.create(cu).getMethods().iterator().next();
+
+    Assert.assertEquals(1, met.getMergeNodes().size());
+    DataFlowNode merged = met.getMergeNodes().get(0);
+    Assert.assertEquals("met.s.2", merged.getName());
+    Assert.assertTrue(merged.getRepresentedNode() instanceof WhileStmt);
+    Assert.assertEquals(Arrays.asList("s", "met.s"), merged.getIn().stream().map(e -> e.getFrom().getName()).collect(Collectors.toList()));
+
+    // The reads in the condition, in the body and after the loop all receive the value of the previous iteration.
+    List<DataFlowNode> readS = cu.findAll(NameExpr.class, n -> n.getNameAsString().equals("s")).stream().map(met::getNode).filter(n -> n != null)
+        .collect(Collectors.toList());
+    Assert.assertEquals(3, readS.size());
+    Assert.assertEquals(readS, merged.getOut().stream().map(DataFlowEdge::getTo).collect(Collectors.toList()));
+    DataFlowNode declaredS = met.getNode(cu.findAll(VariableDeclarator.class).get(0));
+    Assert.assertEquals(Arrays.asList(merged), declaredS.getOut().stream().map(DataFlowEdge::getTo).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testCreate_controlFlowConstructs() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "import java.util.List;\n" + //
+            "import java.util.function.Function;\n" + //
+            "public class Claz {\n" + //
+            "  public int met(int a, List<Integer> l) {\n" + //
+            "    int s = a > 0 ? a : -a;\n" + //
+            "    for (int i = 0; i < a; i++) {\n" + //
+            "      s += i;\n" + //
+            "    }\n" + //
+            "    for (int e : l) {\n" + //
+            "      s = s * e;\n" + //
+            "    }\n" + //
+            "    do {\n" + //
+            "      s--;\n" + //
+            "    } while (s > 100);\n" + //
+            "    switch (a) {\n" + //
+            "    case 1:\n" + //
+            "      s = 1;\n" + //
+            "    case 2:\n" + //
+            "      s = 2;\n" + //
+            "      break;\n" + //
+            "    default:\n" + //
+            "      return s;\n" + //
+            "    }\n" + //
+            "    try {\n" + //
+            "      s = Integer.parseInt(\"1\");\n" + //
+            "    } catch (NumberFormatException ex) {\n" + //
+            "      s = 3;\n" + //
+            "    }\n" + //
+            "    Function<Integer, Integer> f = x -> x + a;\n" + //
+            "    return s;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowMethod met = factory.create(cu).getMethods().iterator().next();
+
+    // for loop for s and i, foreach loop, do-while loop, fall through from case 1 to 2, catch clause and the end of the try statement. The switch itself
+    // does not need a merge since the default case returns.
+    Assert.assertEquals(Arrays.asList("met.s.2", "met.i.2", "met.s.4", "met.s.6", "met.s.8", "met.s.11", "met.s.13"),
+        met.getMergeNodes().stream().map(DataFlowNode::getName).collect(Collectors.toList()));
+    DataFlowNode lambda = met.getNode(cu.findAll(LambdaExpr.class).get(0));
+    Assert.assertEquals(Arrays.asList("x + a"), lambda.getIn().stream().map(e -> e.getFrom().getName()).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testCreate_break() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int loop(int a, boolean x) {\n" + //
+            "    int r = 0;\n" + //
+            "    while (x) {\n" + //
+            "      if (a > 0) {\n" + //
+            "        r = a;\n" + //
+            "        break;\n" + //
+            "      }\n" + //
+            "      x = false;\n" + //
+            "    }\n" + //
+            "    return r;\n" + //
+            "  }\n" + //
+            "  public int swi(int a, int k) {\n" + //
+            "    int r = 0;\n" + //
+            "    switch (k) {\n" + //
+            "    case 1:\n" + //
+            "      if (a > 0) {\n" + //
+            "        r = a;\n" + //
+            "        break;\n" + //
+            "      }\n" + //
+            "      r = 2;\n" + //
+            "      break;\n" + //
+            "    default:\n" + //
+            "    }\n" + //
+            "    return r;\n" + //
+            "  }\n" + //
+            "  public int labeled(int a, boolean x) {\n" + //
+            "    int r = 0;\n" + //
+            "    outer: for (int i = 0; i < 3; i++) {\n" + //
+            "      while (x) {\n" + //
+            "        r = a;\n" + //
+            "        break outer;\n" + //
+            "      }\n" + //
+            "      r = 1;\n" + //
+            "    }\n" + //
+            "    return r;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowGraph graph = factory.create(cu);
+
+    for (DataFlowMethod method : graph.getMethods()) {
+      Assert.assertTrue("a should flow to the return of " + method.getName(), returnsParameter(method, 0));
+    }
+  }
+
+  @Test
+  public void testCreate_continue() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a, boolean x) {\n" + //
+            "    int r = 0;\n" + //
+            "    int p = 0;\n" + //
+            "    for (int i = 0; i < 3; i++) {\n" + //
+            "      if (x) {\n" + //
+            "        p = a;\n" + //
+            "        continue;\n" + //
+            "      }\n" + //
+            "      r = p;\n" + //
+            "    }\n" + //
+            "    return r;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowMethod met = factory.create(cu).getMethods().iterator().next();
+
+    Assert.assertTrue(returnsParameter(met, 0));
+  }
+
+  @Test
+  public void testCreate_tryIntermediateVersions() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  public int met(int a) {\n" + //
+            "    int r = 0;\n" + //
+            "    try {\n" + //
+            "      r = a;\n" + //
+            "      r = foo();\n" + //
+            "    } catch (RuntimeException e) {\n" + //
+            "      return r;\n" + //
+            "    }\n" + //
+            "    return 0;\n" + //
+            "  }\n" + //
+            "  private int foo() {\n" + //
+            "    return 1;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowMethod met = factory.create(cu).getMethods().stream().filter(m -> m.getName().equals("met")).findFirst().get();
+
+    // foo can throw after r = a, so the catch clause receives the versions from before the try block, from r = a and from r = foo().
+    DataFlowNode merged = met.getMergeNodes().get(0);
+    Assert.assertEquals(Arrays.asList("r", "met.r", "met.r.2"), merged.getIn().stream().map(e -> e.getFrom().getName()).collect(Collectors.toList()));
+    Assert.assertTrue(returnsParameter(met, 0));
+  }
+
+  @Test
+  public void testCreateAll_innerClasses() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "package a.b;\n" + //
+            "public class Claz {\n" + //
+            "  private int s;\n" + //
+            "  public int get() {\n" + //
+            "    Runnable r = new Runnable() {\n" + //
+            "      public void run() {\n" + //
+            "        class Local {\n" + //
+            "        }\n" + //
+            "      }\n" + //
+            "    };\n" + //
+            "    return s;\n" + //
+            "  }\n" + //
+            "  class Inner {\n" + //
+            "    public int read() {\n" + //
+            "      return get() + s;\n" + //
+            "    }\n" + //
+            "  }\n" + //
+            "}\n" + //
+            "class Other {\n" + //
+            "}"); //
+
+    List<DataFlowGraph> graphs = factory.createAll(cu);
+
+    Assert.assertEquals(Arrays.asList("a.b.Claz", "a.b.Other"), graphs.stream().map(DataFlowGraph::getQualifiedName).collect(Collectors.toList()));
+    DataFlowGraph claz = graphs.get(0);
+    Assert.assertEquals(Arrays.asList("a.b.Claz.Inner", "a.b.Claz.1"),
+        claz.getInnerGraphs().stream().map(DataFlowGraph::getQualifiedName).collect(Collectors.toList()));
+    DataFlowGraph anonymous = claz.getInnerGraphs().get(1);
+    Assert.assertEquals(Arrays.asList("a.b.Claz.1.Local"), anonymous.getInnerGraphs().stream().map(DataFlowGraph::getQualifiedName).collect(Collectors.toList()));
+    Assert.assertEquals(claz, anonymous.getOwnerGraph().get());
+    Assert.assertEquals(Arrays.asList("run"), anonymous.getMethods().stream().map(DataFlowMethod::getName).collect(Collectors.toList()));
+
+    DataFlowGraph inner = claz.getInnerGraphs().get(0);
+    DataFlowMethod read = inner.getMethods().iterator().next();
+    DataFlowNode field = claz.getFields().get(0);
+    Assert.assertTrue("Field of the outer class should flow into the inner class",
+        field.getOut().stream().map(DataFlowEdge::getTo).anyMatch(n -> n.getOwner().map(o -> o == read).orElse(false)));
+    Assert.assertEquals(Arrays.asList(claz.getMethods().iterator().next()), read.getNodeCalls().stream().map(NodeCall::getCalledMethod).map(Optional::get)
+        .collect(Collectors.toList()));
+    Assert.assertTrue(claz.query().getMethods("read").contains(read));
+  }
+
+  @Test
+  public void testCreate_constructorsAndInitializers() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  private int a = 1;\n" + //
+            "  private int b;\n" + //
+            "  {\n" + //
+            "    b = a;\n" + //
+            "  }\n" + //
+            "  public Claz() {\n" + //
+            "    this(2);\n" + //
+            "  }\n" + //
+            "  public Claz(int c) {\n" + //
+            "    this.a = c;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowGraph graph = factory.create(cu);
+
+    Assert.assertTrue(graph.getMethods().isEmpty());
+    Assert.assertEquals(Arrays.asList("Claz", "Claz"), graph.getConstructors().stream().map(DataFlowMethod::getName).collect(Collectors.toList()));
+    Assert.assertEquals(Arrays.asList("a_initializer", "initializer"), graph.getInitializers().stream().map(DataFlowMethod::getName).collect(Collectors.toList()));
+
+    DataFlowNode a = graph.getFields().get(0);
+    DataFlowNode b = graph.getFields().get(1);
+    Assert.assertEquals(Arrays.asList("1", "Claz.a"), a.getIn().stream().map(e -> e.getFrom().getName()).collect(Collectors.toList()));
+    Assert.assertEquals(Arrays.asList(a), graph.getInitializers().get(0).getChangedFields());
+    Assert.assertEquals(Arrays.asList(b), graph.getInitializers().get(1).getChangedFields());
+
+    // The call to this(2) is connected to the second constructor.
+    DataFlowMethod defaultConstructor = graph.getConstructors().get(0);
+    DataFlowMethod constructor = graph.getConstructors().get(1);
+    Assert.assertEquals(Optional.of(constructor), defaultConstructor.getNodeCalls().get(0).getCalledMethod());
+    Assert.assertEquals(Arrays.asList(constructor), new ArrayList<>(graph.getCallGraph().getCallees(defaultConstructor)));
+    Assert.assertEquals(constructor, graph.getMethod(constructor.getRepresentedNode()));
+  }
+
   @Test
   public void testCreate_setterAssignFieldToField() {
     CompilationUnit cu = StaticJavaParser.parse(//
@@ -226,6 +583,61 @@ public class DataFlowGraphFactoryTest {
     executeAndVerify(cu, expected);
   }
 
+  @Test
+  public void testCreate_callGraph() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  StringBuilder sb = new StringBuilder(); \n" + //
+            "  public int caller(int a) {\n" + //
+            "    sb.charAt(a);\n" + //
+            "    return called(a);\n" + //
+            "  }\n" + //
+            "  public int called(int b) {\n" + //
+            "    return b;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowGraph graph = factory.create(cu);
+
+    DataFlowMethod caller = graph.query().getMethods("caller").get(0);
+    DataFlowMethod called = graph.query().getMethods("called").get(0);
+    Assert.assertEquals(Arrays.asList(called), graph.getCallGraph().getCallees(caller));
+    Assert.assertEquals(Arrays.asList(caller), graph.getCallGraph().getCallers(called));
+    Assert.assertEquals(1, graph.getCallGraph().getUnresolvedCallsToClass("java.lang.AbstractStringBuilder").size());
+  }
+
+  @Test
+  public void testCreate_callGraphInnerClasses() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  private Inner inner = new Inner();\n" + //
+            "  public int m(int a) {\n" + //
+            "    return inner.n(a);\n" + //
+            "  }\n" + //
+            "  public Runnable r() {\n" + //
+            "    return new Runnable() {\n" + //
+            "      public void run() {\n" + //
+            "        m(1);\n" + //
+            "      }\n" + //
+            "    };\n" + //
+            "  }\n" + //
+            "  class Inner {\n" + //
+            "    int n(int b) {\n" + //
+            "      return m(b);\n" + //
+            "    }\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowGraph graph = factory.create(cu);
+
+    DataFlowMethod m = graph.query().getMethods("m").get(0);
+    DataFlowMethod n = graph.getInnerGraphs().get(0).getMethods().iterator().next();
+    DataFlowMethod run = graph.getInnerGraphs().get(1).getMethods().iterator().next();
+    Assert.assertEquals(new HashSet<>(Arrays.asList(n, run)), new HashSet<>(graph.getCallGraph().getCallers(m)));
+    Assert.assertEquals(Arrays.asList(m), graph.getInnerGraphs().get(0).getCallGraph().getCallers(n));
+    Assert.assertEquals("m and n are mutually recursive", 1, Condensation.ofCallGraph(graph.getCallGraph(), Arrays.asList(m, n)).size());
+  }
+
   @Test
   public void testCreate_createVar() {
     CompilationUnit cu = StaticJavaParser.parse(//
@@ -270,7 +682,8 @@ public class DataFlowGraphFactoryTest {
 
     DataFlowNode field = dfnTest.createField(cu, "sb");
     DataFlowNode fieldUsage = dfnTest.createNode(cu, "sb", NameExpr.class, 0);
-    this.connectNodesInSquence(field, fieldUsage);
+    DataFlowNode fieldInit = dfnTest.createNode(cu, "nodeCall_StringBuilder_return", ObjectCreationExpr.class);
+    this.connectNodesInSquence(fieldInit, field, fieldUsage);
 
     DataFlowMethod caller = createMethod("met").inputParameters(a).nodeCalls(createNodeCall("append", sb_output, a_1)).nodes(specificReturnCaller, fieldUsage)
         .returnNode(genericReturnCaller).build();
@@ -302,8 +715,10 @@ public class DataFlowGraphFactoryTest {
     DataFlowNode sbUsage = dfnTest.createNode(cu, "sb", NameExpr.class, 1);
     DataFlowNode sb1Usage = dfnTest.createNode(cu, "sb1", NameExpr.class, 0);
     sbUsage.setOwner(sb1_call);
-    this.connectNodesInSquence(sb, sbUsage);
-    this.connectNodesInSquence(sb1, sb1Usage);
+    DataFlowNode sbInit = dfnTest.createNode(cu, "nodeCall_StringBuilder_return", ObjectCreationExpr.class, 0);
+    DataFlowNode sb1Init = dfnTest.createNode(cu, "nodeCall_StringBuilder_return", ObjectCreationExpr.class, 1);
+    this.connectNodesInSquence(sbInit, sb, sbUsage);
+    this.connectNodesInSquence(sb1Init, sb1, sb1Usage);
 
     DataFlowNode a = dfnTest.createParameter(cu, "a");
     DataFlowNode specificReturnCaller = dfnTest.createSpecificReturn(cu, "caller");
@@ -320,6 +735,76 @@ public class DataFlowGraphFactoryTest {
     executeAndVerify(cu, expected);
   }
 
+  @Test
+  public void testCreate_dependencies() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "public class Claz {\n" + //
+            "  StringBuilder sb = new StringBuilder(); \n" + //
+            "  public StringBuilder caller(String a) {\n" + //
+            "    common.SymbolSolverSetup.setup();\n" + //
+            "    int max = Integer.MAX_VALUE;\n" + //
+            "    return sb.append(a);\n" + //
+            "  }\n" + //
+            "  public void own() {\n" + //
+            "    caller(\"b\");\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowGraph graph = factory.create(cu);
+
+    Map<String, Set<String>> expected = new HashMap<>();
+    expected.put("java.lang.StringBuilder", new HashSet<>(Arrays.asList("StringBuilder()", "append(String): StringBuilder")));
+    expected.put("common.SymbolSolverSetup", new HashSet<>(Arrays.asList("setup(): void")));
+    expected.put("java.lang.Integer", new HashSet<>(Arrays.asList("#MAX_VALUE: int")));
+    Assert.assertEquals(expected, graph.getDependencies());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("#sb: StringBuilder", "caller(String): StringBuilder", "own(): void")), graph.getDeclarations());
+  }
+
+  @Test
+  public void testCreate_syntacticResolution() {
+    CompilationUnit cu = StaticJavaParser.parse(//
+        "import java.util.List;\n" + //
+            "import java.util.function.Function;\n" + //
+            "public class Claz {\n" + //
+            "  int s;\n" + //
+            "  int t;\n" + //
+            "  public int met(int a, List<Integer> l) {\n" + //
+            "    t = a;\n" + //
+            "    for (int e : l) {\n" + //
+            "      int s = e;\n" + //
+            "      this.s = s + t;\n" + //
+            "    }\n" + //
+            "    {\n" + //
+            "      int s = a;\n" + //
+            "      t = s;\n" + //
+            "    }\n" + //
+            "    try {\n" + //
+            "      s = Integer.parseInt(\"1\");\n" + //
+            "    } catch (NumberFormatException a2) {\n" + //
+            "      s = a;\n" + //
+            "    }\n" + //
+            "    Function<Integer, Integer> f = s -> s + a;\n" + //
+            "    return s;\n" + //
+            "  }\n" + //
+            "}"); //
+
+    DataFlowGraph expected = factory.create(cu);
+    DataFlowGraph graph = new DataFlowGraphFactory(ResolutionMode.SYNTACTIC).create(cu);
+
+    assertGraph(expected, graph);
+    // The local variables and the lambda parameter shadowing the field s do not create versions of the field.
+    for (DataFlowGraph g : Arrays.asList(expected, graph)) {
+      Assert.assertEquals(Arrays.asList("met.s.6", "met.t.2"),
+          g.getFields().stream().flatMap(f -> f.getIn().stream()).map(e -> e.getFrom().getName()).collect(Collectors.toList()));
+    }
+  }
+
+  private boolean returnsParameter(DataFlowMethod method, int index) {
+    DataFlowNode parameter = method.getParameters().getParameters().get(index);
+    DataFlowNode returned = method.getNode(method.getRepresentedNode().findFirst(ReturnStmt.class).get().getExpression().get());
+    return GraphUtil.reaches(parameter, returned, n -> true);
+  }
+
   private DataFlowGraph createGraph(CompilationUnit cu, List<DataFlowNode> s, DataFlowMethod... setS) {
     ClassOrInterfaceDeclaration representedNode = cu.findFirst(ClassOrInterfaceDeclaration.class).get();
     return DataFlowGraph.builder().representedNode(representedNode).name(representedNode.getNameAsString()).fields(s).methods(setS).build();
@@ -358,6 +843,7 @@ public class DataFlowGraphFactoryTest {
     dfnTest.assertNodesEqual(expected.getFields(), graph.getFields()).ifPresent(m -> fail(expected, graph, "Fields not equal: " + m));
     assertMethodsEqual(expected.getMethods(), graph.getMethods()).ifPresent(m -> fail(expected, graph, "Methods not equal: " + m));
     assertMethodsEqual(expected.getConstructors(), graph.getConstructors()).ifPresent(m -> fail(expected, graph, "Constructors not equal: " + m));
+    assertMethodsEqual(expected.getInitializers(), graph.getInitializers()).ifPresent(m -> fail(expected, graph, "Initializers not equal: " + m));
   }
 
   private void fail(DataFlowGraph expected, DataFlowGraph graph, String message) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+
+/**
+ * Unit test for {@link LexicalScope}.
+ *
+ * @author Daan
+ */
+public class LexicalScopeTest {
+
+  private LexicalScope scope = new LexicalScope();
+
+  @Test
+  public void testResolve_shadowing() {
+    Parameter param = new Parameter();
+    VariableDeclarator local = new VariableDeclarator();
+    scope.declare("a", param);
+
+    scope.enter();
+    scope.declare("a", local);
+    Assert.assertSame(local, scope.resolve("a").get());
+
+    scope.exit();
+    Assert.assertSame(param, scope.resolve("a").get());
+  }
+
+  @Test
+  public void testResolve_outerScope() {
+    Parameter param = new Parameter();
+    scope.declare("a", param);
+    scope.enter();
+    scope.enter();
+
+    Assert.assertSame(param, scope.resolve("a").get());
+    Assert.assertEquals(Optional.<Node>empty(), scope.resolve("b"));
+  }
+
+  @Test
+  public void testExit_declaredVariableNotVisible() {
+    scope.enter();
+    scope.declare("a", new VariableDeclarator());
+    scope.exit();
+
+    Assert.assertFalse(scope.resolve("a").isPresent());
+  }
+
+  @Test
+  public void testExit_restoresShadowedDeclarations() {
+    Parameter param = new Parameter();
+    VariableDeclarator first = new VariableDeclarator();
+    scope.declare("a", param);
+    scope.enter();
+    scope.declare("a", first);
+    scope.enter();
+    scope.declare("a", new VariableDeclarator());
+    scope.declare("a", new VariableDeclarator());
+
+    scope.exit();
+    Assert.assertSame(first, scope.resolve("a").get());
+    scope.exit();
+    Assert.assertSame(param, scope.resolve("a").get());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testExit_outermostScope() {
+    scope.exit();
+  }
+
+}
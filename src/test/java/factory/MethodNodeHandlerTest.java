@@ -18,7 +18,6 @@
 package factory;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Optional;
 
 import org.hamcrest.Matcher;
@@ -149,8 +148,7 @@ public class MethodNodeHandlerTest {
 
   private Optional<DataFlowNode> execute(MethodCallExpr node, DataFlowMethod method) {
     DataFlowGraph graph = DataFlowGraph.builder().build();
-    HashMap<Node, DataFlowNode> overriddenValues = new HashMap<>();
-    Optional<DataFlowNode> resultNode = sut.handleNode(graph, method, overriddenValues, node, method);
+    Optional<DataFlowNode> resultNode = sut.handleNode(graph, method, new VariableState(), node, method);
     return resultNode;
   }
 
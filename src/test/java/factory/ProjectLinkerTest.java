@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import common.SymbolSolverSetup;
+import model.DataFlowGraph;
+import model.DataFlowMethod;
+import model.DataFlowNode;
+import model.DataFlowProject;
+import model.NodeCall;
+
+/**
+ * Unit test for {@link ProjectLinker}.
+ *
+ * @author Daan
+ */
+public class ProjectLinkerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ProjectLinker sut = new ProjectLinker();
+  private File root;
+  private DataFlowGraph a;
+  private DataFlowGraph b;
+  private DataFlowProject project;
+
+  @Before
+  public void setup() throws IOException {
+    root = folder.newFolder("src");
+    Path fileA = write(root, "a/A.java", "package a;\nimport b.B;\npublic class A {\n  B b;\n  public int met(int x) {\n    return b.get(x);\n  }\n}");
+    Path fileB = write(root, "b/B.java",
+        "package b;\npublic class B {\n  public B(int y) {\n  }\n  public B(String s) {\n  }\n  public int get(int y) {\n    return y;\n  }\n"
+            + "  public int get(String s) {\n    return 1;\n  }\n}");
+    StaticJavaParser.getConfiguration()
+        .setSymbolResolver(new JavaSymbolSolver(new CombinedTypeSolver(new ReflectionTypeSolver(), new JavaParserTypeSolver(root))));
+    DataFlowGraphFactory factory = new DataFlowGraphFactory();
+    a = factory.create(StaticJavaParser.parse(fileA));
+    b = factory.create(StaticJavaParser.parse(fileB));
+    project = DataFlowProject.builder().graphs(a, b).build();
+  }
+
+  @After
+  public void tearDown() {
+    SymbolSolverSetup.setup();
+  }
+
+  @Test
+  public void testLink() {
+    NodeCall call = getCall();
+    Assert.assertFalse(call.getCalledMethod().isPresent());
+
+    List<DataFlowGraph> linked = sut.link(project);
+
+    DataFlowMethod get = getIntGet();
+    Assert.assertEquals(Arrays.asList(a), linked);
+    Assert.assertSame(get, call.getCalledMethod().get());
+    Assert.assertTrue(get.getParameters().getNodes().get(0).hasAsDirectInput(call.getIn().get().getNodes().get(0)));
+    Assert.assertSame(b, a.getDependedGraph("b.B"));
+    Assert.assertEquals(Arrays.asList(get), a.getCallGraph().getCallees(getMet()));
+    Assert.assertEquals(Arrays.asList(getMet()), b.getCallGraph().getCallers(get));
+    Assert.assertTrue(a.getCallGraph().getUnresolvedClasses().isEmpty());
+    Assert.assertTrue("Linking again should not change anything", sut.link(project).isEmpty());
+  }
+
+  @Test
+  public void testLink_overloadedConstructor() throws IOException {
+    Path fileC = write(root, "c/C.java", "package c;\nimport b.B;\npublic class C {\n  public B create(int x) {\n    return new B(x);\n  }\n}");
+    DataFlowGraph c = new DataFlowGraphFactory().create(StaticJavaParser.parse(fileC));
+    project.addGraph(c);
+
+    sut.link(project);
+
+    NodeCall call = c.getMethods().iterator().next().getNodeCalls().get(0);
+    DataFlowMethod intConstructor =
+        b.getConstructors().stream().filter(m -> "int".equals(m.getParameters().getNodes().get(0).getType())).findFirst().get();
+    Assert.assertSame(intConstructor, call.getCalledMethod().get());
+  }
+
+  @Test
+  public void testUnlink() {
+    sut.link(project);
+    NodeCall call = getCall();
+    DataFlowNode argument = call.getIn().get().getNodes().get(0);
+
+    List<DataFlowGraph> unlinked = sut.unlink(project, Collections.singletonList(b));
+
+    Assert.assertEquals(Arrays.asList(a), unlinked);
+    Assert.assertFalse(call.getCalledMethod().isPresent());
+    Assert.assertFalse(getIntGet().getParameters().getNodes().get(0).hasAsDirectInput(argument));
+    Assert.assertTrue(getIntGet().getReturnNode().get().getOut().isEmpty());
+    Assert.assertTrue(a.getDependedGraphs().isEmpty());
+    Assert.assertEquals(Collections.singleton("b.B"), a.getCallGraph().getUnresolvedClasses());
+  }
+
+  @Test
+  public void testUnlink_callingGraph() {
+    sut.link(project);
+
+    sut.unlink(project, Collections.singletonList(a));
+
+    Assert.assertTrue(b.getCallGraph().getCallers(getIntGet()).isEmpty());
+    Assert.assertTrue(b.getCallGraph().getResolvedCalls().isEmpty());
+  }
+
+  private NodeCall getCall() {
+    return getMet().getNodeCalls().get(0);
+  }
+
+  private DataFlowMethod getMet() {
+    return a.getMethods().iterator().next();
+  }
+
+  private DataFlowMethod getIntGet() {
+    return b.getMethods().stream().filter(m -> "int".equals(m.getParameters().getNodes().get(0).getType())).findFirst().get();
+  }
+
+  private Path write(File root, String relativePath, String code) throws IOException {
+    Path file = root.toPath().resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
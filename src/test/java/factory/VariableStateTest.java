@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package factory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.type.PrimitiveType;
+
+import model.DataFlowMethod;
+import model.DataFlowNode;
+
+/**
+ * Unit test for {@link VariableState}.
+ *
+ * @author Daan
+ */
+public class VariableStateTest {
+
+  private final DataFlowMethod method = DataFlowMethod.builder().name("met").representedNode(new MethodDeclaration()).build();
+  private final VariableDeclarator s = new VariableDeclarator(PrimitiveType.intType(), "s");
+  private final DataFlowNode original = createNode("s");
+
+  @Test
+  public void testAssign() {
+    VariableState sut = new VariableState();
+    Assert.assertEquals("met.s", sut.nameForNextVersion(method, s, "s"));
+    sut.assign(s, createNode("met.s"));
+    Assert.assertEquals("met.s.2", sut.nameForNextVersion(method, s, "s"));
+    DataFlowNode second = createNode("met.s.2");
+    sut.assign(s, second);
+    Assert.assertEquals("met.s.3", sut.nameForNextVersion(method, s, "s"));
+
+    Assert.assertEquals(2, sut.getVersion(s));
+    Assert.assertEquals(second, sut.getCurrent(s).get());
+    Assert.assertEquals(Collections.singletonMap(s, second), sut.getAssigned());
+  }
+
+  @Test
+  public void testMerge_differentVersions() {
+    VariableState sut = new VariableState();
+    VariableState then = sut.copy();
+    DataFlowNode assigned = createNode("met.s");
+    then.assign(s, assigned);
+
+    List<DataFlowNode> merged = sut.merge(method, new IfStmt(), Arrays.asList(then, sut.copy()), d -> original);
+
+    Assert.assertEquals(1, merged.size());
+    DataFlowNode phi = merged.get(0);
+    Assert.assertEquals("met.s.2", phi.getName());
+    Assert.assertTrue(phi.hasAsDirectInput(assigned));
+    Assert.assertTrue(phi.hasAsDirectInput(original));
+    Assert.assertEquals(phi, sut.getCurrent(s).get());
+    Assert.assertEquals(Collections.singletonList(phi), method.getMergeNodes());
+  }
+
+  @Test
+  public void testMerge_sameVersion() {
+    VariableState sut = new VariableState();
+    DataFlowNode assigned = createNode("met.s");
+    sut.assign(s, assigned);
+
+    List<DataFlowNode> merged = sut.merge(method, new IfStmt(), Arrays.asList(sut.copy(), sut.copy()), d -> original);
+
+    Assert.assertTrue(merged.isEmpty());
+    Assert.assertEquals(assigned, sut.getCurrent(s).get());
+    Assert.assertEquals(1, sut.getVersion(s));
+  }
+
+  private DataFlowNode createNode(String name) {
+    return DataFlowNode.builder().name(name).representedNode(new NameExpr(name)).build();
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+/**
+ * Unit test for {@link CallGraph}.
+ *
+ * @author Daan
+ */
+public class CallGraphTest {
+
+  private final DataFlowMethod a = createMethod("a");
+  private final DataFlowMethod b = createMethod("b");
+  private final DataFlowMethod c = createMethod("c");
+
+  @Test
+  public void testCallersAndCallees() {
+    CallGraph sut = new CallGraph();
+    NodeCall aToB = NodeCall.builder().calledMethod(b).build();
+    sut.addCall(a, aToB);
+    sut.addCall(a, NodeCall.builder().calledMethod(b).build());
+    sut.addCall(c, NodeCall.builder().calledMethod(b).build());
+
+    Assert.assertEquals(Collections.singletonList(b), sut.getCallees(a));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(a, c)), new HashSet<>(sut.getCallers(b)));
+    Assert.assertEquals(3, sut.getCallsTo(b).size());
+    Assert.assertTrue(sut.getCallers(a).isEmpty());
+    Assert.assertSame(a, sut.getResolvedCalls().get(aToB));
+    Assert.assertEquals(3, sut.getResolvedCalls().size());
+  }
+
+  @Test
+  public void testTransitive() {
+    CallGraph sut = new CallGraph();
+    sut.addCall(a, NodeCall.builder().calledMethod(b).build());
+    sut.addCall(b, NodeCall.builder().calledMethod(c).build());
+    sut.addCall(c, NodeCall.builder().calledMethod(b).build());
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(b, c)), new HashSet<>(sut.getTransitiveCallees(a)));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(a, b, c)), new HashSet<>(sut.getTransitiveCallers(c)));
+    Assert.assertTrue(sut.getTransitiveCallers(a).isEmpty());
+  }
+
+  @Test
+  public void testUnresolved() {
+    CallGraph sut = new CallGraph();
+    NodeCall call = NodeCall.builder().claz("StringBuilder").peckage("java.lang").build();
+    sut.addCall(a, call);
+
+    Assert.assertEquals(Collections.singletonList(call), sut.getUnresolvedCallsToClass("java.lang.StringBuilder"));
+    Assert.assertEquals(Collections.singletonList(call), sut.getUnresolvedCallsToPackage("java.lang"));
+    Assert.assertTrue(sut.getCallees(a).isEmpty());
+    Assert.assertTrue(sut.getResolvedCalls().isEmpty());
+  }
+
+  private DataFlowMethod createMethod(String name) {
+    return DataFlowMethod.builder().name(name).representedNode(new MethodDeclaration()).build();
+  }
+
+}
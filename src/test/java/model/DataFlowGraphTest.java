@@ -17,6 +17,7 @@
  */
 package model;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -67,7 +68,7 @@ public class DataFlowGraphTest {
     Assert.assertEquals("Unexpected classPackage", CLASS_PACKAGE, dataFlowGraph.getClassPackage());
     Assert.assertEquals("Unexpected fields", FIELDS, dataFlowGraph.getFields());
     Assert.assertEquals("Unexpected constructors", CONSTRUCTORS, dataFlowGraph.getConstructors());
-    Assert.assertEquals("Unexpected methods", METHODS.values(), dataFlowGraph.getMethods());
+    Assert.assertEquals("Unexpected methods", new ArrayList<>(METHODS.values()), new ArrayList<>(dataFlowGraph.getMethods()));
     Assert.assertEquals("Unexpected nodes", NODES, dataFlowGraph.getNodes());
     Assert.assertEquals("Unexpected dependedGraphs", DEPENDED_GRAPHS, dataFlowGraph.getDependedGraphs());
   }
@@ -74,6 +74,64 @@ public class DataFlowNodeTest {
     Assert.assertEquals("Unexpected name", NAME, dataFlowNode.getName());
   }
 
+  @Test
+  public void testToStringForward_cycle() {
+    DataFlowNode a = DataFlowNode.builder().name("a").build();
+    DataFlowNode b = DataFlowNode.builder().name("b").build();
+    DataFlowNode c = DataFlowNode.builder().name("c").build();
+    a.addEdgeTo(b);
+    a.addEdgeTo(c);
+    b.addEdgeTo(a);
+
+    Assert.assertEquals("a\t-> b\t-> a (see above)\n\t-> c", a.toStringForward(0));
+    Assert.assertEquals("c\t<- a\t<- b\t<- a (see above)", c.toStringBackward(0));
+  }
+
+  @Test
+  public void testToStringForward_sharedSubGraphs() {
+    // A chain of diamonds, where each node can be reached via 2^depth paths.
+    DataFlowNode start = DataFlowNode.builder().name("start").build();
+    DataFlowNode current = start;
+    for (int i = 0; i < 40; i++) {
+      DataFlowNode left = DataFlowNode.builder().name("l" + i).build();
+      DataFlowNode right = DataFlowNode.builder().name("r" + i).build();
+      DataFlowNode join = DataFlowNode.builder().name("j" + i).build();
+      current.addEdgeTo(left);
+      current.addEdgeTo(right);
+      left.addEdgeTo(join);
+      right.addEdgeTo(join);
+      current = join;
+    }
+
+    String result = start.toStringForward(0);
+
+    Assert.assertTrue(result, result.length() < DataFlowNode.MAX_TO_STRING_LENGTH + 100);
+    Assert.assertTrue(result, result.contains(DataFlowNode.SEEN_MARKER));
+    Assert.assertTrue(result, result.contains(DataFlowNode.TRUNCATED_MARKER));
+  }
+
+  @Test
+  public void testToStringForward_truncatedNodeExpandedAtLowerDepth() {
+    // The node end is first reached at the maximum depth via the chain, and then directly from the start node.
+    DataFlowNode start = DataFlowNode.builder().name("start").build();
+    DataFlowNode end = DataFlowNode.builder().name("end").build();
+    DataFlowNode current = start;
+    for (int i = 1; i < DataFlowNode.MAX_TO_STRING_DEPTH; i++) {
+      DataFlowNode next = DataFlowNode.builder().name("c" + i).build();
+      current.addEdgeTo(next);
+      current = next;
+    }
+    current.addEdgeTo(end);
+    start.addEdgeTo(end);
+    end.addEdgeTo(DataFlowNode.builder().name("last").build());
+
+    String result = start.toStringForward(0);
+
+    Assert.assertTrue(result, result.contains("end" + DataFlowNode.TRUNCATED_MARKER));
+    Assert.assertTrue(result, result.contains("end\t-> last"));
+    Assert.assertFalse(result, result.contains(DataFlowNode.SEEN_MARKER));
+  }
+
   @Test
   public void testEquals_Same() {
     DataFlowNode.Builder builder = createAndFillBuilder();
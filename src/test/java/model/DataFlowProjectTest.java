@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.PrimitiveType;
+
+/**
+ * Unit test for {@link DataFlowProject}.
+ *
+ * @author Daan
+ */
+public class DataFlowProjectTest {
+
+  @Test
+  public void testGetInvalidatedGraphs() {
+    DataFlowGraph b = createGraph("b", "B", "int get(int y) { return y; }", "void set(String s) {}");
+    DataFlowGraph usesGet = createGraph("a", "UsesGet");
+    usesGet.addDependency("b.B", "get(int): int");
+    DataFlowGraph usesSet = createGraph("a", "UsesSet");
+    usesSet.addDependency("b.B", "set(String): void");
+    DataFlowGraph unrelated = createGraph("a", "Unrelated");
+    unrelated.addDependency("java.lang.StringBuilder", "append(String): StringBuilder");
+    DataFlowProject project = DataFlowProject.builder().graphs(b, usesGet, usesSet, unrelated).build();
+
+    assertInvalidated(project, b, createGraph("b", "B", "int get(int y) { return y + 1; }", "void set(String s) {}"));
+    assertInvalidated(project, b, createGraph("b", "B", "int get(long y) { return 1; }", "void set(String s) {}"), usesGet);
+    assertInvalidated(project, b, createGraph("b", "B", "int get(int y) { return y; }", "void set(String s) {}", "void set(Object s) {}"), usesSet);
+    assertInvalidated(project, b, createGraph("b", "B", "long get(int y) { return y; }", "void set(String s) {}"), usesGet);
+    assertInvalidated(project, b, null, usesGet, usesSet);
+  }
+
+  @Test
+  public void testGetInvalidatedGraphs_fields() {
+    DataFlowGraph b = createGraph("b", "B");
+    b.addField(field("x"));
+    DataFlowGraph usesX = createGraph("a", "UsesX");
+    usesX.addDependency("b.B", "#x: int");
+    DataFlowProject project = DataFlowProject.builder().graphs(b, usesX).build();
+
+    DataFlowGraph stillX = createGraph("b", "B", "int x() { return 1; }");
+    stillX.addField(field("x"));
+    assertInvalidated(project, b, stillX);
+    DataFlowGraph longX = createGraph("b", "B");
+    longX.addField(DataFlowNode.builder().name("x").representedNode(new VariableDeclarator(PrimitiveType.longType(), "x")).build());
+    assertInvalidated(project, b, longX, usesX);
+    assertInvalidated(project, b, createGraph("b", "B"), usesX);
+  }
+
+  private void assertInvalidated(DataFlowProject project, DataFlowGraph oldGraph, DataFlowGraph newGraph, DataFlowGraph... expected) {
+    List<DataFlowGraph> newGraphs = newGraph == null ? Collections.emptyList() : Arrays.asList(newGraph);
+    List<DataFlowGraph> invalidated = project.getInvalidatedGraphs(Arrays.asList(oldGraph), newGraphs);
+    invalidated.sort((g1, g2) -> g1.getName().compareTo(g2.getName()));
+    Assert.assertEquals(Arrays.asList(expected), invalidated);
+  }
+
+  private DataFlowNode field(String name) {
+    return DataFlowNode.builder().name(name).representedNode(new VariableDeclarator(PrimitiveType.intType(), name)).build();
+  }
+
+  private DataFlowGraph createGraph(String peckage, String name, String... methods) {
+    DataFlowGraph graph = DataFlowGraph.builder().name(name).classPackage(peckage).build();
+    for (String method : methods) {
+      MethodDeclaration declaration = StaticJavaParser.parseMethodDeclaration(method);
+      graph.addMethod(DataFlowMethod.builder().name(declaration.getNameAsString()).representedNode(declaration).build());
+    }
+    return graph;
+  }
+
+}
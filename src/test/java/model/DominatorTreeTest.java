@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.javaparser.ast.expr.NameExpr;
+
+/**
+ * Unit test for {@link DominatorTree}.
+ *
+ * @author Daan
+ */
+public class DominatorTreeTest {
+
+  private DataFlowNode a = node("a");
+  private DataFlowNode b = node("b");
+  private DataFlowNode x = node("x");
+  private DataFlowNode y = node("y");
+  private DataFlowNode z = node("z");
+  private DataFlowNode w = node("w");
+  private DataFlowNode r = node("r");
+
+  /**
+   * Creates a method with parameters a and b, where a -> x -> z -> r, b -> y -> z and x -> w.
+   */
+  private DataFlowMethod createMethod() {
+    a.addEdgeTo(x);
+    b.addEdgeTo(y);
+    x.addEdgeTo(z);
+    y.addEdgeTo(z);
+    x.addEdgeTo(w);
+    z.addEdgeTo(r);
+    return DataFlowMethod.builder().name("met").inputParameters(a, b).nodes(x, y, z, w).returnNode(r).build();
+  }
+
+  @Test
+  public void testGetDominatorTree() {
+    DominatorTree tree = createMethod().getDominatorTree();
+
+    Assert.assertEquals(Optional.empty(), tree.getImmediateDominator(a));
+    Assert.assertEquals(Optional.of(a), tree.getImmediateDominator(x));
+    Assert.assertEquals(Optional.of(x), tree.getImmediateDominator(w));
+    Assert.assertEquals(Optional.empty(), tree.getImmediateDominator(z));
+    Assert.assertEquals(Optional.of(z), tree.getImmediateDominator(r));
+    Assert.assertEquals(Arrays.asList(w), tree.getChildren(x));
+    Assert.assertTrue(tree.dominates(a, w));
+    Assert.assertTrue(tree.dominates(z, z));
+    Assert.assertFalse(tree.dominates(a, z));
+    Assert.assertFalse(tree.dominates(w, x));
+  }
+
+  @Test
+  public void testGetPostDominatorTree() {
+    DominatorTree tree = createMethod().getPostDominatorTree();
+
+    Assert.assertEquals(Optional.empty(), tree.getImmediateDominator(r));
+    Assert.assertEquals(Optional.of(r), tree.getImmediateDominator(z));
+    Assert.assertEquals(Optional.of(z), tree.getImmediateDominator(y));
+    Assert.assertEquals(Optional.empty(), tree.getImmediateDominator(x));
+    Assert.assertEquals(Optional.of(x), tree.getImmediateDominator(a));
+    Assert.assertTrue(tree.dominates(r, b));
+    Assert.assertFalse(tree.dominates(r, a));
+  }
+
+  @Test
+  public void testGetDominatorTree_cycle() {
+    // a -> x -> y -> x, and a cycle z -> w -> z without entry.
+    a.addEdgeTo(x);
+    x.addEdgeTo(y);
+    y.addEdgeTo(x);
+    z.addEdgeTo(w);
+    w.addEdgeTo(z);
+    DataFlowMethod method = DataFlowMethod.builder().name("met").inputParameters(a).nodes(x, y, z, w).build();
+
+    DominatorTree tree = method.getDominatorTree();
+
+    Assert.assertEquals(Optional.of(x), tree.getImmediateDominator(y));
+    Assert.assertEquals(Optional.of(a), tree.getImmediateDominator(x));
+    Assert.assertFalse(tree.dominates(y, x));
+    Assert.assertTrue(tree.getImmediateDominator(z).isPresent() ^ tree.getImmediateDominator(w).isPresent());
+  }
+
+  @Test
+  public void testGetDominatorTree_invalidated() {
+    DataFlowMethod method = createMethod();
+    DominatorTree tree = method.getDominatorTree();
+    Assert.assertSame(tree, method.getDominatorTree());
+
+    DataFlowNode v = node("v");
+    r.addEdgeTo(v);
+    method.addNode(v);
+
+    Assert.assertNotSame(tree, method.getDominatorTree());
+    Assert.assertEquals(Optional.of(r), method.getDominatorTree().getImmediateDominator(v));
+  }
+
+  private static DataFlowNode node(String name) {
+    return DataFlowNode.builder().name(name).representedNode(new NameExpr(name)).build();
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.PrimitiveType;
+
+/**
+ * Unit test for {@link GraphQuery}.
+ *
+ * @author Daan
+ */
+public class GraphQueryTest {
+
+  @Test
+  public void testQuery_graph() {
+    DataFlowNode field = DataFlowNode.builder().name("s").type("String").representedNode(new VariableDeclarator(PrimitiveType.intType(), "s")).build();
+    DataFlowNode usage = DataFlowNode.builder().name("s").representedNode(new NameExpr("s")).build();
+    NodeCall call = NodeCall.builder().name("append").claz("StringBuilder").peckage("java.lang").representedNode(new MethodCallExpr()).build();
+    DataFlowMethod method = DataFlowMethod.builder().name("getS").representedNode(new MethodDeclaration()).nodes(usage).nodeCalls(call).build();
+    DataFlowGraph graph = DataFlowGraph.builder().name("Claz").fields(field).methods(method).build();
+
+    GraphQuery query = graph.query();
+
+    Assert.assertEquals(Collections.singletonList(method), query.getMethods("getS"));
+    Assert.assertEquals(Collections.singletonList(field), query.getFields("s"));
+    Assert.assertEquals(Arrays.asList(field, usage), query.getNodes("s"));
+    Assert.assertEquals(Collections.singletonList(field), query.getNodesByType("String"));
+    Assert.assertEquals(Collections.singletonList(usage), query.getNodesByKind(NameExpr.class));
+    Assert.assertEquals(Collections.singletonList(call), query.getNodeCalls("append"));
+    Assert.assertEquals(Collections.singletonList(call), query.getNodeCallsToClass("StringBuilder"));
+    Assert.assertEquals(Collections.singletonList(call), query.getNodeCallsToPackage("java.lang"));
+    Assert.assertTrue(query.getMethods("setS").isEmpty());
+  }
+
+  @Test
+  public void testQuery_reusedUntilModified() {
+    DataFlowMethod method = DataFlowMethod.builder().name("getS").representedNode(new MethodDeclaration()).build();
+    DataFlowGraph graph = DataFlowGraph.builder().name("Claz").methods(method).build();
+
+    GraphQuery query = graph.query();
+    Assert.assertSame(query, graph.query());
+
+    DataFlowNode added = DataFlowNode.builder().name("x").representedNode(new NameExpr("x")).build();
+    method.addNode(added);
+
+    Assert.assertNotSame(query, graph.query());
+    Assert.assertEquals(Collections.singletonList(added), graph.query().getNodes("x"));
+  }
+
+  @Test
+  public void testQuery_project() {
+    DataFlowGraph a = DataFlowGraph.builder().name("A").classPackage("p").fields(createField("x")).build();
+    DataFlowGraph b = DataFlowGraph.builder().name("B").classPackage("p").fields(createField("x")).build();
+    DataFlowProject project = DataFlowProject.builder().graphs(a, b).build();
+
+    Assert.assertEquals(2, project.query().getFields("x").size());
+    Assert.assertEquals(a, project.getGraph("p.A").get());
+
+    GraphQuery query = project.query();
+    b.addField(createField("y"));
+
+    Assert.assertNotSame(query, project.query());
+    Assert.assertEquals(1, project.query().getFields("y").size());
+  }
+
+  private DataFlowNode createField(String name) {
+    return DataFlowNode.builder().name(name).representedNode(new VariableDeclarator(PrimitiveType.intType(), name)).build();
+  }
+
+}
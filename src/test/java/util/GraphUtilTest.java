@@ -17,15 +17,21 @@
  */
 package util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import common.GraphBuilder;
 import common.NodeBuilder;
+import model.DataFlowEdge;
 import model.DataFlowGraph;
 import model.DataFlowMethod;
 import model.DataFlowNode;
@@ -75,4 +81,120 @@ public class GraphUtilTest {
     Assert.assertEquals(Arrays.asList(parameters.get(0), parameters.get(1)), result);
   }
 
+  @Test
+  public void testWalkUntil_parallelMultipleSources() {
+    // Many sinks all depending on the same two sources via a shared chain containing a cycle.
+    DataFlowNode source1 = DataFlowNode.builder().name("source1").build();
+    DataFlowNode source2 = DataFlowNode.builder().name("source2").build();
+    DataFlowNode shared = DataFlowNode.builder().name("shared").build();
+    DataFlowNode loop = DataFlowNode.builder().name("loop").build();
+    source1.addEdgeTo(shared);
+    source2.addEdgeTo(shared);
+    shared.addEdgeTo(loop);
+    loop.addEdgeTo(shared);
+    List<DataFlowNode> sinks = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      DataFlowNode sink = DataFlowNode.builder().name("sink" + i).build();
+      loop.addEdgeTo(sink);
+      sinks.add(sink);
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    List<DataFlowNode> result = GraphUtil.walkUntil(sinks, Direction.BACKWARD, n -> n.getName().startsWith("source"), n -> true, pool);
+
+    Assert.assertEquals(2, result.size());
+    Assert.assertTrue(result.containsAll(Arrays.asList(source1, source2)));
+    pool.shutdown();
+  }
+
+  @Test
+  public void testWalkUntil_bounded() {
+    // A chain a <- b <- c <- d with a cycle between c and d, and e directly flowing into d.
+    DataFlowNode a = DataFlowNode.builder().name("a").build();
+    DataFlowNode b = DataFlowNode.builder().name("b").build();
+    DataFlowNode c = DataFlowNode.builder().name("c").build();
+    DataFlowNode d = DataFlowNode.builder().name("d").build();
+    DataFlowNode e = DataFlowNode.builder().name("e").build();
+    a.addEdgeTo(b);
+    b.addEdgeTo(c);
+    c.addEdgeTo(d);
+    d.addEdgeTo(c);
+    e.addEdgeTo(d);
+    Predicate<DataFlowNode> noInput = n -> n.getIn().isEmpty();
+
+    TraversalResult unbounded = GraphUtil.walkUntil(d, Direction.BACKWARD, noInput, n -> true, TraversalOptions.UNBOUNDED);
+    Assert.assertEquals(Arrays.asList(e, a), unbounded.getNodes());
+    Assert.assertFalse(unbounded.isBudgetExceeded());
+
+    TraversalResult depth = GraphUtil.walkUntil(d, Direction.BACKWARD, noInput, n -> true, TraversalOptions.builder().maxDepth(2).build());
+    Assert.assertEquals(Arrays.asList(e), depth.getNodes());
+    Assert.assertTrue(depth.isBudgetExceeded());
+
+    TraversalResult first = GraphUtil.walkUntil(d, Direction.BACKWARD, noInput, n -> true, TraversalOptions.builder().maxResults(1).build());
+    Assert.assertEquals(Arrays.asList(e), first.getNodes());
+    Assert.assertTrue(first.isBudgetExceeded());
+
+    TraversalResult none = GraphUtil.walkUntil(d, Direction.BACKWARD, noInput, n -> true, TraversalOptions.builder().maxResults(0).build());
+    Assert.assertEquals(Arrays.asList(), none.getNodes());
+    Assert.assertTrue(none.isBudgetExceeded());
+
+    TraversalResult visited = GraphUtil.walkUntil(d, Direction.BACKWARD, noInput, n -> true, TraversalOptions.builder().maxVisited(3).build());
+    Assert.assertEquals(Arrays.asList(e), visited.getNodes());
+    Assert.assertEquals(3, visited.getVisited());
+    Assert.assertTrue(visited.isBudgetExceeded());
+  }
+
+  @Test
+  public void testFindPaths() {
+    // Two paths from a to d: a -> b -> d and a -> c -> x -> d, and a cycle between b and c.
+    DataFlowNode a = DataFlowNode.builder().name("a").build();
+    DataFlowNode b = DataFlowNode.builder().name("b").build();
+    DataFlowNode c = DataFlowNode.builder().name("c").build();
+    DataFlowNode x = DataFlowNode.builder().name("x").build();
+    DataFlowNode d = DataFlowNode.builder().name("d").build();
+    a.addEdgeTo(b);
+    a.addEdgeTo(c);
+    b.addEdgeTo(c);
+    c.addEdgeTo(b);
+    b.addEdgeTo(d);
+    c.addEdgeTo(x);
+    x.addEdgeTo(d);
+
+    Optional<List<DataFlowEdge>> shortest = GraphUtil.findShortestPath(a, Direction.FORWARD, n -> n == d, n -> true);
+    Assert.assertEquals(Arrays.asList("a->b", "b->d"), toNames(shortest.get()));
+
+    List<List<DataFlowEdge>> paths = GraphUtil.findPaths(d, Direction.BACKWARD, n -> n == a, n -> true, 3);
+    Assert.assertEquals(Arrays.asList(Arrays.asList("b->d", "a->b"), Arrays.asList("b->d", "c->b", "a->c"), Arrays.asList("x->d", "c->x", "a->c")),
+        paths.stream().map(this::toNames).collect(Collectors.toList()));
+
+    Assert.assertFalse(GraphUtil.findShortestPath(d, Direction.FORWARD, n -> n == a, n -> true).isPresent());
+  }
+
+  @Test
+  public void testReaches() {
+    // a -> b -> c <-> d -> e, with x -> e and a cycle between c and d.
+    DataFlowNode a = DataFlowNode.builder().name("a").build();
+    DataFlowNode b = DataFlowNode.builder().name("b").build();
+    DataFlowNode c = DataFlowNode.builder().name("c").build();
+    DataFlowNode d = DataFlowNode.builder().name("d").build();
+    DataFlowNode e = DataFlowNode.builder().name("e").build();
+    DataFlowNode x = DataFlowNode.builder().name("x").build();
+    a.addEdgeTo(b);
+    b.addEdgeTo(c);
+    c.addEdgeTo(d);
+    d.addEdgeTo(c);
+    d.addEdgeTo(e);
+    x.addEdgeTo(e);
+
+    Assert.assertTrue(GraphUtil.reaches(a, e, n -> true));
+    Assert.assertTrue(GraphUtil.reaches(d, c, n -> true));
+    Assert.assertFalse(GraphUtil.reaches(e, a, n -> true));
+    Assert.assertFalse(GraphUtil.reaches(x, a, n -> true));
+    Assert.assertFalse(GraphUtil.reaches(a, e, n -> n != c));
+  }
+
+  private List<String> toNames(List<DataFlowEdge> path) {
+    return path.stream().map(e -> e.getFrom().getName() + "->" + e.getTo().getName()).collect(Collectors.toList());
+  }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 by Daan van den Heuvel.
+ *
+ * This file is part of JavaDataFlow.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package util;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.DataFlowNode;
+
+/**
+ * Unit test for {@link TraversalContext}.
+ *
+ * @author Daan
+ */
+public class TraversalContextTest {
+
+  @Test
+  public void testWalkUntil() {
+    // a -> b -> c -> a, b -> d, c -> e
+    DataFlowNode a = DataFlowNode.builder().name("a").build();
+    DataFlowNode b = DataFlowNode.builder().name("b").build();
+    DataFlowNode c = DataFlowNode.builder().name("c").build();
+    DataFlowNode d = DataFlowNode.builder().name("d").build();
+    DataFlowNode e = DataFlowNode.builder().name("e").build();
+    a.addEdgeTo(b);
+    b.addEdgeTo(c);
+    c.addEdgeTo(a);
+    b.addEdgeTo(d);
+    c.addEdgeTo(e);
+    TraversalContext context = new TraversalContext();
+
+    Assert.assertEquals(2, context.walkUntil(a, Direction.FORWARD, n -> n.getOut().isEmpty(), n -> true));
+    Assert.assertEquals(Arrays.asList(e, d), context.getResults());
+
+    // Reusing the context should not be influenced by the marks of the previous walk.
+    Assert.assertEquals(1, context.walkUntil(e, Direction.BACKWARD, n -> n == a, n -> true));
+    Assert.assertSame(a, context.getResult(0));
+
+    Assert.assertEquals(0, context.walkUntil(a, Direction.FORWARD, n -> n == e, n -> n != c));
+    Assert.assertEquals(Collections.emptyList(), context.getResults());
+  }
+
+  @Test
+  public void testWalkUntil_growsAndReuses() {
+    // A diamond per step, so that each join node is reached twice while the visited table grows.
+    TraversalContext context = new TraversalContext();
+    DataFlowNode start = DataFlowNode.builder().name("start").build();
+    DataFlowNode current = start;
+    for (int i = 0; i < 5000; i++) {
+      DataFlowNode left = DataFlowNode.builder().name("l" + i).build();
+      DataFlowNode right = DataFlowNode.builder().name("r" + i).build();
+      DataFlowNode join = DataFlowNode.builder().name("j" + i).build();
+      current.addEdgeTo(left);
+      current.addEdgeTo(right);
+      left.addEdgeTo(join);
+      right.addEdgeTo(join);
+      current = join;
+    }
+    DataFlowNode end = current;
+
+    for (int walk = 0; walk < 3; walk++) {
+      Assert.assertEquals(1, context.walkUntil(start, Direction.FORWARD, n -> n.getOut().isEmpty(), n -> true));
+      Assert.assertSame(end, context.getResult(0));
+      Assert.assertEquals(1, context.walkUntil(end, Direction.BACKWARD, n -> n.getIn().isEmpty(), n -> true));
+      Assert.assertSame(start, context.getResult(0));
+    }
+  }
+
+}